@@ -0,0 +1,63 @@
+package com.mindex.benchmark;
+
+import com.mindex.analyzer.JavaAnalyzer;
+import com.mindex.model.AnalysisResult;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * End-to-end analysis of a synthetic project (discovery, reading, parsing, metrics, aggregation),
+ * on the AST or with the token-based fast mode.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class AnalyzeProjectBenchmark {
+    @Param({"200"})
+    public int files;
+
+    /** Worker threads; 0 = all cores */
+    @Param({"1", "0"})
+    public int threads;
+
+    /** Estimate metrics from tokens instead of parsing (-fast) */
+    @Param({"false", "true"})
+    public boolean fast;
+
+    private Path root;
+    private JavaAnalyzer analyzer;
+
+    @Setup
+    public void setUp() throws IOException {
+        root = Files.createTempDirectory("mindex-bench");
+        SyntheticSource.writeProject(root, files, 10, SyntheticSource.statements("medium"));
+        analyzer = new JavaAnalyzer.Builder().threads(threads).fast(fast).build();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        SyntheticSource.delete(root);
+    }
+
+    @Benchmark
+    public AnalysisResult analyzeProject() {
+        return analyzer.analyzeProject(root.toString());
+    }
+}
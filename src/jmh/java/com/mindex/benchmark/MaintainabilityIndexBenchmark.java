@@ -0,0 +1,61 @@
+package com.mindex.benchmark;
+
+import com.mindex.metrics.MaintainabilityIndexCalculator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of one MI calculation, measured over a batch of realistic metric values.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MaintainabilityIndexBenchmark {
+    private static final int BATCH = 1024;
+
+    private final double[] volumes = new double[BATCH];
+    private final int[] complexities = new int[BATCH];
+    private final int[] locs = new int[BATCH];
+    private final double[] mis = new double[BATCH];
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        for (int i = 0; i < BATCH; i++) {
+            volumes[i] = 1 + random.nextDouble() * 5000;
+            complexities[i] = 1 + random.nextInt(40);
+            locs[i] = 1 + random.nextInt(300);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public double calculate() {
+        double sum = 0;
+        for (int i = 0; i < BATCH; i++) {
+            sum += MaintainabilityIndexCalculator.calculate(volumes[i], complexities[i], locs[i]);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public double[] scoreAll() {
+        MaintainabilityIndexCalculator.DEFAULT.scoreAll(volumes, complexities, locs, null, mis, 0, BATCH);
+        return mis;
+    }
+}
@@ -0,0 +1,60 @@
+package com.mindex.benchmark;
+
+import com.github.javaparser.StaticJavaParser;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.mindex.metrics.MethodMetrics;
+import com.mindex.metrics.MetricCalculator;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of each metric calculator on an already parsed method of the given size.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MetricCalculatorBenchmark {
+    @Param({"small", "medium", "huge"})
+    public String size;
+
+    private MethodDeclaration method;
+
+    @Setup
+    public void setUp() {
+        String source = SyntheticSource.compilationUnit("bench", "Measured", 1, SyntheticSource.statements(size));
+        method = StaticJavaParser.parse(source).findFirst(MethodDeclaration.class).orElseThrow();
+    }
+
+    @Benchmark
+    public int calculateLOC() {
+        return MetricCalculator.calculateLOC(method);
+    }
+
+    @Benchmark
+    public int calculateCyclomaticComplexity() {
+        return MetricCalculator.calculateCyclomaticComplexity(method);
+    }
+
+    @Benchmark
+    public double calculateHalsteadVolume() {
+        return MetricCalculator.calculateHalsteadVolume(method);
+    }
+
+    @Benchmark
+    public MethodMetrics calculateMetrics() {
+        return MetricCalculator.calculateMetrics(method);
+    }
+}
@@ -0,0 +1,45 @@
+package com.mindex.benchmark;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParseResult;
+import com.github.javaparser.ast.CompilationUnit;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parse-only cost of a generated file with ten methods of the given size.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParserBenchmark {
+    @Param({"small", "medium", "huge"})
+    public String size;
+
+    private String source;
+    private JavaParser parser;
+
+    @Setup
+    public void setUp() {
+        source = SyntheticSource.compilationUnit("bench", "Parsed", 10, SyntheticSource.statements(size));
+        parser = new JavaParser();
+    }
+
+    @Benchmark
+    public ParseResult<CompilationUnit> parse() {
+        return parser.parse(source);
+    }
+}
@@ -0,0 +1,104 @@
+package com.mindex.benchmark;
+
+import com.mindex.analyzer.ResultSink;
+import com.mindex.export.ExportFormat;
+import com.mindex.export.ResultExporter;
+import com.mindex.model.FileResult;
+import com.mindex.model.MethodInfo;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Export throughput of the batch CSV writer and the streaming formats for a result set of the given number of methods.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResultExporterBenchmark {
+    @Param({"10000", "100000"})
+    public int methods;
+
+    private final Map<String, ArrayList<MethodInfo>> classMethods = new LinkedHashMap<>();
+    private final Map<String, ArrayList<MethodInfo>> packageMethods = new LinkedHashMap<>();
+    private final ArrayList<MethodInfo> allMethods = new ArrayList<>();
+    private final List<FileResult> fileResults = new ArrayList<>();
+    private Path outFile;
+    private PrintStream console;
+
+    @Setup
+    public void setUp() throws IOException {
+        Random random = new Random(42);
+        for (int i = 0; i < methods; i++) {
+            MethodInfo m = new MethodInfo("method" + i, random.nextDouble() * 5000, 1 + random.nextInt(40), 1 + random.nextInt(300), random.nextDouble() * 100);
+            classMethods.computeIfAbsent("Class" + i / 20, k -> new ArrayList<>()).add(m);
+            packageMethods.computeIfAbsent("pkg" + i / 2000, k -> new ArrayList<>()).add(m);
+            allMethods.add(m);
+            if (i % 20 == 0) {
+                fileResults.add(new FileResult("Class" + i / 20 + ".java", "pkg" + i / 2000));
+            }
+            fileResults.get(fileResults.size() - 1).classMethods.computeIfAbsent("Class" + i / 20, k -> new ArrayList<>()).add(m);
+        }
+        outFile = Files.createTempFile("mindex-bench", ".csv");
+        // The exporter reports every export on the console
+        console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        System.setOut(console);
+        Files.deleteIfExists(outFile);
+    }
+
+    @Benchmark
+    public void exportResultsToCSV() {
+        ResultExporter.exportResultsToCSV(classMethods, packageMethods, allMethods, outFile.toString());
+    }
+
+    private void stream(String format) throws IOException {
+        ResultSink sink = ExportFormat.forName(format).open(outFile.toString());
+        for (FileResult fileResult : fileResults) {
+            sink.accept(fileResult);
+        }
+        sink.close();
+    }
+
+    @Benchmark
+    public void streamCSV() throws IOException {
+        stream("csv");
+    }
+
+    @Benchmark
+    public void streamJsonLines() throws IOException {
+        stream("jsonl");
+    }
+
+    @Benchmark
+    public void streamBinary() throws IOException {
+        stream("bin");
+    }
+}
@@ -0,0 +1,130 @@
+package com.mindex.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Deterministic generator of Java source code for benchmarks: methods of a given size that mix
+ * branches, loops, switches, try/catch and arithmetic, and whole synthetic projects of such methods.
+ */
+public class SyntheticSource {
+    /** Statements per method for the "small", "medium" and "huge" benchmark sizes */
+    public static int statements(String size) {
+        switch (size) {
+            case "small":
+                return 5;
+            case "medium":
+                return 60;
+            case "huge":
+                return 2000;
+            default:
+                throw new IllegalArgumentException("Unknown size: " + size);
+        }
+    }
+
+    /**
+     * Generate one method.
+     * @param name Method name
+     * @param statements Number of statements in the body
+     * @return Method source code
+     */
+    public static String method(String name, int statements) {
+        StringBuilder src = new StringBuilder();
+        src.append("    public int ").append(name).append("(int a, int b, String s) {\n");
+        src.append("        int total = 0;\n");
+        for (int i = 0; i < statements; i++) {
+            switch (i % 6) {
+                case 0:
+                    src.append("        total += a * ").append(i).append(" - b;\n");
+                    break;
+                case 1:
+                    src.append("        if (total > ").append(i).append(" && s != null) {\n");
+                    src.append("            total -= s.length();\n");
+                    src.append("        } else {\n");
+                    src.append("            total++;\n");
+                    src.append("        }\n");
+                    break;
+                case 2:
+                    src.append("        for (int i").append(i).append(" = 0; i").append(i).append(" < b; i").append(i).append("++) {\n");
+                    src.append("            total ^= i").append(i).append(" << 1;\n");
+                    src.append("        }\n");
+                    break;
+                case 3:
+                    src.append("        switch (a % 3) {\n");
+                    src.append("            case 0: total += 2; break;\n");
+                    src.append("            case 1: total -= 3; break;\n");
+                    src.append("            default: total *= 2;\n");
+                    src.append("        }\n");
+                    break;
+                case 4:
+                    src.append("        try {\n");
+                    src.append("            total += Integer.parseInt(\"").append(i).append("\");\n");
+                    src.append("        } catch (NumberFormatException e) {\n");
+                    src.append("            total = 0;\n");
+                    src.append("        }\n");
+                    break;
+                default:
+                    src.append("        while (total > 1000000) {\n");
+                    src.append("            total = total / 2 + (a > b ? a : b);\n");
+                    src.append("        }\n");
+            }
+        }
+        src.append("        return total;\n");
+        src.append("    }\n");
+        return src.toString();
+    }
+
+    /**
+     * Generate a compilation unit containing one class.
+     * @param packageName Package of the class
+     * @param className Name of the class
+     * @param methods Number of methods
+     * @param statements Number of statements per method
+     * @return Source code of the file
+     */
+    public static String compilationUnit(String packageName, String className, int methods, int statements) {
+        StringBuilder src = new StringBuilder();
+        src.append("package ").append(packageName).append(";\n\n");
+        src.append("/** Generated benchmark class */\n");
+        src.append("public class ").append(className).append(" {\n");
+        for (int m = 0; m < methods; m++) {
+            src.append(method("method" + m, statements)).append('\n');
+        }
+        src.append("}\n");
+        return src.toString();
+    }
+
+    /**
+     * Write a synthetic project of generated classes spread over several packages.
+     * @param root Directory to write the project into
+     * @param files Number of source files
+     * @param methodsPerFile Number of methods per file
+     * @param statements Number of statements per method
+     * @throws IOException if a file cannot be written
+     */
+    public static void writeProject(Path root, int files, int methodsPerFile, int statements) throws IOException {
+        for (int f = 0; f < files; f++) {
+            String packageName = "bench.pkg" + (f % 10);
+            Path dir = root.resolve(packageName.replace('.', '/'));
+            Files.createDirectories(dir);
+            String className = "Generated" + f;
+            Files.writeString(dir.resolve(className + ".java"), compilationUnit(packageName, className, methodsPerFile, statements));
+        }
+    }
+
+    /**
+     * Delete a directory tree created by {@link #writeProject}.
+     * @param root Directory to delete
+     * @throws IOException if a file cannot be deleted
+     */
+    public static void delete(Path root) throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+}
@@ -1,8 +1,37 @@
 package com.mindex;
 
+import com.mindex.analyzer.AggregateCollector;
+import com.mindex.analyzer.AnalysisPipeline;
+import com.mindex.analyzer.FileDiscovery;
 import com.mindex.analyzer.JavaAnalyzer;
-import com.mindex.model.AnalysisResult;
+import com.mindex.analyzer.ResultSink;
+import com.mindex.analyzer.ResultStoreCollector;
+import com.mindex.cache.AnalysisCache;
+import com.mindex.clone.CloneDetector;
+import com.mindex.daemon.AnalysisDaemon;
+import com.mindex.daemon.DaemonClient;
+import com.mindex.daemon.ProjectIndex;
+import com.mindex.model.ResultStore;
+import com.mindex.export.AggregateExporter;
+import com.mindex.export.CloneExporter;
+import com.mindex.export.DeltaExporter;
+import com.mindex.export.ExportFormat;
 import com.mindex.export.ResultExporter;
+import com.mindex.export.StreamingResultPrinter;
+import com.mindex.git.DeltaAnalyzer;
+import com.mindex.git.DeltaReport;
+import com.mindex.metrics.MaintainabilityIndexCalculator;
+import com.mindex.profile.AnalysisProfiler;
+import com.mindex.shard.PartialResultWriter;
+import com.mindex.shard.PartialResults;
+import com.mindex.shard.Shard;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
 
 public class Main {
     public static void main(String[] args) {
@@ -10,29 +39,459 @@ public class Main {
             printHelp();
             System.exit(0);
         }
-        if (args.length != 2 && args.length != 4) {
-            printHelp();
+        List<String> projects = new ArrayList<>();
+        String outFile = null;
+        int threads = 1;
+        String cacheFile = null;
+        boolean stream = false;
+        String format = "csv";
+        int[] pipelineThreads = null;
+        int queueCapacity = 64;
+        List<String> includes = new ArrayList<>();
+        List<String> excludes = new ArrayList<>(FileDiscovery.DEFAULT_EXCLUDES);
+        boolean useGitignore = false;
+        boolean daemon = false;
+        int port = AnalysisDaemon.DEFAULT_PORT;
+        String query = null;
+        boolean profile = false;
+        int slowest = 10;
+        String summaryFile = null;
+        int topK = 10;
+        Shard shard = null;
+        String partialFile = null;
+        List<Path> partials = new ArrayList<>();
+        String delta = null;
+        MaintainabilityIndexCalculator calculator = MaintainabilityIndexCalculator.DEFAULT;
+        boolean fast = false;
+        String cloneFile = null;
+        double cloneSimilarity = CloneDetector.DEFAULT_SIMILARITY;
+        int cloneMinTokens = CloneDetector.DEFAULT_MIN_TOKENS;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-project":
+                    projects.add(optionValue(args, ++i));
+                    break;
+                case "-out":
+                    outFile = optionValue(args, ++i);
+                    break;
+                case "-threads":
+                    threads = intOptionValue(args, ++i);
+                    break;
+                case "-cache":
+                    cacheFile = optionValue(args, ++i);
+                    break;
+                case "-stream":
+                    stream = true;
+                    break;
+                case "-format":
+                    format = optionValue(args, ++i);
+                    break;
+                case "-pipeline":
+                    pipelineThreads = intListOptionValue(args, ++i, 3);
+                    break;
+                case "-queue":
+                    queueCapacity = intOptionValue(args, ++i);
+                    break;
+                case "-include":
+                    includes.add(optionValue(args, ++i));
+                    break;
+                case "-exclude":
+                    excludes.add(optionValue(args, ++i));
+                    break;
+                case "-no-default-excludes":
+                    excludes.removeAll(FileDiscovery.DEFAULT_EXCLUDES);
+                    break;
+                case "-gitignore":
+                    useGitignore = true;
+                    break;
+                case "-daemon":
+                    daemon = true;
+                    break;
+                case "-port":
+                    port = intOptionValue(args, ++i);
+                    break;
+                case "-query":
+                    query = optionValue(args, ++i);
+                    break;
+                case "-profile":
+                    profile = true;
+                    break;
+                case "-slowest":
+                    slowest = intOptionValue(args, ++i);
+                    break;
+                case "-summary":
+                    summaryFile = optionValue(args, ++i);
+                    break;
+                case "-top":
+                    topK = intOptionValue(args, ++i);
+                    break;
+                case "-shard":
+                    shard = shardOptionValue(args, ++i);
+                    break;
+                case "-partial":
+                    partialFile = optionValue(args, ++i);
+                    break;
+                case "-merge":
+                    partials.add(Paths.get(optionValue(args, ++i)));
+                    break;
+                case "-delta":
+                    delta = optionValue(args, ++i);
+                    break;
+                case "-mi-coefficients":
+                    calculator = coefficientsOptionValue(args, ++i);
+                    break;
+                case "-fast":
+                    fast = true;
+                    break;
+                case "-clones":
+                    cloneFile = optionValue(args, ++i);
+                    break;
+                case "-clone-similarity":
+                    cloneSimilarity = shareOptionValue(args, ++i);
+                    break;
+                case "-clone-min-tokens":
+                    cloneMinTokens = intOptionValue(args, ++i);
+                    break;
+                default:
+                    printHelp();
+                    System.exit(1);
+            }
+        }
+        if (query != null) {
+            System.exit(queryDaemon(port, query, projects.isEmpty() ? null : projects.get(0)));
+        }
+        ExportFormat exportFormat = null;
+        try {
+            exportFormat = ExportFormat.forName(format);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
             System.exit(1);
         }
-        if (!"-project".equals(args[0])) {
+        if (!"csv".equals(format)) {
+            if (outFile == null) {
+                System.err.println("-format " + format + " requires -out");
+                System.exit(1);
+            }
+            // Only CSV has a batch writer; the other formats are written as results arrive
+            stream = true;
+        }
+        boolean merge = !partials.isEmpty();
+        boolean archives = !projects.isEmpty() && projects.stream().allMatch(Main::isArchive);
+        // -merge reads partials instead of projects, so options that need a project tree do not apply
+        if (merge ? !projects.isEmpty() || shard != null || partialFile != null || delta != null || daemon
+                : projects.isEmpty() || (daemon ? archives : !archives && projects.size() > 1) || (archives && delta != null)) {
             printHelp();
             System.exit(1);
         }
-        String sourceDir = args[1];
-        String outFile = null;
-        if (args.length == 4) {
-            if (!"-out".equals(args[2])) {
-                printHelp();
-                System.exit(1);
+        if (fast && (cacheFile != null || pipelineThreads != null)) {
+            // Cache entries hold AST metrics, and the pipeline's parse stage is what fast mode leaves out
+            System.err.println("-fast cannot be combined with -cache or -pipeline");
+            System.exit(1);
+        }
+        if (shard != null && cacheFile != null) {
+            // Saving evicts the entries of files outside the run, so shards sharing a cache would drop each other's entries
+            System.err.println("-shard cannot be combined with -cache");
+            System.exit(1);
+        }
+        if (shard != null && delta != null) {
+            // A delta covers the files changed between two revisions; a shard would silently drop some of them
+            System.err.println("-shard cannot be combined with -delta");
+            System.exit(1);
+        }
+        if (archives && pipelineThreads != null) {
+            // The pipeline's read stage walks a directory; archive entries are read by analyzeArchives
+            System.err.println("-pipeline cannot be combined with archive projects");
+            System.exit(1);
+        }
+        if (cloneFile != null && (fast || cacheFile != null || merge || delta != null || daemon)) {
+            // Fingerprints are taken from freshly parsed methods and are neither cached nor stored in partials
+            System.err.println("-clones cannot be combined with -fast, -cache, -merge, -delta or -daemon");
+            System.exit(1);
+        }
+        FileDiscovery discovery = new FileDiscovery(includes, excludes, useGitignore, shard);
+        if (delta != null) {
+            runDelta(new JavaAnalyzer.Builder().discovery(discovery).calculator(calculator).fast(fast).build(), discovery, projects.get(0), delta, outFile);
+            return;
+        }
+        if (daemon) {
+            runDaemon(new JavaAnalyzer.Builder().threads(threads).discovery(discovery).calculator(calculator).fast(fast).build(), discovery, projects, port);
+            return;
+        }
+        AnalysisCache cache = cacheFile != null && !merge ? AnalysisCache.load(Paths.get(cacheFile)) : null;
+        AnalysisProfiler profiler = profile ? new AnalysisProfiler(slowest) : AnalysisProfiler.DISABLED;
+        JavaAnalyzer analyzer = new JavaAnalyzer.Builder().threads(threads).cache(cache).discovery(discovery).profiler(profiler)
+                .calculator(calculator).fast(fast).fingerprints(cloneFile != null).build();
+        // A shard run that only writes partial results does not print them
+        ResultStoreCollector collector = stream || (partialFile != null && outFile == null) ? null : new ResultStoreCollector();
+        ResultSink sink = stream ? openStreamingSink(exportFormat, outFile) : collector;
+        AggregateCollector aggregates = summaryFile != null ? new AggregateCollector(topK) : null;
+        sink = addSink(sink, aggregates);
+        CloneDetector clones = cloneFile != null ? new CloneDetector(cloneSimilarity, cloneMinTokens) : null;
+        sink = addSink(sink, clones);
+        if (partialFile != null) {
+            sink = addSink(sink, openPartialSink(projects.get(0), shard != null ? shard : new Shard(0, 1), partialFile));
+        }
+        if (merge) {
+            mergePartials(partials, sink);
+        } else if (archives) {
+            List<Path> archiveFiles = new ArrayList<>();
+            for (String project : projects) {
+                archiveFiles.add(Paths.get(project));
+            }
+            analyzer.analyzeArchives(archiveFiles, sink);
+        } else if (pipelineThreads != null) {
+            AnalysisPipeline pipeline = new AnalysisPipeline(analyzer, pipelineThreads[0], pipelineThreads[1], pipelineThreads[2], queueCapacity);
+            pipeline.run(projects.get(0), sink);
+            pipeline.printStats();
+        } else {
+            analyzer.analyzeProject(projects.get(0), sink);
+        }
+        if (cache != null) {
+            saveCache(cache, cacheFile);
+        }
+        if (collector != null) {
+            ResultStore store = collector.getStore();
+            AnalysisProfiler.Span span = profiler.begin(AnalysisProfiler.Phase.EXPORT, null);
+            if (outFile != null) {
+                ResultExporter.exportResultsToCSV(store, outFile);
+            } else {
+                analyzer.printResults(store);
             }
-            outFile = args[3];
+            span.end(0);
+        }
+        if (aggregates != null) {
+            AggregateExporter.exportSummaryToCSV(aggregates, summaryFile);
+        }
+        if (clones != null) {
+            CloneExporter.exportClonesToCSV(clones.findClones(), cloneFile);
+        }
+        if (profiler.isEnabled()) {
+            profiler.printSummary();
+        }
+    }
+
+    /**
+     * @return true if the project path is a zip, jar or source archive rather than a directory
+     */
+    private static boolean isArchive(String project) {
+        String name = project.toLowerCase(Locale.ROOT);
+        return (name.endsWith(".zip") || name.endsWith(".jar")) && Files.isRegularFile(Paths.get(project));
+    }
+
+    /**
+     * Compare the changed files of two revisions of the git repository and print or export the MI deltas.
+     * @param range "from..to"; an empty "to" means HEAD
+     */
+    private static void runDelta(JavaAnalyzer analyzer, FileDiscovery discovery, String repoDir, String range, String outFile) {
+        int dots = range.indexOf("..");
+        if (dots <= 0) {
+            System.err.println("Invalid revision range (expected <from>..<to>): " + range);
+            System.exit(1);
+        }
+        String from = range.substring(0, dots);
+        String to = range.length() > dots + 2 ? range.substring(dots + 2) : "HEAD";
+        DeltaReport report = null;
+        try {
+            report = new DeltaAnalyzer(analyzer, discovery).analyze(Paths.get(repoDir), from, to);
+        } catch (IOException e) {
+            System.err.println("Failed to compare revisions: " + e.getMessage());
+            System.exit(1);
         }
-        JavaAnalyzer analyzer = new JavaAnalyzer();
-        AnalysisResult result = analyzer.analyzeProject(sourceDir);
         if (outFile != null) {
-            ResultExporter.exportResultsToCSV(result.classMethods, result.packageMethods, result.allMethods, outFile);
+            DeltaExporter.exportDeltaToCSV(report, outFile);
         } else {
-            analyzer.printResults(result);
+            DeltaExporter.printDelta(report);
+        }
+    }
+
+    /**
+     * Index all projects, then serve queries and follow file changes until the daemon is shut down.
+     */
+    private static void runDaemon(JavaAnalyzer analyzer, FileDiscovery discovery, List<String> projects, int port) {
+        List<ProjectIndex> indexes = new ArrayList<>();
+        for (String project : projects) {
+            indexes.add(new ProjectIndex(Paths.get(project), analyzer));
+        }
+        AnalysisDaemon analysisDaemon = new AnalysisDaemon(discovery, indexes, port);
+        try {
+            analysisDaemon.start();
+        } catch (IOException e) {
+            System.err.println("Failed to start daemon: " + e.getMessage());
+            analysisDaemon.stop();
+            System.exit(1);
+        }
+        analysisDaemon.watch();
+    }
+
+    /**
+     * Send a single query to a running daemon and print its JSON answer.
+     * @return Process exit status
+     */
+    private static int queryDaemon(int port, String query, String root) {
+        DaemonClient client = new DaemonClient(port);
+        try {
+            if ("shutdown".equals(query)) {
+                client.shutdown();
+            } else {
+                System.out.println(client.query(query, root));
+            }
+            return 0;
+        } catch (IOException e) {
+            System.err.println("Daemon query failed: " + e.getMessage());
+            return 1;
+        }
+    }
+
+    /**
+     * Combine two sinks, either of which may be null.
+     */
+    private static ResultSink addSink(ResultSink sink, ResultSink other) {
+        if (sink == null) {
+            return other;
+        }
+        return other == null ? sink : ResultSink.tee(sink, other);
+    }
+
+    /**
+     * Open the partial-result file of a shard run, or exit if it cannot be created.
+     */
+    private static ResultSink openPartialSink(String sourceDir, Shard shard, String partialFile) {
+        try {
+            return new PartialResultWriter(Paths.get(sourceDir), shard, Paths.get(partialFile));
+        } catch (IOException e) {
+            System.err.println("Failed to write partial results: " + e.getMessage());
+            System.exit(1);
+            return null;
+        }
+    }
+
+    /**
+     * Merge the partial results of all shards into the sink, or exit if they are incomplete or unreadable.
+     */
+    private static void mergePartials(List<Path> partials, ResultSink sink) {
+        try {
+            PartialResults.merge(partials, sink);
+        } catch (IOException e) {
+            System.err.println("Failed to merge partial results: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Open the sink that receives results in streaming mode: the output file in the given format if set, otherwise the console.
+     */
+    private static ResultSink openStreamingSink(ExportFormat format, String outFile) {
+        if (outFile == null) {
+            return new StreamingResultPrinter();
+        }
+        try {
+            return format.open(outFile);
+        } catch (IOException e) {
+            System.err.println("Failed to write output file: " + e.getMessage());
+            System.exit(1);
+            return null;
+        }
+    }
+
+    /**
+     * Write the cache back to disk and report how many files were reused.
+     */
+    private static void saveCache(AnalysisCache cache, String cacheFile) {
+        try {
+            cache.save();
+            System.out.println("Cache: reused " + cache.getHits() + " of " + (cache.getHits() + cache.getMisses()) + " files from " + cacheFile);
+        } catch (IOException e) {
+            System.err.println("Failed to write cache file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Return the value following an option, or print help and exit if it is missing.
+     */
+    private static String optionValue(String[] args, int index) {
+        if (index >= args.length) {
+            printHelp();
+            System.exit(1);
+        }
+        return args[index];
+    }
+
+    /**
+     * Return the integer value following an option, or print help and exit if it is not a number.
+     */
+    private static int intOptionValue(String[] args, int index) {
+        try {
+            return Integer.parseInt(optionValue(args, index));
+        } catch (NumberFormatException e) {
+            printHelp();
+            System.exit(1);
+            return 0;
+        }
+    }
+
+    /**
+     * Return the number between 0 and 1 following an option, or print help and exit if it is invalid.
+     */
+    private static double shareOptionValue(String[] args, int index) {
+        double value;
+        try {
+            value = Double.parseDouble(optionValue(args, index));
+        } catch (NumberFormatException e) {
+            value = Double.NaN;
+        }
+        if (!(value >= 0 && value <= 1)) {
+            printHelp();
+            System.exit(1);
+        }
+        return value;
+    }
+
+    /**
+     * Return the comma-separated integers following an option, or print help and exit if they are invalid.
+     */
+    private static int[] intListOptionValue(String[] args, int index, int count) {
+        String[] parts = optionValue(args, index).split(",");
+        if (parts.length != count) {
+            printHelp();
+            System.exit(1);
+        }
+        int[] values = new int[count];
+        try {
+            for (int i = 0; i < count; i++) {
+                values[i] = Integer.parseInt(parts[i].trim());
+            }
+        } catch (NumberFormatException e) {
+            printHelp();
+            System.exit(1);
+        }
+        return values;
+    }
+
+    /**
+     * Return the MI coefficients following an option, or print help and exit if they are invalid.
+     */
+    private static MaintainabilityIndexCalculator coefficientsOptionValue(String[] args, int index) {
+        try {
+            return MaintainabilityIndexCalculator.parse(optionValue(args, index));
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            printHelp();
+            System.exit(1);
+            return null;
+        }
+    }
+
+    /**
+     * Return the shard "i/N" following an option, or print help and exit if it is invalid.
+     */
+    private static Shard shardOptionValue(String[] args, int index) {
+        try {
+            return Shard.parse(optionValue(args, index));
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            printHelp();
+            System.exit(1);
+            return null;
         }
     }
 
@@ -42,14 +501,50 @@ public class Main {
     private static void printHelp() {
         System.out.println("J-MIndex - Java Maintainability Index Analyzer");
         System.out.println("Usage:");
-        System.out.println("  java -jar <jarfile> -project <source-directory> [-out <output-file>]");
+        System.out.println("  java -jar <jarfile> -project <source-directory> [-out <output-file>] [-threads <n>] [-cache <cache-file>] [-stream] [-format <format>]");
+        System.out.println("                    [-pipeline <read>,<parse>,<measure> [-queue <n>]]");
+        System.out.println("                    [-include <glob>]... [-exclude <glob>]... [-no-default-excludes] [-gitignore] [-profile [-slowest <n>]]");
+        System.out.println("                    [-summary <summary-file> [-top <k>]] [-shard <i>/<n> [-partial <partial-file>]]");
+        System.out.println("                    [-mi-coefficients <c>] [-fast] [-clones <clone-file> [-clone-similarity <s>] [-clone-min-tokens <n>]]");
+        System.out.println("  java -jar <jarfile> -merge <partial-file>... [-out <output-file>] [-stream] [-format <format>] [-summary <summary-file> [-top <k>]]");
+        System.out.println("  java -jar <jarfile> -delta <from>..<to> -project <git-directory> [-out <output-file>] [-include <glob>]... [-exclude <glob>]... [-fast]");
+        System.out.println("  java -jar <jarfile> -daemon -project <source-directory>... [-port <n>] [-threads <n>] [-fast]");
+        System.out.println("  java -jar <jarfile> -query <query> [-project <source-directory>] [-port <n>]");
         System.out.println();
         System.out.println("Options:");
-        System.out.println("  -project <source-directory>   Path to Java source code directory");
+        System.out.println("  -project <source-directory>   Path to Java source code directory, or a .zip/.jar source archive (repeatable for archives)");
         System.out.println("  -out <output-file>            (Optional) Export results to CSV file");
+        System.out.println("  -threads <n>                  (Optional) Analyze files on n worker threads (0 = all cores, default 1)");
+        System.out.println("  -cache <cache-file>           (Optional) Reuse results of unchanged files from this cache file and update it");
+        System.out.println("  -stream                       (Optional) Write method results while analyzing, keeping only running averages in memory");
+        System.out.println("  -format <format>              (Optional) Output file format: csv (default), jsonl (one JSON object per method) or bin (columnar binary); jsonl and bin stream");
+        System.out.println("  -pipeline <r>,<p>,<m>         (Optional) Run discover/read/parse/measure/sink as a pipeline with r read, p parse and m measure threads (directories only)");
+        System.out.println("  -queue <n>                    (Optional) Capacity of each pipeline queue (default 64)");
+        System.out.println("  -include <glob>               (Optional, repeatable) Only analyze Java files whose path below the project matches the glob");
+        System.out.println("  -exclude <glob>               (Optional, repeatable) Skip matching files; directories matching <glob>/** are not entered");
+        System.out.println("  -no-default-excludes          (Optional) Do not skip test, .git, node_modules, target and build folders");
+        System.out.println("  -gitignore                    (Optional) Also skip paths ignored by .gitignore files in the project");
+        System.out.println("  -profile                      (Optional) Report per-phase time and allocation, files/s, methods/s and emit JFR events");
+        System.out.println("  -slowest <n>                  (Optional) Number of slowest files to parse listed by -profile (default 10)");
+        System.out.println("  -summary <summary-file>       (Optional) Export count/avg/min/max/p50/p90/p99 MI per project, package and class plus the worst methods");
+        System.out.println("  -top <k>                      (Optional) Number of lowest-MI and highest-CC methods in the summary (default 10)");
+        System.out.println("  -mi-coefficients <c>          (Optional) MI coefficients base,volume,complexity,loc[,comment,scale] (default 171,5.2,0.23,16.2;");
+        System.out.println("                                comment-weighted: 171,5.2,0.23,16.2,50,2.4); cached results are re-scored without parsing");
+        System.out.println("  -fast                         (Optional) Estimate metrics from the token stream without building an AST (not with -cache or -pipeline);");
+        System.out.println("                                LOC and CC match for ordinary code, Halstead Volume can differ by a few percent");
+        System.out.println("  -clones <clone-file>          (Optional) Export groups of exact and near copy-pasted methods with their MI, most duplicated lines first");
+        System.out.println("  -clone-similarity <s>         (Optional) Lowest estimated token similarity (0-1) of near clones (default " + CloneDetector.DEFAULT_SIMILARITY + ")");
+        System.out.println("  -clone-min-tokens <n>         (Optional) Ignore methods with fewer tokens in clone detection (default " + CloneDetector.DEFAULT_MIN_TOKENS + ")");
+        System.out.println("  -shard <i>/<n>                (Optional) Only analyze shard i (0-based) of n, chosen by a hash of each file's path (not with -cache)");
+        System.out.println("  -partial <partial-file>       (Optional) Write the results to a partial-result file for -merge");
+        System.out.println("  -merge <partial-file>         (Repeatable) Combine the partial results of all shards instead of analyzing a project");
+        System.out.println("  -delta <from>..<to>           (Optional) Report MI deltas per package, class and changed method for the Java files changed between two git revisions");
+        System.out.println("  -daemon                       (Optional) Keep the results in memory, re-analyze changed files and answer queries (-project repeatable)");
+        System.out.println("  -port <n>                     (Optional) Loopback port of the daemon (default " + AnalysisDaemon.DEFAULT_PORT + ")");
+        System.out.println("  -query <query>                (Optional) Ask a running daemon: projects, project, package=<name>, class=<name>, file=<path> or shutdown");
         System.out.println("  -help                         Show this help message");
         System.out.println();
         System.out.println("Example:");
         System.out.println("  java -jar jmi-0.0.1.jar -project myproject/src -out result.csv");
     }
-} 
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,76 @@
+package com.mindex.analyzer;
+
+import com.mindex.model.AggregateNode;
+import com.mindex.model.FileResult;
+import com.mindex.model.MethodInfo;
+import com.mindex.model.RankedMethod;
+import com.mindex.model.TopK;
+import java.util.ArrayList;
+import java.util.Map;
+
+/**
+ * Sink that builds the project → package → class aggregate tree and the project-wide top-K worst
+ * methods while results arrive. Memory grows with the number of classes, not methods, so it can
+ * run alongside streaming export.
+ */
+public class AggregateCollector implements ResultSink {
+    private final AggregateNode project = new AggregateNode("");
+    private final TopK<RankedMethod> lowestMI;
+    private final TopK<RankedMethod> highestCC;
+
+    /**
+     * @param topK Number of methods kept for the lowest-MI and highest-CC rankings
+     */
+    public AggregateCollector(int topK) {
+        this.lowestMI = new TopK<>(topK, RankedMethod.LOWEST_MI);
+        this.highestCC = new TopK<>(topK, RankedMethod.HIGHEST_CC);
+    }
+
+    @Override
+    public void accept(FileResult fileResult) {
+        for (Map.Entry<String, ArrayList<MethodInfo>> entry : fileResult.classMethods.entrySet()) {
+            if (entry.getValue().isEmpty()) {
+                continue;
+            }
+            String packageName = fileResult.packageName;
+            String className = fileResult.qualifiedClassName(entry.getKey());
+            AggregateNode packageNode = project.child(packageName, packageName);
+            AggregateNode classNode = packageNode.child(entry.getKey(), className);
+            for (MethodInfo m : entry.getValue()) {
+                project.add(m.maintainabilityIndex);
+                packageNode.add(m.maintainabilityIndex);
+                classNode.add(m.maintainabilityIndex);
+                RankedMethod ranked = new RankedMethod(className, m);
+                if (!Double.isNaN(m.maintainabilityIndex)) {
+                    lowestMI.offer(ranked);
+                }
+                highestCC.offer(ranked);
+            }
+        }
+    }
+
+    /**
+     * Merge the aggregates of another collector, e.g. one that analyzed a different shard.
+     * @param other Collector to merge into this one
+     */
+    public void merge(AggregateCollector other) {
+        project.merge(other.project);
+        lowestMI.merge(other.lowestMI);
+        highestCC.merge(other.highestCC);
+    }
+
+    /** @return Root of the aggregate tree; its children are packages, theirs are classes */
+    public AggregateNode getProject() {
+        return project;
+    }
+
+    /** @return Methods with the lowest MI, lowest first */
+    public TopK<RankedMethod> getLowestMI() {
+        return lowestMI;
+    }
+
+    /** @return Methods with the highest Cyclomatic Complexity, highest first */
+    public TopK<RankedMethod> getHighestCC() {
+        return highestCC;
+    }
+}
@@ -0,0 +1,342 @@
+package com.mindex.analyzer;
+
+import com.github.javaparser.ParseResult;
+import com.github.javaparser.ast.CompilationUnit;
+import com.mindex.cache.AnalysisCache;
+import com.mindex.model.FileResult;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Producer/consumer pipeline that analyzes a project in explicit stages linked by bounded queues:
+ * discover -> read -> parse -> measure -> sink.
+ * <p>
+ * Each stage runs on its own threads, so disk I/O overlaps with CPU-bound parsing and the sink
+ * exports results while analysis is still going. Full queues block their producers (backpressure),
+ * and the total number of files in flight is bounded, so memory stays flat on any project size.
+ * The sink runs on the calling thread and receives files in sorted path order, exactly like
+ * {@link JavaAnalyzer#analyzeProject(String, ResultSink)}.
+ */
+public class AnalysisPipeline {
+    /** Marks the end of a stage's input */
+    private static final Item END = new Item(-1, null, null);
+
+    private final JavaAnalyzer analyzer;
+    private final int queueCapacity;
+    private final Stage discover;
+    private final Stage read;
+    private final Stage parse;
+    private final Stage measure;
+    private final Stage sink;
+
+    /**
+     * Create a pipeline with the given number of threads per stage.
+     * Discovery and the sink always run on a single thread.
+     * @param analyzer Analyzer providing parsing, metrics and caching
+     * @param readThreads Number of threads reading files from disk
+     * @param parseThreads Number of threads parsing source code
+     * @param measureThreads Number of threads computing metrics
+     * @param queueCapacity Capacity of each queue between stages
+     */
+    public AnalysisPipeline(JavaAnalyzer analyzer, int readThreads, int parseThreads, int measureThreads, int queueCapacity) {
+        this.analyzer = analyzer;
+        this.queueCapacity = Math.max(1, queueCapacity);
+        this.discover = new Stage("discover", 1, null);
+        this.read = new Stage("read", Math.max(1, readThreads), newQueue());
+        this.parse = new Stage("parse", Math.max(1, parseThreads), newQueue());
+        this.measure = new Stage("measure", Math.max(1, measureThreads), newQueue());
+        this.sink = new Stage("sink", 1, newQueue());
+    }
+
+    private BlockingQueue<Item> newQueue() {
+        return new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    /**
+     * Analyze all Java files in the given source directory and deliver the results to the sink.
+     * @param sourceDir Path to the root of Java source code
+     * @param resultSink Receiver of the per-file results; closed when all files are delivered
+     */
+    public void run(String sourceDir, ResultSink resultSink) {
+        Path root = new File(sourceDir).toPath();
+        // Bounds queued items plus files waiting in the sink's reorder buffer
+        Semaphore inFlight = new Semaphore(queueCapacity * 4 + read.threads + parse.threads + measure.threads);
+        List<Thread> threads = new ArrayList<>();
+        threads.add(start(discover, read, () -> discoverFiles(root, inFlight)));
+        startWorkers(threads, read, parse, this::readFile);
+        startWorkers(threads, parse, measure, this::parseFile);
+        startWorkers(threads, measure, sink, this::measureFile);
+        try {
+            drain(resultSink, inFlight);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            threads.forEach(Thread::interrupt);
+        }
+        resultSink.close();
+        sink.finish();
+        // Every upstream thread has exited once the sink saw the end marker; drop the leftover markers
+        for (Stage stage : getStages()) {
+            if (stage.queue != null) {
+                stage.queue.clear();
+            }
+        }
+    }
+
+    /**
+     * Discovery stage: walk the project and feed files into the read queue in sorted order.
+     */
+    private void discoverFiles(Path root, Semaphore inFlight) throws InterruptedException {
+        long start = System.nanoTime();
+        try {
+            List<Path> javaFiles = analyzer.discoverFiles(root);
+            discover.busyNanos.addAndGet(System.nanoTime() - start);
+            for (int i = 0; i < javaFiles.size(); i++) {
+                inFlight.acquire();
+                discover.processed.incrementAndGet();
+                read.put(new Item(i, javaFiles.get(i), JavaAnalyzer.cacheKey(root, javaFiles.get(i))));
+            }
+        } catch (IOException e) {
+            System.err.println("Error reading source files: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Read stage: load file contents, serving unchanged files straight from the cache.
+     */
+    private void readFile(Item item) throws IOException {
+        item.content = analyzer.read(item.file);
+        AnalysisCache cache = analyzer.getCache();
+        if (cache != null) {
+            item.hash = AnalysisCache.hash(item.content);
+            item.result = analyzer.cachedResult(item.file, item.key, item.hash);
+            if (item.result != null) {
+                item.content = null;
+            }
+        }
+    }
+
+    /**
+     * Parse stage: build the AST of files that were not served from the cache.
+     */
+    private void parseFile(Item item) {
+        if (item.content != null) {
+            item.parsed = analyzer.parse(item.file, item.content);
+            item.content = null;
+        }
+    }
+
+    /**
+     * Measure stage: compute metrics of parsed files and store them in the cache.
+     */
+    private void measureFile(Item item) {
+        if (item.parsed != null) {
+            item.result = analyzer.analyzeCompilationUnit(item.file, item.parsed);
+            item.parsed = null;
+            AnalysisCache cache = analyzer.getCache();
+            if (cache != null && item.result != null) {
+                cache.put(item.key, item.hash, item.result);
+            }
+        }
+    }
+
+    /**
+     * Sink stage: restore discovery order and deliver results on the calling thread.
+     */
+    private void drain(ResultSink resultSink, Semaphore inFlight) throws InterruptedException {
+        Map<Integer, Item> pending = new HashMap<>();
+        int next = 0;
+        while (true) {
+            Item item = sink.queue.take();
+            if (item == END) {
+                break;
+            }
+            pending.put(item.seq, item);
+            Item ready;
+            while ((ready = pending.remove(next)) != null) {
+                long start = System.nanoTime();
+                if (ready.result != null) {
+                    analyzer.deliver(resultSink, ready.result);
+                }
+                sink.busyNanos.addAndGet(System.nanoTime() - start);
+                sink.processed.incrementAndGet();
+                inFlight.release();
+                next++;
+            }
+        }
+    }
+
+    private void startWorkers(List<Thread> threads, Stage stage, Stage downstream, Work work) {
+        AtomicInteger alive = new AtomicInteger(stage.threads);
+        for (int i = 0; i < stage.threads; i++) {
+            threads.add(start(stage, null, () -> {
+                while (true) {
+                    Item item = stage.queue.take();
+                    if (item == END) {
+                        // Let sibling workers see the end marker; the last one forwards it downstream
+                        stage.queue.put(END);
+                        if (alive.decrementAndGet() == 0) {
+                            stage.finish();
+                            downstream.queue.put(END);
+                        }
+                        return;
+                    }
+                    long start = System.nanoTime();
+                    try {
+                        work.process(item);
+                    } catch (IOException | RuntimeException | StackOverflowError e) {
+                        System.err.println("Failed to analyze " + item.file.getFileName() + ": " + e);
+                        item.content = null;
+                        item.parsed = null;
+                        item.result = null;
+                    }
+                    stage.busyNanos.addAndGet(System.nanoTime() - start);
+                    stage.processed.incrementAndGet();
+                    downstream.put(item);
+                }
+            }));
+        }
+    }
+
+    /**
+     * Start one daemon thread of a stage; a single-threaded producer signals the end itself.
+     */
+    private Thread start(Stage stage, Stage downstream, Task task) {
+        Thread thread = new Thread(() -> {
+            try {
+                task.run();
+                if (downstream != null) {
+                    stage.finish();
+                    downstream.queue.put(END);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "mindex-" + stage.name + "-" + stage.started.incrementAndGet());
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * @return Statistics of every stage, in pipeline order
+     */
+    public List<Stage> getStages() {
+        return List.of(discover, read, parse, measure, sink);
+    }
+
+    /**
+     * Print per-stage thread count, throughput, busy time and queue depth to stderr.
+     */
+    public void printStats() {
+        System.err.println("\n[Pipeline Stats]");
+        for (Stage stage : getStages()) {
+            System.err.printf("  %-8s | threads: %2d | files: %7d | %9.1f files/s | busy: %8.1f ms | queue: %d (peak %d / %d)\n",
+                    stage.name, stage.threads, stage.getProcessed(), stage.getThroughput(), stage.getBusyMillis(),
+                    stage.getQueueDepth(), stage.getPeakQueueDepth(), stage.queue == null ? 0 : queueCapacity);
+        }
+    }
+
+    /**
+     * One pipeline stage: its worker threads, its input queue and live statistics.
+     */
+    public static class Stage {
+        private final String name;
+        private final int threads;
+        private final BlockingQueue<Item> queue;
+        private final AtomicInteger started = new AtomicInteger();
+        private final AtomicLong processed = new AtomicLong();
+        private final AtomicLong busyNanos = new AtomicLong();
+        private final AtomicInteger peakQueueDepth = new AtomicInteger();
+        private final long createdNanos = System.nanoTime();
+        private volatile long finishedNanos;
+
+        Stage(String name, int threads, BlockingQueue<Item> queue) {
+            this.name = name;
+            this.threads = threads;
+            this.queue = queue;
+        }
+
+        private void finish() {
+            finishedNanos = System.nanoTime();
+        }
+
+        private void put(Item item) throws InterruptedException {
+            queue.put(item);
+            peakQueueDepth.accumulateAndGet(queue.size(), Math::max);
+        }
+
+        /** @return Name of the stage */
+        public String getName() {
+            return name;
+        }
+
+        /** @return Number of threads running the stage */
+        public int getThreads() {
+            return threads;
+        }
+
+        /** @return Number of files the stage has processed so far */
+        public long getProcessed() {
+            return processed.get();
+        }
+
+        /** @return Files processed per second between pipeline creation and the end of the stage (or now) */
+        public double getThroughput() {
+            long end = finishedNanos != 0 ? finishedNanos : System.nanoTime();
+            double seconds = (end - createdNanos) / 1e9;
+            return seconds > 0 ? processed.get() / seconds : 0;
+        }
+
+        /** @return Time spent processing files, summed over all threads of the stage */
+        public double getBusyMillis() {
+            return busyNanos.get() / 1e6;
+        }
+
+        /** @return Number of files currently waiting in the stage's input queue */
+        public int getQueueDepth() {
+            return queue == null ? 0 : queue.size();
+        }
+
+        /** @return Largest number of files seen waiting in the stage's input queue */
+        public int getPeakQueueDepth() {
+            return peakQueueDepth.get();
+        }
+    }
+
+    /** A file travelling through the pipeline; fields are filled and released stage by stage */
+    static class Item {
+        final int seq;
+        final Path file;
+        final String key;
+        byte[] content;
+        byte[] hash;
+        ParseResult<CompilationUnit> parsed;
+        FileResult result;
+
+        Item(int seq, Path file, String key) {
+            this.seq = seq;
+            this.file = file;
+            this.key = key;
+        }
+    }
+
+    @FunctionalInterface
+    private interface Task {
+        void run() throws InterruptedException;
+    }
+
+    @FunctionalInterface
+    private interface Work {
+        void process(Item item) throws IOException;
+    }
+}
@@ -0,0 +1,40 @@
+package com.mindex.analyzer;
+
+import com.mindex.model.AnalysisResult;
+import com.mindex.model.FileResult;
+import com.mindex.model.MethodInfo;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Sink that merges per-file results into an in-memory AnalysisResult.
+ */
+public class AnalysisResultCollector implements ResultSink {
+    private final Map<String, ArrayList<MethodInfo>> classMethods = new LinkedHashMap<>();
+    private final Map<String, ArrayList<MethodInfo>> packageMethods = new LinkedHashMap<>();
+    private final ArrayList<MethodInfo> allMethods = new ArrayList<>();
+
+    /**
+     * Merge the results of one file into the project-wide collections.
+     * @param fileResult Results of a single file
+     */
+    @Override
+    public void accept(FileResult fileResult) {
+        for (Map.Entry<String, ArrayList<MethodInfo>> entry : fileResult.classMethods.entrySet()) {
+            ArrayList<MethodInfo> methods = entry.getValue();
+            if (!methods.isEmpty()) {
+                allMethods.addAll(methods);
+                packageMethods.computeIfAbsent(fileResult.packageName, k -> new ArrayList<>()).addAll(methods);
+            }
+            classMethods.put(fileResult.qualifiedClassName(entry.getKey()), methods);
+        }
+    }
+
+    /**
+     * @return AnalysisResult containing all files accepted so far
+     */
+    public AnalysisResult getResult() {
+        return new AnalysisResult(classMethods, packageMethods, allMethods);
+    }
+}
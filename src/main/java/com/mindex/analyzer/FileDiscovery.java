@@ -0,0 +1,350 @@
+package com.mindex.analyzer;
+
+import com.mindex.shard.Shard;
+import java.io.IOException;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Finds the Java source files of a project with a single tree walk.
+ * Excluded directories are pruned before descending into them, so large build output,
+ * dependency and VCS folders cost nothing. Paths are matched relative to the project root
+ * against include/exclude globs (java.nio glob syntax) and, optionally, .gitignore rules.
+ */
+public class FileDiscovery {
+    /**
+     * Excluded unless disabled: test sources, VCS metadata, dependencies and build output.
+     * Build output is only recognized where a build tool puts it: "target/**" and "build/**" match at the
+     * project root and next to one of the {@link #BUILD_FILES} of a nested module, so source
+     * packages named target or build are still analyzed.
+     */
+    public static final List<String> DEFAULT_EXCLUDES = List.of("**/test/**", "**/.git/**", "**/node_modules/**", "target/**", "build/**");
+    /** Build files that mark a directory as a module; its "target" and "build" subdirectories are build output */
+    public static final List<String> BUILD_FILES = List.of("pom.xml", "build.gradle", "build.gradle.kts", "build.xml");
+    private static final List<String> OUTPUT_DIRECTORIES = List.of("target", "build");
+
+    private final List<String> includes;
+    private final List<String> excludes;
+    private final List<Glob> includeGlobs;
+    private final List<Glob> excludeGlobs;
+    private final boolean useGitignore;
+    private final Shard shard;
+
+    /**
+     * Create a discovery engine that finds all Java files outside the default excluded folders.
+     */
+    public FileDiscovery() {
+        this(Collections.emptyList(), DEFAULT_EXCLUDES, false);
+    }
+
+    /**
+     * Create a discovery engine with explicit patterns.
+     * @param includes Globs a file must match to be analyzed (empty = all Java files)
+     * @param excludes Globs of files and directories to skip; a pattern ending in "/**" prunes the directory itself
+     * @param useGitignore Whether to also skip paths ignored by .gitignore files inside the project
+     */
+    public FileDiscovery(List<String> includes, List<String> excludes, boolean useGitignore) {
+        this(includes, excludes, useGitignore, null);
+    }
+
+    /**
+     * Create a discovery engine that only selects the files of one shard.
+     * @param includes Globs a file must match to be analyzed (empty = all Java files)
+     * @param excludes Globs of files and directories to skip; a pattern ending in "/**" prunes the directory itself
+     * @param useGitignore Whether to also skip paths ignored by .gitignore files inside the project
+     * @param shard Shard of the selected files to keep, or null for all files
+     */
+    public FileDiscovery(List<String> includes, List<String> excludes, boolean useGitignore, Shard shard) {
+        this.includes = includes;
+        this.excludes = excludes;
+        this.useGitignore = useGitignore;
+        this.shard = shard;
+        FileSystem fs = FileSystems.getDefault();
+        this.includeGlobs = Glob.compileAll(fs, includes);
+        this.excludeGlobs = Glob.compileAll(fs, excludes);
+    }
+
+    /**
+     * Find all Java files below the given root, in sorted order.
+     * @param root Root directory of the project
+     * @return Sorted list of Java source files
+     * @throws IOException if the root directory cannot be read
+     */
+    public List<Path> discover(Path root) throws IOException {
+        List<Path> javaFiles = new ArrayList<>();
+        walk(root, javaFiles, null);
+        Collections.sort(javaFiles);
+        return javaFiles;
+    }
+
+    /**
+     * Find all directories below the given root (including the root) that are not pruned, in sorted order.
+     * @param root Root directory of the project
+     * @return Sorted list of directories that may contain analyzed files
+     * @throws IOException if the root directory cannot be read
+     */
+    public List<Path> discoverDirectories(Path root) throws IOException {
+        List<Path> directories = new ArrayList<>();
+        walk(root, null, directories);
+        Collections.sort(directories);
+        return directories;
+    }
+
+    /**
+     * Check whether a Java file that is not on disk, such as a blob of a git revision, would be selected.
+     * Every parent directory is checked against the excludes, as the tree walk would prune it;
+     * .gitignore rules and the build output of nested modules (which needs their build files) are not applied.
+     * @param relativePath Path of the file relative to the project root, with '/' separators
+     * @return true if the file is a Java file that the include, exclude and shard options select
+     */
+    public boolean selects(String relativePath) {
+        if (!relativePath.endsWith(".java")) {
+            return false;
+        }
+        Path relative = FileSystems.getDefault().getPath(relativePath);
+        for (Path dir = relative.getParent(); dir != null; dir = dir.getParent()) {
+            if (matchesDirectory(excludeGlobs, dir)) {
+                return false;
+            }
+        }
+        return (includeGlobs.isEmpty() || matchesFile(includeGlobs, relative))
+                && !matchesFile(excludeGlobs, relative)
+                && (shard == null || shard.contains(relativePath));
+    }
+
+    /**
+     * Walk the tree once, collecting selected Java files and/or visited directories.
+     */
+    private void walk(Path root, List<Path> javaFiles, List<Path> directories) throws IOException {
+        // Matchers belong to a file system; archives are walked through their own
+        FileSystem fs = root.getFileSystem();
+        boolean defaultFs = fs == FileSystems.getDefault();
+        List<Glob> includeGlobs = defaultFs ? this.includeGlobs : Glob.compileAll(fs, includes);
+        List<Glob> excludeGlobs = defaultFs ? this.excludeGlobs : Glob.compileAll(fs, excludes);
+        Deque<GitignoreRules> gitignores = new ArrayDeque<>();
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                if (!dir.equals(root)) {
+                    Path relative = root.relativize(dir);
+                    if (matchesDirectory(excludeGlobs, relative) || isModuleOutput(dir)
+                            || GitignoreRules.isIgnored(gitignores, dir, true)) {
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+                }
+                if (useGitignore) {
+                    gitignores.addLast(GitignoreRules.load(dir));
+                }
+                if (directories != null) {
+                    directories.add(dir);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException e) {
+                if (useGitignore) {
+                    gitignores.removeLast();
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (javaFiles != null && attrs.isRegularFile() && file.getFileName().toString().endsWith(".java")) {
+                    Path relative = root.relativize(file);
+                    if ((includeGlobs.isEmpty() || matchesFile(includeGlobs, relative))
+                            && !matchesFile(excludeGlobs, relative)
+                            && !GitignoreRules.isIgnored(gitignores, file, false)
+                            && (shard == null || shard.contains(relative.toString().replace('\\', '/')))) {
+                        javaFiles.add(file);
+                    }
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                System.err.println("Skipping unreadable path " + file + ": " + e.getMessage());
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /**
+     * @return true if the directory is the "target" or "build" output directory of a nested module and the
+     * matching root-level exclude ("target/**" or "build/**") is active
+     */
+    private boolean isModuleOutput(Path dir) {
+        Path name = dir.getFileName();
+        if (name == null || !OUTPUT_DIRECTORIES.contains(name.toString()) || !excludes.contains(name + "/**")) {
+            return false;
+        }
+        for (String buildFile : BUILD_FILES) {
+            if (Files.isRegularFile(dir.resolveSibling(buildFile))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean matchesFile(List<Glob> globs, Path relative) {
+        for (Glob glob : globs) {
+            if (glob.matchesFile(relative)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean matchesDirectory(List<Glob> globs, Path relative) {
+        for (Glob glob : globs) {
+            if (glob.matchesDirectory(relative)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A compiled glob. "**&#47;x" also matches x at the root, and "x/**" also matches the directory x itself,
+     * which is what allows excluded subtrees to be pruned.
+     */
+    private static class Glob {
+        private final List<PathMatcher> fileMatchers = new ArrayList<>();
+        private final List<PathMatcher> directoryMatchers = new ArrayList<>();
+
+        Glob(FileSystem fs, String pattern) {
+            List<String> variants = new ArrayList<>();
+            variants.add(pattern);
+            if (pattern.startsWith("**/")) {
+                variants.add(pattern.substring(3));
+            }
+            for (String variant : variants) {
+                fileMatchers.add(fs.getPathMatcher("glob:" + variant));
+                directoryMatchers.add(fs.getPathMatcher("glob:" + variant));
+                if (variant.endsWith("/**")) {
+                    directoryMatchers.add(fs.getPathMatcher("glob:" + variant.substring(0, variant.length() - 3)));
+                }
+            }
+        }
+
+        static List<Glob> compileAll(FileSystem fs, List<String> patterns) {
+            List<Glob> globs = new ArrayList<>(patterns.size());
+            for (String pattern : patterns) {
+                globs.add(new Glob(fs, pattern));
+            }
+            return globs;
+        }
+
+        boolean matchesFile(Path relative) {
+            for (PathMatcher matcher : fileMatchers) {
+                if (matcher.matches(relative)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        boolean matchesDirectory(Path relative) {
+            for (PathMatcher matcher : directoryMatchers) {
+                if (matcher.matches(relative)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * The rules of one .gitignore file. Supports comments, negation ("!"), directory-only rules
+     * (trailing "/"), anchored rules (containing "/") and name rules matching at any depth.
+     * Rules of deeper .gitignore files are evaluated after their ancestors; the last matching rule wins.
+     */
+    private static class GitignoreRules {
+        private final Path base;
+        private final List<Rule> rules;
+
+        private GitignoreRules(Path base, List<Rule> rules) {
+            this.base = base;
+            this.rules = rules;
+        }
+
+        static GitignoreRules load(Path dir) throws IOException {
+            Path file = dir.resolve(".gitignore");
+            List<Rule> rules = new ArrayList<>();
+            if (Files.isRegularFile(file)) {
+                FileSystem fs = dir.getFileSystem();
+                for (String line : Files.readAllLines(file)) {
+                    String pattern = line.trim();
+                    if (pattern.isEmpty() || pattern.startsWith("#")) {
+                        continue;
+                    }
+                    boolean negated = pattern.startsWith("!");
+                    if (negated) {
+                        pattern = pattern.substring(1);
+                    }
+                    boolean directoryOnly = pattern.endsWith("/");
+                    if (directoryOnly) {
+                        pattern = pattern.substring(0, pattern.length() - 1);
+                    }
+                    boolean anchored = pattern.contains("/");
+                    if (pattern.startsWith("/")) {
+                        pattern = pattern.substring(1);
+                    }
+                    if (!pattern.isEmpty()) {
+                        rules.add(new Rule(new Glob(fs, pattern), negated, directoryOnly, anchored));
+                    }
+                }
+            }
+            return new GitignoreRules(dir, rules);
+        }
+
+        static boolean isIgnored(Deque<GitignoreRules> stack, Path path, boolean isDirectory) {
+            boolean ignored = false;
+            for (GitignoreRules rules : stack) {
+                if (rules.rules.isEmpty()) {
+                    continue;
+                }
+                Path relative = rules.base.relativize(path);
+                Path name = path.getFileName();
+                for (Rule rule : rules.rules) {
+                    if (rule.directoryOnly && !isDirectory) {
+                        continue;
+                    }
+                    Path target = rule.anchored ? relative : name;
+                    boolean matches = isDirectory ? rule.glob.matchesDirectory(target) : rule.glob.matchesFile(target);
+                    if (matches) {
+                        ignored = !rule.negated;
+                    }
+                }
+            }
+            return ignored;
+        }
+
+        private static class Rule {
+            final Glob glob;
+            final boolean negated;
+            final boolean directoryOnly;
+            final boolean anchored;
+
+            Rule(Glob glob, boolean negated, boolean directoryOnly, boolean anchored) {
+                this.glob = glob;
+                this.negated = negated;
+                this.directoryOnly = directoryOnly;
+                this.anchored = anchored;
+            }
+        }
+    }
+}
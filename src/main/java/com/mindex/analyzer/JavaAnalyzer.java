@@ -1,23 +1,46 @@
 package com.mindex.analyzer;
 
-import com.github.javaparser.StaticJavaParser;
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParseResult;
+import com.github.javaparser.Problem;
 import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.Node;
+import com.mindex.cache.AnalysisCache;
+import com.mindex.clone.Fingerprinter;
 import com.mindex.metrics.MaintainabilityIndexCalculator;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.ProviderNotFoundException;
+import java.util.ArrayDeque;
 import java.util.List;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 import com.mindex.model.MethodInfo;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.Map;
 import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
 import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.body.TypeDeclaration;
+import com.mindex.metrics.MethodMetrics;
 import com.mindex.metrics.MetricCalculator;
 import com.mindex.model.AnalysisResult;
+import com.mindex.model.FileResult;
+import com.mindex.model.MethodFingerprint;
+import com.mindex.model.ResultStore;
+import com.mindex.model.RunningAverage;
+import com.mindex.profile.AnalysisProfiler;
+import com.mindex.profile.AnalysisProfiler.Phase;
 
 /**
  * Main analyzer class for traversing Java source files, extracting methods/classes/packages,
@@ -25,56 +48,518 @@ import com.mindex.model.AnalysisResult;
  * Stateless: returns all results via AnalysisResult.
  */
 public class JavaAnalyzer {
+    /** Number of worker threads used to analyze files (1 = sequential) */
+    private final int threads;
+    /** One parser per worker thread; JavaParser instances are not thread-safe */
+    private final ThreadLocal<JavaParser> parsers = ThreadLocal.withInitial(JavaParser::new);
+    /** Optional persistent cache of per-file results (null = always parse) */
+    private final AnalysisCache cache;
+    /** Selects the files to analyze below the project root */
+    private final FileDiscovery discovery;
+    /** Phase timing and allocation; {@link AnalysisProfiler#DISABLED} when not profiling */
+    private final AnalysisProfiler profiler;
+    /** Coefficients used to score methods, including those served from the cache */
+    private final MaintainabilityIndexCalculator calculator;
+    /** One token-based estimator per worker thread in fast mode, null when methods are measured on the AST */
+    private final ThreadLocal<TokenAnalyzer> tokenAnalyzers;
+    /** Whether AST analysis also fingerprints each method for clone detection */
+    private final boolean fingerprints;
+    /** Archive file of each open archive file system, so entries are reported as "archive!/entry" */
+    private final Map<FileSystem, Path> archives = new ConcurrentHashMap<>();
+
+    /**
+     * Create a sequential analyzer with the default options; see {@link Builder} for the others.
+     */
+    public JavaAnalyzer() {
+        this(new Builder());
+    }
+
+    private JavaAnalyzer(Builder b) {
+        threads = b.threads < 1 ? Runtime.getRuntime().availableProcessors() : b.threads;
+        cache = b.cache;
+        discovery = b.discovery;
+        profiler = b.profiler;
+        calculator = b.calculator;
+        tokenAnalyzers = b.fast ? ThreadLocal.withInitial(() -> new TokenAnalyzer(b.calculator)) : null;
+        fingerprints = b.fingerprints;
+    }
+
     /**
-     * Analyze all Java files in the given source directory (recursively, skipping test folders).
+     * Options of an analyzer; each one defaults to the behavior of {@link JavaAnalyzer#JavaAnalyzer()}.
+     */
+    public static class Builder {
+        private int threads = 1;
+        private AnalysisCache cache;
+        private FileDiscovery discovery = new FileDiscovery();
+        private AnalysisProfiler profiler = AnalysisProfiler.DISABLED;
+        private MaintainabilityIndexCalculator calculator = MaintainabilityIndexCalculator.DEFAULT;
+        private boolean fast;
+        private boolean fingerprints;
+
+        /**
+         * @param threads Number of worker threads; values below 1 use all available processors (default 1, sequential)
+         * @return This builder
+         */
+        public Builder threads(int threads) {
+            this.threads = threads;
+            return this;
+        }
+
+        /**
+         * @param cache Persistent cache of per-file results, reused for files whose content has not changed,
+         *              or null to always parse (default)
+         * @return This builder
+         */
+        public Builder cache(AnalysisCache cache) {
+            this.cache = cache;
+            return this;
+        }
+
+        /**
+         * @param discovery Selects the files to analyze below the project root
+         * @return This builder
+         */
+        public Builder discovery(FileDiscovery discovery) {
+            this.discovery = discovery;
+            return this;
+        }
+
+        /**
+         * @param profiler Receiver of per-phase timing and allocation, or {@link AnalysisProfiler#DISABLED} (default)
+         * @return This builder
+         */
+        public Builder profiler(AnalysisProfiler profiler) {
+            this.profiler = profiler;
+            return this;
+        }
+
+        /**
+         * Cached results are re-scored with these coefficients, so changing them does not require parsing again.
+         * @param calculator MI coefficients (default {@link MaintainabilityIndexCalculator#DEFAULT})
+         * @return This builder
+         */
+        public Builder calculator(MaintainabilityIndexCalculator calculator) {
+            this.calculator = calculator;
+            return this;
+        }
+
+        /**
+         * Fast mode bypasses the cache, whose entries hold AST-based metrics; see {@link TokenAnalyzer} for how far
+         * its numbers can differ.
+         * @param fast Whether to estimate metrics from the token stream instead of measuring the AST (default false)
+         * @return This builder
+         */
+        public Builder fast(boolean fast) {
+            this.fast = fast;
+            return this;
+        }
+
+        /**
+         * Results served from the cache or estimated in fast mode have no fingerprints.
+         * @param fingerprints Whether to fingerprint the methods of parsed files for clone detection
+         *                     ({@link FileResult#fingerprints}, default false)
+         * @return This builder
+         */
+        public Builder fingerprints(boolean fingerprints) {
+            this.fingerprints = fingerprints;
+            return this;
+        }
+
+        /** @return Analyzer with these options */
+        public JavaAnalyzer build() {
+            return new JavaAnalyzer(this);
+        }
+    }
+
+    /**
+     * Analyze all Java files in the given source directory (recursively, skipping excluded folders such as test sources).
+     * Files are merged in sorted path order, so the result is identical for any number of threads.
      * @param sourceDir Path to the root of Java source code
      * @return AnalysisResult containing all metrics at method/class/package/project levels
      */
     public AnalysisResult analyzeProject(String sourceDir) {
-        Map<String, ArrayList<MethodInfo>> classMethods = new HashMap<>();
-        Map<String, ArrayList<MethodInfo>> packageMethods = new HashMap<>();
-        ArrayList<MethodInfo> allMethods = new ArrayList<>();
-        try (Stream<Path> paths = Files.walk(new File(sourceDir).toPath())) {
-            List<Path> javaFiles = paths.filter(Files::isRegularFile)
-                    .filter(p -> p.toString().endsWith(".java"))
-                    .filter(p -> !p.toString().contains("/test/") && !p.toString().contains("\\test\\"))
-                    .collect(Collectors.toList());
-            for (Path javaFile : javaFiles) {
-                analyzeFile(javaFile.toFile(), classMethods, packageMethods, allMethods);
-            }
+        AnalysisResultCollector collector = new AnalysisResultCollector();
+        analyzeProject(sourceDir, collector);
+        return collector.getResult();
+    }
+
+    /**
+     * Analyze all Java files in the given source directory and stream each file's results to a sink
+     * as soon as it is analyzed, without keeping them. Files are delivered in sorted path order.
+     * At most a few files per worker thread are held in memory at any time.
+     * @param sourceDir Path to the root of Java source code
+     * @param sink Receiver of the per-file results; closed when all files are delivered, or when delivery fails
+     */
+    public void analyzeProject(String sourceDir, ResultSink sink) {
+        Path root = new File(sourceDir).toPath();
+        try {
+            analyzeFiles(root, discoverFiles(root), sink);
         } catch (IOException e) {
             System.err.println("Error reading source files: " + e.getMessage());
+        } finally {
+            // Also when a sink throws (e.g. a full disk), so the other sinks of a tee release their files
+            sink.close();
+        }
+    }
+
+    /**
+     * Find all Java files below the given root selected by the discovery settings, in sorted order.
+     * @param root Root directory of the project
+     * @return Sorted list of Java source files
+     * @throws IOException if the directory tree cannot be read
+     */
+    public List<Path> discoverFiles(Path root) throws IOException {
+        AnalysisProfiler.Span span = profiler.begin(Phase.DISCOVER, null);
+        List<Path> javaFiles = discovery.discover(root);
+        span.end(javaFiles.size());
+        return javaFiles;
+    }
+
+    /**
+     * Analyze the given files, in parallel when more than one thread is configured.
+     * Results are delivered to the sink in the order of javaFiles; files that fail to parse are skipped.
+     * @param root Root directory of the project, used to build cache keys
+     * @param javaFiles Java source files to analyze
+     * @param sink Receiver of the per-file results
+     */
+    public void analyzeFiles(Path root, List<Path> javaFiles, ResultSink sink) {
+        analyzeFiles(javaFiles, javaFile -> cacheKey(root, javaFile), sink);
+    }
+
+    /**
+     * Analyze all Java entries of zip, jar or source archives without extracting them, and stream each
+     * entry's results to a sink. Entries are read straight from the archive into the parser and selected
+     * like files below a project root. Their results are attributed to "archive!/entry/path".
+     * Entries of all archives share the worker threads, so several archives are analyzed in parallel;
+     * results are delivered archive by archive, each in sorted entry order.
+     * @param archiveFiles Archive files (.zip, .jar, -sources.jar)
+     * @param sink Receiver of the per-entry results; closed when all entries are delivered, or when delivery fails
+     */
+    public void analyzeArchives(List<Path> archiveFiles, ResultSink sink) {
+        List<FileSystem> fileSystems = new ArrayList<>();
+        List<Path> javaFiles = new ArrayList<>();
+        try {
+            for (Path archive : archiveFiles) {
+                FileSystem fs;
+                try {
+                    fs = FileSystems.newFileSystem(archive, (ClassLoader) null);
+                } catch (IOException | ProviderNotFoundException e) {
+                    System.err.println("Failed to open archive " + archive + ": " + e.getMessage());
+                    continue;
+                }
+                fileSystems.add(fs);
+                archives.put(fs, archive);
+                for (Path root : fs.getRootDirectories()) {
+                    javaFiles.addAll(discoverFiles(root));
+                }
+            }
+            analyzeFiles(javaFiles, this::sourcePath, sink);
+        } catch (IOException e) {
+            System.err.println("Error reading archive: " + e.getMessage());
+        } finally {
+            for (FileSystem fs : fileSystems) {
+                archives.remove(fs);
+                try {
+                    fs.close();
+                } catch (IOException e) {
+                    System.err.println("Failed to close archive: " + e.getMessage());
+                }
+            }
+            sink.close();
+        }
+    }
+
+    /**
+     * Analyze the given files, in parallel when more than one thread is configured.
+     * Results are delivered to the sink in the order of javaFiles; files that fail to parse are skipped.
+     */
+    private void analyzeFiles(List<Path> javaFiles, Function<Path, String> cacheKeys, ResultSink sink) {
+        if (threads == 1 || javaFiles.size() < 2) {
+            for (Path javaFile : javaFiles) {
+                FileResult fileResult = analyzeFile(javaFile, cacheKeys.apply(javaFile));
+                if (fileResult != null) {
+                    deliver(sink, fileResult);
+                }
+            }
+            return;
         }
-        return new AnalysisResult(classMethods, packageMethods, allMethods);
+        // Bound the number of files in flight so finished results do not pile up ahead of the sink
+        int window = threads * 4;
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, javaFiles.size()), workerThreadFactory());
+        try {
+            ArrayDeque<Future<FileResult>> inFlight = new ArrayDeque<>(window);
+            int submitted = 0;
+            for (int i = 0; i < javaFiles.size(); i++) {
+                while (submitted < javaFiles.size() && inFlight.size() < window) {
+                    Path javaFile = javaFiles.get(submitted++);
+                    inFlight.add(executor.submit(() -> analyzeFile(javaFile, cacheKeys.apply(javaFile))));
+                }
+                try {
+                    FileResult fileResult = inFlight.poll().get();
+                    if (fileResult != null) {
+                        deliver(sink, fileResult);
+                    }
+                } catch (ExecutionException e) {
+                    System.err.println("Failed to analyze " + javaFiles.get(i).getFileName() + ": " + e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Hand a file result to the sink, measuring it as the export phase.
+     */
+    void deliver(ResultSink sink, FileResult fileResult) {
+        AnalysisProfiler.Span span = profiler.begin(Phase.EXPORT, null);
+        sink.accept(fileResult);
+        span.end(0);
+        if (profiler.isEnabled()) {
+            int methodCount = 0;
+            for (List<MethodInfo> methods : fileResult.classMethods.values()) {
+                methodCount += methods.size();
+            }
+            profiler.recordFile(methodCount);
+        }
+    }
+
+    /**
+     * Create daemon worker threads so an aborted run never keeps the JVM alive.
+     */
+    private static ThreadFactory workerThreadFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "mindex-worker-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Path a file's results are attributed to: the file path, or "archive!/entry" for an archive entry.
+     */
+    String sourcePath(Path file) {
+        Path archive = archives.get(file.getFileSystem());
+        return archive == null ? file.toString() : archive + "!" + file;
+    }
+
+    /**
+     * Build the cache key of a file: its path relative to the project root, with '/' separators.
+     */
+    static String cacheKey(Path root, Path file) {
+        return root.relativize(file).toString().replace('\\', '/');
     }
 
     /**
      * Parse a Java file and extract metrics for all classes/methods inside.
+     * Uses the calling thread's own parser, so it is safe to call from multiple threads.
+     * @param file Java source file
+     * @return FileResult with method info by class, or null if the file could not be parsed
+     */
+    public FileResult analyzeFile(Path file) {
+        return analyzeFile(file, null);
+    }
+
+    /**
+     * Parse and measure source code that was not read from the file system, such as a blob of a git revision.
+     * Uses the calling thread's own parser, so it is safe to call from multiple threads.
+     * @param file Path reported for the source
+     * @param content Source code
+     * @return FileResult with method info by class, or null if the source could not be parsed
+     */
+    public FileResult analyzeSource(Path file, byte[] content) {
+        if (tokenAnalyzers != null) {
+            return estimate(file, content);
+        }
+        return analyzeCompilationUnit(file, parse(file, content));
+    }
+
+    /**
+     * Analyze a Java file, serving it from the cache when its content is unchanged.
      * @param file Java source file
-     * @param classMethods Map to collect method info by class
-     * @param packageMethods Map to collect method info by package
-     * @param allMethods List to collect all method info
+     * @param cacheKey Cache key of the file, or null to bypass the cache
+     * @return FileResult with method info by class, or null if the file could not be parsed
      */
-    private void analyzeFile(File file, Map<String, ArrayList<MethodInfo>> classMethods, Map<String, ArrayList<MethodInfo>> packageMethods, ArrayList<MethodInfo> allMethods) {
+    private FileResult analyzeFile(Path file, String cacheKey) {
         try {
-            CompilationUnit cu = StaticJavaParser.parse(file);
-            String packageName = cu.getPackageDeclaration().map(pd -> pd.getNameAsString()).orElse("");
-            cu.findAll(ClassOrInterfaceDeclaration.class).forEach(clazz -> {
-                String className = clazz.getNameAsString();
-                ArrayList<MethodInfo> methods = new ArrayList<>();
-                clazz.findAll(MethodDeclaration.class).forEach(method -> {
-                    MethodInfo info = analyzeMethod(method);
-                    if (info != null) {
-                        methods.add(info);
-                        allMethods.add(info);
-                        packageMethods.computeIfAbsent(packageName, k -> new ArrayList<>()).add(info);
+            byte[] content = read(file);
+            if (tokenAnalyzers != null) {
+                return estimate(file, content);
+            }
+            if (cache == null || cacheKey == null) {
+                return analyzeCompilationUnit(file, parse(file, content));
+            }
+            byte[] hash = AnalysisCache.hash(content);
+            FileResult cached = cachedResult(file, cacheKey, hash);
+            if (cached != null) {
+                return cached;
+            }
+            FileResult fileResult = analyzeCompilationUnit(file, parse(file, content));
+            if (fileResult != null) {
+                cache.put(cacheKey, hash, fileResult);
+            }
+            return fileResult;
+        } catch (IOException e) {
+            System.err.println("Failed to parse " + file.getFileName() + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Read the contents of a source file.
+     * @param file Java source file
+     * @return File contents
+     * @throws IOException if the file cannot be read
+     */
+    byte[] read(Path file) throws IOException {
+        AnalysisProfiler.Span span = profiler.begin(Phase.READ, file);
+        byte[] content = Files.readAllBytes(file);
+        span.end(content.length);
+        return content;
+    }
+
+    /** @return Persistent cache of per-file results, or null if caching is disabled */
+    AnalysisCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Return the cached result of a file with unchanged content, re-attributed to its current path.
+     * @param file Java source file
+     * @param cacheKey Cache key of the file
+     * @param hash Content hash of the file
+     * @return FileResult from the cache, or null on a cache miss
+     */
+    FileResult cachedResult(Path file, String cacheKey, byte[] hash) {
+        FileResult cached = cache.get(cacheKey, hash);
+        if (cached == null) {
+            return null;
+        }
+        FileResult fileResult = new FileResult(sourcePath(file), cached.packageName);
+        for (Map.Entry<String, ArrayList<MethodInfo>> entry : cached.classMethods.entrySet()) {
+            fileResult.classMethods.put(entry.getKey(), rescore(entry.getValue()));
+        }
+        return fileResult;
+    }
+
+    /**
+     * Score cached methods with this analyzer's coefficients in one batch, leaving the cached objects untouched.
+     */
+    private ArrayList<MethodInfo> rescore(List<MethodInfo> methods) {
+        int count = methods.size();
+        double[] volumes = new double[count];
+        int[] complexities = new int[count];
+        int[] locs = new int[count];
+        double[] commentRatios = new double[count];
+        for (int i = 0; i < count; i++) {
+            MethodInfo m = methods.get(i);
+            volumes[i] = m.halsteadVolume;
+            complexities[i] = m.cyclomaticComplexity;
+            locs[i] = m.loc;
+            commentRatios[i] = m.commentRatio;
+        }
+        double[] mis = new double[count];
+        calculator.scoreAll(volumes, complexities, locs, commentRatios, mis, 0, count);
+        ArrayList<MethodInfo> scored = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            MethodInfo m = methods.get(i);
+            scored.add(new MethodInfo(m.name, m.halsteadVolume, m.cyclomaticComplexity, m.loc, mis[i], m.commentRatio));
+        }
+        return scored;
+    }
+
+    /**
+     * Parse Java source code with the calling thread's own parser.
+     * @param file Java source file, used for profiling
+     * @param content Source file contents
+     * @return Result of parsing the source
+     */
+    ParseResult<CompilationUnit> parse(Path file, byte[] content) {
+        AnalysisProfiler.Span span = profiler.begin(Phase.PARSE, file);
+        ParseResult<CompilationUnit> parsed = parsers.get().parse(new ByteArrayInputStream(content));
+        span.end(content.length);
+        return parsed;
+    }
+
+    /**
+     * Estimate metrics for all classes/methods of a Java file from its tokens, with the calling thread's own estimator.
+     * @param file Java source file
+     * @param content Source file contents
+     * @return FileResult with method info by class
+     */
+    private FileResult estimate(Path file, byte[] content) {
+        AnalysisProfiler.Span span = profiler.begin(Phase.MEASURE, file);
+        FileResult fileResult = tokenAnalyzers.get().analyze(sourcePath(file), content);
+        span.end(content.length);
+        return fileResult;
+    }
+
+    /**
+     * Extract metrics for all classes/methods of a parsed Java file.
+     * @param file Java source file
+     * @param parsed Result of parsing the file
+     * @return FileResult with method info by class, or null if the file could not be parsed
+     */
+    FileResult analyzeCompilationUnit(Path file, ParseResult<CompilationUnit> parsed) {
+        if (!parsed.isSuccessful() || !parsed.getResult().isPresent()) {
+            System.err.println("Failed to parse " + file.getFileName() + ": " + parsed.getProblems().stream().findFirst().map(Problem::getMessage).orElse("unknown error"));
+            return null;
+        }
+        AnalysisProfiler.Span span = profiler.begin(Phase.MEASURE, file);
+        CompilationUnit cu = parsed.getResult().get();
+        String packageName = cu.getPackageDeclaration().map(pd -> pd.getNameAsString()).orElse("");
+        FileResult fileResult = new FileResult(sourcePath(file), packageName);
+        cu.findAll(ClassOrInterfaceDeclaration.class).forEach(clazz -> {
+            String className = typeName(clazz);
+            ArrayList<MethodInfo> methods = new ArrayList<>();
+            clazz.findAll(MethodDeclaration.class).forEach(method -> {
+                MethodInfo info = analyzeMethod(method);
+                if (info != null) {
+                    methods.add(info);
+                    // Methods of nested classes are listed for every enclosing class but fingerprinted once
+                    if (fingerprints && declaringClass(method) == clazz) {
+                        // Local and anonymous classes have no fully qualified name
+                        String qualifiedName = clazz.getFullyQualifiedName()
+                                .orElse(fileResult.qualifiedClassName(className));
+                        MethodFingerprint fingerprint = Fingerprinter.fingerprint(fileResult.path, qualifiedName, method, info);
+                        if (fingerprint != null) {
+                            fileResult.fingerprints.add(fingerprint);
+                        }
                     }
-                });
-                classMethods.put(className, methods);
+                }
             });
-        } catch (IOException e) {
-            System.err.println("Failed to parse " + file.getName() + ": " + e.getMessage());
+            fileResult.classMethods.put(className, methods);
+        });
+        span.end(0);
+        return fileResult;
+    }
+
+    /**
+     * Name of a type within its package: member types are prefixed with their enclosing types ("Outer.Inner"),
+     * so nested types of the same simple name stay apart; local types and types in anonymous bodies are not.
+     */
+    private static String typeName(TypeDeclaration<?> type) {
+        StringBuilder name = new StringBuilder(type.getNameAsString());
+        Node parent = type.getParentNode().orElse(null);
+        while (parent instanceof TypeDeclaration) {
+            name.insert(0, '.').insert(0, ((TypeDeclaration<?>) parent).getNameAsString());
+            parent = parent.getParentNode().orElse(null);
         }
+        return name.toString();
+    }
+
+    /**
+     * Innermost class or interface enclosing a method, or null if there is none (e.g. a method of a top-level enum).
+     */
+    private static ClassOrInterfaceDeclaration declaringClass(MethodDeclaration method) {
+        Node node = method.getParentNode().orElse(null);
+        while (node != null && !(node instanceof ClassOrInterfaceDeclaration)) {
+            node = node.getParentNode().orElse(null);
+        }
+        return (ClassOrInterfaceDeclaration) node;
     }
 
     /**
@@ -84,16 +569,14 @@ public class JavaAnalyzer {
      */
     private MethodInfo analyzeMethod(MethodDeclaration method) {
         String name = method.getNameAsString();
-        int loc = MetricCalculator.calculateLOC(method);
-        int cyclomatic = MetricCalculator.calculateCyclomaticComplexity(method);
-        double halstead = MetricCalculator.calculateHalsteadVolume(method);
-        double mi = 0;
-        try {
-            mi = MaintainabilityIndexCalculator.calculate(halstead, cyclomatic, loc);
-        } catch (Exception e) {
-            // skip invalid
-        }
-        return new MethodInfo(name, halstead, cyclomatic, loc, mi);
+        MethodMetrics metrics = MetricCalculator.calculateMetrics(method);
+        int loc = metrics.loc;
+        int cyclomatic = metrics.cyclomaticComplexity;
+        double halstead = metrics.halsteadVolume();
+        double commentRatio = MetricCalculator.calculateCommentRatio(method);
+        // INVALID (NaN) for methods without a defined MI, e.g. empty bodies; averages and rankings leave them out
+        double mi = calculator.score(halstead, cyclomatic, loc, commentRatio);
+        return new MethodInfo(name, halstead, cyclomatic, loc, mi, commentRatio);
     }
 
     /**
@@ -108,25 +591,45 @@ public class JavaAnalyzer {
         for (String className : classMethods.keySet()) {
             System.out.println("Class: " + className);
             ArrayList<MethodInfo> methods = classMethods.get(className);
-            double classMI = 0;
             for (MethodInfo m : methods) {
                 System.out.printf("  Method: %s | MI: %.2f | CC: %d | HV: %.2f | LOC: %d\n", m.name, m.maintainabilityIndex, m.cyclomaticComplexity, m.halsteadVolume, m.loc);
-                classMI += m.maintainabilityIndex;
             }
             if (!methods.isEmpty()) {
-                classMI /= methods.size();
-                System.out.printf("  [Class Avg MI: %.2f]\n", classMI);
+                System.out.printf("  [Class Avg MI: %.2f]\n", RunningAverage.of(methods).average());
             }
         }
         // Package level
         System.out.println("\n[Package Avg MI]");
         for (String packageName : packageMethods.keySet()) {
             ArrayList<MethodInfo> methods = packageMethods.get(packageName);
-            double pkgMI = methods.stream().mapToDouble(m -> m.maintainabilityIndex).average().orElse(0);
-            System.out.printf("  Package: %s | Avg MI: %.2f\n", packageName, pkgMI);
+            System.out.printf("  Package: %s | Avg MI: %.2f\n", packageName, RunningAverage.of(methods).average());
+        }
+        // Project level
+        System.out.printf("\n[Project Avg MI: %.2f]\n", RunningAverage.of(allMethods).average());
+    }
+
+    /**
+     * Print the results of a columnar result store, in the same format as {@link #printResults(AnalysisResult)}.
+     * @param store Method results of the project
+     */
+    public void printResults(ResultStore store) {
+        System.out.println("\n--- Maintainability Index Results ---");
+        for (int c = 0; c < store.getClassCount(); c++) {
+            System.out.println("Class: " + store.getClassName(c));
+            for (int m = store.getClassStart(c); m < store.getClassEnd(c); m++) {
+                System.out.printf("  Method: %s | MI: %.2f | CC: %d | HV: %.2f | LOC: %d\n", store.getMethodName(m), store.getMaintainabilityIndex(m),
+                        store.getCyclomaticComplexity(m), store.getHalsteadVolume(m), store.getLoc(m));
+            }
+            if (store.getClassEnd(c) > store.getClassStart(c)) {
+                System.out.printf("  [Class Avg MI: %.2f]\n", store.getClassAverageMI(c));
+            }
+        }
+        // Package level
+        System.out.println("\n[Package Avg MI]");
+        for (int p = 0; p < store.getPackageCount(); p++) {
+            System.out.printf("  Package: %s | Avg MI: %.2f\n", store.getPackageName(p), store.getPackageAverageMI(p));
         }
         // Project level
-        double projectMI = allMethods.stream().mapToDouble(m -> m.maintainabilityIndex).average().orElse(0);
-        System.out.printf("\n[Project Avg MI: %.2f]\n", projectMI);
+        System.out.printf("\n[Project Avg MI: %.2f]\n", store.getProjectAverageMI());
     }
 } 
\ No newline at end of file
@@ -0,0 +1,47 @@
+package com.mindex.analyzer;
+
+import com.mindex.model.FileResult;
+
+/**
+ * Receiver of per-file analysis results as they are produced.
+ * JavaAnalyzer delivers files one at a time, in sorted path order, on a single thread,
+ * so implementations do not need to be thread-safe.
+ */
+public interface ResultSink {
+    /**
+     * Consume the results of one analyzed file.
+     * @param fileResult Results of a single file
+     */
+    void accept(FileResult fileResult);
+
+    /**
+     * Called once after the last file has been delivered.
+     */
+    default void close() {
+    }
+
+    /**
+     * Combine two sinks into one that delivers every result to both, in order.
+     * @param first Sink receiving each result first
+     * @param second Sink receiving each result second
+     * @return Sink forwarding to both; closing it closes both
+     */
+    static ResultSink tee(ResultSink first, ResultSink second) {
+        return new ResultSink() {
+            @Override
+            public void accept(FileResult fileResult) {
+                first.accept(fileResult);
+                second.accept(fileResult);
+            }
+
+            @Override
+            public void close() {
+                try {
+                    first.close();
+                } finally {
+                    second.close();
+                }
+            }
+        };
+    }
+}
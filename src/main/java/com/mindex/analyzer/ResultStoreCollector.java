@@ -0,0 +1,23 @@
+package com.mindex.analyzer;
+
+import com.mindex.model.FileResult;
+import com.mindex.model.ResultStore;
+
+/**
+ * Sink that appends per-file results to a columnar ResultStore.
+ */
+public class ResultStoreCollector implements ResultSink {
+    private final ResultStore.Builder builder = new ResultStore.Builder();
+
+    @Override
+    public void accept(FileResult fileResult) {
+        builder.add(fileResult);
+    }
+
+    /**
+     * @return ResultStore containing all files accepted so far
+     */
+    public ResultStore getStore() {
+        return builder.build();
+    }
+}
@@ -0,0 +1,1041 @@
+package com.mindex.analyzer;
+
+import com.mindex.metrics.JavaTokenizer;
+import com.mindex.metrics.MaintainabilityIndexCalculator;
+import com.mindex.metrics.MethodMetrics;
+import com.mindex.model.FileResult;
+import com.mindex.model.MethodInfo;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Fast estimation mode: derives LOC, Cyclomatic Complexity and Halstead counts straight from the token
+ * stream of {@link JavaTokenizer}, without building an AST. Classes and methods are found by brace matching,
+ * and the syntactic role of each token (generic type argument, declared name, method call, ...) is guessed
+ * from its neighbours, following the counting rules of the AST-based {@link com.mindex.metrics.MetricCalculator}:
+ * <ul>
+ *   <li>LOC, Cyclomatic Complexity and the classes and methods reported are exact for ordinary code.
+ *   A for statement whose header is not on the same nesting level, a do statement without a block,
+ *   or labels and casts the heuristics misread can move CC by one.</li>
+ *   <li>Halstead counts differ where a name's role depends on types the lexer cannot see, e.g.
+ *   {@code a < b, c > d} read as type arguments, a parenthesized name followed by an operand read as a cast,
+ *   or the second variable of {@code int a, b} in a for header. On the java.lang, java.util and java.io
+ *   sources of the JDK, Halstead Volume is within 1% of the AST value for 99.8% of methods and within 5%
+ *   for all of them.</li>
+ *   <li>Files with syntax errors are estimated anyway instead of being skipped.</li>
+ * </ul>
+ * Token, flag and stack arrays are reused from file to file. Not thread-safe; use one instance per thread.
+ */
+public class TokenAnalyzer {
+    private static final int IDENTIFIER = JavaTokenizer.IDENTIFIER;
+    private static final int KEYWORD = JavaTokenizer.KEYWORD;
+    private static final int LITERAL = JavaTokenizer.LITERAL;
+    private static final int OPERATOR = JavaTokenizer.OPERATOR;
+
+    private static final int LPAREN = JavaTokenizer.operatorCode("(");
+    private static final int RPAREN = JavaTokenizer.operatorCode(")");
+    private static final int LBRACE = JavaTokenizer.operatorCode("{");
+    private static final int RBRACE = JavaTokenizer.operatorCode("}");
+    private static final int LBRACKET = JavaTokenizer.operatorCode("[");
+    private static final int RBRACKET = JavaTokenizer.operatorCode("]");
+    private static final int SEMICOLON = JavaTokenizer.operatorCode(";");
+    private static final int COMMA = JavaTokenizer.operatorCode(",");
+    private static final int DOT = JavaTokenizer.operatorCode(".");
+    private static final int ELLIPSIS = JavaTokenizer.operatorCode("...");
+    private static final int AT = JavaTokenizer.operatorCode("@");
+    private static final int DOUBLE_COLON = JavaTokenizer.operatorCode("::");
+    private static final int ASSIGN = JavaTokenizer.operatorCode("=");
+    private static final int LT = JavaTokenizer.operatorCode("<");
+    private static final int GT = JavaTokenizer.operatorCode(">");
+    private static final int SHR = JavaTokenizer.operatorCode(">>");
+    private static final int USHR = JavaTokenizer.operatorCode(">>>");
+    private static final int QUESTION = JavaTokenizer.operatorCode("?");
+    private static final int COLON = JavaTokenizer.operatorCode(":");
+    private static final int ARROW = JavaTokenizer.operatorCode("->");
+    private static final int AND = JavaTokenizer.operatorCode("&");
+    private static final int OR = JavaTokenizer.operatorCode("|");
+    private static final int NOT = JavaTokenizer.operatorCode("!");
+    private static final int TILDE = JavaTokenizer.operatorCode("~");
+
+    private static final int CLASS = JavaTokenizer.keywordCode("class");
+    private static final int INTERFACE = JavaTokenizer.keywordCode("interface");
+    private static final int ENUM = JavaTokenizer.keywordCode("enum");
+    private static final int PACKAGE = JavaTokenizer.keywordCode("package");
+    private static final int NEW = JavaTokenizer.keywordCode("new");
+    private static final int THROWS = JavaTokenizer.keywordCode("throws");
+    private static final int EXTENDS = JavaTokenizer.keywordCode("extends");
+    private static final int IMPLEMENTS = JavaTokenizer.keywordCode("implements");
+    private static final int INSTANCEOF = JavaTokenizer.keywordCode("instanceof");
+    private static final int SUPER = JavaTokenizer.keywordCode("super");
+    private static final int THIS = JavaTokenizer.keywordCode("this");
+    private static final int RETURN = JavaTokenizer.keywordCode("return");
+    private static final int BREAK = JavaTokenizer.keywordCode("break");
+    private static final int CONTINUE = JavaTokenizer.keywordCode("continue");
+    private static final int FOR = JavaTokenizer.keywordCode("for");
+    private static final int WHILE = JavaTokenizer.keywordCode("while");
+    private static final int DO = JavaTokenizer.keywordCode("do");
+    private static final int SWITCH = JavaTokenizer.keywordCode("switch");
+    private static final int CASE = JavaTokenizer.keywordCode("case");
+    private static final int DEFAULT = JavaTokenizer.keywordCode("default");
+    private static final int CATCH = JavaTokenizer.keywordCode("catch");
+    private static final int VAR = JavaTokenizer.contextualKeywordCode("var");
+    private static final int YIELD = JavaTokenizer.contextualKeywordCode("yield");
+    private static final int RECORD = JavaTokenizer.contextualKeywordCode("record");
+
+    /** Keywords that may precede the type parameters of a generic method */
+    private static final boolean[] MODIFIERS = keywordSet("public", "protected", "private", "static", "final", "abstract",
+            "synchronized", "native", "default", "strictfp");
+    /** Keywords that end a type, so the next identifier is a declared name */
+    private static final boolean[] PRIMITIVES = keywordSet("boolean", "byte", "char", "short", "int", "long", "float", "double", "void");
+    /** Keywords allowed inside type arguments */
+    private static final boolean[] TYPE_ARGUMENT_KEYWORDS = keywordSet("extends", "super", "boolean", "byte", "char", "short",
+            "int", "long", "float", "double");
+    /** Keywords before a parenthesized condition or resource, which is never a cast */
+    private static final boolean[] CONTROL_KEYWORDS = keywordSet("if", "while", "for", "switch", "synchronized", "catch", "try");
+
+    /** Halstead operator ID of each operator token, -1 if it is not counted; assignments share the ID of "=" */
+    private static final int[] OPERATOR_IDS = new int[JavaTokenizer.operatorCount()];
+    /** Halstead operator ID of each keyword counted as an operator, -1 otherwise */
+    private static final int[] KEYWORD_IDS = new int[64];
+    /** Keywords that add a decision point */
+    private static final boolean[] DECISIONS = keywordSet("if", "for", "while", "do", "case", "catch");
+    private static final int CALL_ID = JavaTokenizer.operatorCount() + KEYWORD_IDS.length;
+    private static final int OPERATOR_ID_COUNT = CALL_ID + 1;
+
+    static {
+        Arrays.fill(OPERATOR_IDS, -1);
+        for (String op : new String[] {"||", "&&", "|", "^", "&", "==", "!=", "<", ">", "<=", ">=", "<<", ">>", ">>>",
+                "+", "-", "*", "/", "%", "!", "~", "++", "--"}) {
+            OPERATOR_IDS[JavaTokenizer.operatorCode(op)] = JavaTokenizer.operatorCode(op);
+        }
+        for (String op : new String[] {"=", "+=", "-=", "*=", "/=", "&=", "|=", "^=", "%=", "<<=", ">>=", ">>>="}) {
+            OPERATOR_IDS[JavaTokenizer.operatorCode(op)] = ASSIGN;
+        }
+        Arrays.fill(KEYWORD_IDS, -1);
+        for (String keyword : new String[] {"if", "for", "while", "do", "switch", "case", "catch", "break", "continue",
+                "return", "throw", "try"}) {
+            int code = JavaTokenizer.keywordCode(keyword);
+            KEYWORD_IDS[code] = JavaTokenizer.operatorCount() + code;
+        }
+    }
+
+    // Token flags
+    /** Token contributes nothing: type argument brackets, annotation names, method reference names, ... */
+    private static final int SKIP = 1;
+    /** Identifier that is counted once: types, declared names, members after '.' */
+    private static final int ONCE = 1 << 1;
+    /** Identifier used as an expression (a NameExpr), counted twice like the AST visitor does */
+    private static final int NAME = 1 << 2;
+    /** Variable declarator name, counted twice like the AST visitor does */
+    private static final int DECLARATOR = 1 << 3;
+    /** Name of a called method: one operand and the "call" operator */
+    private static final int CALL = 1 << 4;
+    /** "=" of a variable initializer, which is not an assignment operator */
+    private static final int INITIALIZER = 1 << 5;
+    /** for-each, the while of a do statement and switch expressions: no operator, no decision */
+    private static final int NOT_COUNTED = 1 << 6;
+    /** "default" label of a switch entry, counted like case */
+    private static final int DEFAULT_LABEL = 1 << 7;
+    /** Token inside parentheses of the enclosing block */
+    private static final int IN_PARENS = 1 << 8;
+    /** Identifier of a type argument list */
+    private static final int TYPE_ARGUMENT = 1 << 9;
+    /** Further variable of a declaration; the AST gives it a copy of the declared type, so the type's names count again */
+    private static final int REPEATS_TYPE = 1 << 10;
+
+    // Brace kinds
+    private static final int TYPE_BODY = 1;
+    private static final int ENUM_CONSTANTS = 2;
+    private static final int ANNOTATION_BODY = 3;
+    private static final int METHOD_BODY = 4;
+    private static final int BLOCK = 5;
+    private static final int DO_BLOCK = 6;
+
+    // Paren kinds
+    private static final int PAREN = 0;
+    private static final int FOR_HEADER = 1;
+    private static final int NEW_ARGUMENTS = 2;
+    private static final int CATCH_HEADER = 3;
+
+    private final JavaTokenizer tokens = new JavaTokenizer();
+    private final MaintainabilityIndexCalculator calculator;
+
+    private int[] flags = new int[4096];
+    /** First and last token of the declared type of each REPEATS_TYPE declarator */
+    private int[] typeStarts = new int[4096];
+    private int[] typeEnds = new int[4096];
+
+    private int braceDepth;
+    private int[] braceKinds = new int[64];
+    /** Method of a METHOD_BODY, class of a registered TYPE_BODY (-1 for other types) */
+    private int[] braceRefs = new int[64];
+    /** Name symbol of a type body, for telling constructors from methods */
+    private int[] braceNames = new int[64];
+    /** Name within the package of a named type body (e.g. "Outer.Inner"), null for other braces */
+    private String[] braceTypeNames = new String[64];
+    /** Paren depth when the brace was opened */
+    private int[] braceParens = new int[64];
+    /** Member count when an enum body was opened and when its constants ended, -1 for other braces */
+    private int[] enumMembers = new int[64];
+    private int[] enumConstantsEnds = new int[64];
+
+    private int parenDepth;
+    private int[] parenKinds = new int[64];
+    private int[] parenOpeners = new int[64];
+    private boolean[] parenSemicolons = new boolean[64];
+
+    private int methodCount;
+    private int[] methodStarts = new int[256];
+    private int[] methodEnds = new int[256];
+    private int[] methodNames = new int[256];
+
+    private int classCount;
+    /** Names within the package, as in {@link FileResult#classMethods} */
+    private String[] classNames = new String[64];
+    private int openClassCount;
+    private int[] openClasses = new int[64];
+    /** (class, method) pairs in source order of the methods */
+    private int memberCount;
+    private int[] memberClasses = new int[256];
+    private int[] memberMethods = new int[256];
+
+    private int stamp;
+    private final int[] operatorStamps = new int[OPERATOR_ID_COUNT];
+    private int[] symbolStamps = new int[1024];
+
+    /**
+     * Create an estimator that scores methods with the given MI coefficients.
+     * @param calculator MI coefficients, e.g. {@link MaintainabilityIndexCalculator#DEFAULT}
+     */
+    public TokenAnalyzer(MaintainabilityIndexCalculator calculator) {
+        this.calculator = calculator;
+    }
+
+    private static boolean[] keywordSet(String... keywords) {
+        boolean[] set = new boolean[64];
+        for (String keyword : keywords) {
+            set[JavaTokenizer.keywordCode(keyword)] = true;
+        }
+        return set;
+    }
+
+    /**
+     * Estimate the metrics of all classes/methods of a Java source file.
+     * Like the AST analyzer, methods of nested classes are also reported under each enclosing class
+     * and enums, records and annotation types are not reported as classes.
+     * @param path Path reported for the file
+     * @param content Source file contents
+     * @return FileResult with method info by class
+     */
+    public FileResult analyze(String path, byte[] content) {
+        tokens.tokenize(content);
+        int count = tokens.getTokenCount();
+        if (flags.length < count) {
+            flags = new int[Math.max(count, flags.length * 2)];
+            typeStarts = new int[flags.length];
+            typeEnds = new int[flags.length];
+        }
+        Arrays.fill(flags, 0, count, 0);
+        markTypeArguments(count);
+        String packageName = findStructure(count);
+        classifyNames(count);
+
+        FileResult fileResult = new FileResult(path, packageName);
+        int[] classSizes = new int[classCount];
+        for (int m = 0; m < memberCount; m++) {
+            classSizes[memberClasses[m]]++;
+        }
+        ArrayList<ArrayList<MethodInfo>> classMethods = new ArrayList<>(classCount);
+        for (int c = 0; c < classCount; c++) {
+            classMethods.add(new ArrayList<>(classSizes[c]));
+        }
+        MethodInfo[] infos = new MethodInfo[methodCount];
+        for (int m = 0; m < memberCount; m++) {
+            int method = memberMethods[m];
+            if (infos[method] == null) {
+                infos[method] = measure(method, count);
+            }
+            classMethods.get(memberClasses[m]).add(infos[method]);
+        }
+        for (int c = 0; c < classCount; c++) {
+            fileResult.classMethods.put(classNames[c], classMethods.get(c));
+        }
+        return fileResult;
+    }
+
+    private int code(int i, int count) {
+        return i >= 0 && i < count ? tokens.getCode(i) : -1;
+    }
+
+    private boolean isOperator(int i, int count, int op) {
+        return i >= 0 && i < count && tokens.getKind(i) == OPERATOR && tokens.getCode(i) == op;
+    }
+
+    private boolean isKeyword(int i, int count, int keyword) {
+        return i >= 0 && i < count && tokens.getKind(i) == KEYWORD && tokens.getCode(i) == keyword;
+    }
+
+    private boolean isIdentifier(int i, int count) {
+        return i >= 0 && i < count && tokens.getKind(i) == IDENTIFIER;
+    }
+
+    /**
+     * Pass 1: mark annotation names and the brackets of type argument and type parameter lists,
+     * whose identifiers are types and whose '&lt;', '&gt;', '&amp;' and '?' are not operators.
+     */
+    private void markTypeArguments(int count) {
+        for (int i = 0; i < count; i++) {
+            if (tokens.getKind(i) != OPERATOR) {
+                continue;
+            }
+            int op = tokens.getCode(i);
+            if (op == AT && isIdentifier(i + 1, count)) {
+                int j = i + 1;
+                flags[j] |= SKIP;
+                while (isOperator(j + 1, count, DOT) && isIdentifier(j + 2, count)) {
+                    j += 2;
+                    flags[j] |= SKIP;
+                }
+                if (isOperator(j + 1, count, LPAREN)) {
+                    markAnnotationMembers(j + 1, count);
+                }
+            } else if (op == LT && (isIdentifier(i - 1, count) || isOperator(i - 1, count, DOT) || i == 0
+                    || isOperator(i - 1, count, SEMICOLON) || isOperator(i - 1, count, LBRACE) || isOperator(i - 1, count, RBRACE)
+                    || isOperator(i - 1, count, RPAREN) && (flags[i - 1] & SKIP) != 0
+                    || tokens.getKind(i - 1) == KEYWORD && MODIFIERS[tokens.getCode(i - 1)])) {
+                int end = typeArgumentsEnd(i, count);
+                if (end > 0) {
+                    markTypeArguments(i, end);
+                    i = end;
+                }
+            } else if (op == AND && (flags[i] & SKIP) == 0) {
+                markIntersectionCast(i, count);
+            }
+        }
+    }
+
+    private void markTypeArguments(int open, int close) {
+        for (int j = open; j <= close; j++) {
+            flags[j] |= tokens.getKind(j) == IDENTIFIER ? TYPE_ARGUMENT : SKIP;
+        }
+    }
+
+    /**
+     * In a cast to an intersection type, "(A &amp; B) x", the names are types and '&amp;' is no operator.
+     */
+    private void markIntersectionCast(int and, int count) {
+        int open = typeStart(and - 1, count) - 1;
+        if (open < 1 || !isOperator(open, count, LPAREN) || !isIdentifier(open + 1, count)) {
+            return;
+        }
+        int before = tokens.getKind(open - 1);
+        if (before == IDENTIFIER || before == KEYWORD && CONTROL_KEYWORDS[tokens.getCode(open - 1)]) {
+            return;
+        }
+        int j = and;
+        while (isOperator(j, count, AND)) {
+            j++;
+            if (!isIdentifier(j, count)) {
+                return;
+            }
+            while (isOperator(j + 1, count, DOT) && isIdentifier(j + 2, count)) {
+                j += 2;
+            }
+            j++;
+            if (isOperator(j, count, LT)) {
+                int end = typeArgumentsEnd(j, count);
+                if (end < 0) {
+                    return;
+                }
+                markTypeArguments(j, end);
+                j = end + 1;
+            }
+        }
+        if (!isOperator(j, count, RPAREN) || j + 1 >= count
+                || tokens.getKind(j + 1) == OPERATOR && !isOperator(j + 1, count, LPAREN)) {
+            return;
+        }
+        for (int k = open + 1; k < j; k++) {
+            if (tokens.getKind(k) == IDENTIFIER) {
+                flags[k] |= TYPE_ARGUMENT;
+            } else if (isOperator(k, count, AND)) {
+                flags[k] |= SKIP;
+            }
+        }
+    }
+
+    /**
+     * In "@A(name = value, ...)" the member names are counted once and their "=" is not an assignment.
+     * The closing parenthesis is marked, as type parameters may follow it.
+     */
+    private void markAnnotationMembers(int open, int count) {
+        int depth = 0;
+        for (int j = open; j < count; j++) {
+            if (isOperator(j, count, LPAREN)) {
+                depth++;
+            } else if (isOperator(j, count, RPAREN) && --depth == 0) {
+                flags[j] |= SKIP;
+                return;
+            } else if (depth == 1 && isIdentifier(j, count) && isOperator(j + 1, count, ASSIGN)
+                    && (isOperator(j - 1, count, LPAREN) || isOperator(j - 1, count, COMMA))) {
+                flags[j] |= ONCE;
+                flags[j + 1] |= INITIALIZER;
+            }
+        }
+    }
+
+    /**
+     * @return Index of the '&gt;' that closes the type arguments opened at i, or -1 if they are not type arguments
+     */
+    private int typeArgumentsEnd(int open, int count) {
+        int depth = 1;
+        for (int j = open + 1; j < count; j++) {
+            int kind = tokens.getKind(j);
+            int code = tokens.getCode(j);
+            if (kind == IDENTIFIER || kind == KEYWORD && TYPE_ARGUMENT_KEYWORDS[code]) {
+                continue;
+            }
+            if (kind != OPERATOR) {
+                return -1;
+            }
+            if (code == LT) {
+                depth++;
+            } else if (code == GT) {
+                depth--;
+            } else if (code == SHR) {
+                depth -= 2;
+            } else if (code == USHR) {
+                depth -= 3;
+            } else if (code != DOT && code != COMMA && code != QUESTION && code != AND && code != LBRACKET
+                    && code != RBRACKET && code != AT) {
+                return -1;
+            }
+            if (depth <= 0) {
+                return depth == 0 ? j : -1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Pass 2: match braces and parentheses to find classes, methods and their token ranges,
+     * and mark tokens whose role follows from the enclosing construct.
+     * @return Package name of the file
+     */
+    private String findStructure(int count) {
+        braceDepth = 0;
+        parenDepth = 0;
+        methodCount = 0;
+        classCount = 0;
+        openClassCount = 0;
+        memberCount = 0;
+        String packageName = "";
+        int memberStart = 0;
+        int pendingMethod = -1;
+        int pendingType = 0;
+        int pendingTypeName = -1;
+        boolean pendingClass = false;
+        boolean typeHeader = false;
+        boolean newType = false;
+        boolean anonymousBody = false;
+        for (int i = 0; i < count; i++) {
+            int kind = tokens.getKind(i);
+            int code = tokens.getCode(i);
+            int top = braceDepth > 0 ? braceKinds[braceDepth - 1] : 0;
+            boolean inParens = parenDepth > (braceDepth > 0 ? braceParens[braceDepth - 1] : 0);
+            if (inParens) {
+                flags[i] |= IN_PARENS;
+            }
+            if (kind == OPERATOR) {
+                if (code == LBRACE) {
+                    int ref = -1;
+                    int name = -1;
+                    String typeName = null;
+                    int braceKind;
+                    if (pendingType != 0) {
+                        braceKind = pendingType;
+                        name = pendingTypeName;
+                        typeName = typeName(pendingTypeName);
+                        if (pendingClass) {
+                            ref = classCount;
+                            addClass(typeName);
+                        }
+                        memberStart = i + 1;
+                    } else if (pendingMethod >= 0) {
+                        braceKind = METHOD_BODY;
+                        ref = pendingMethod;
+                    } else if (anonymousBody || top == ENUM_CONSTANTS && !inParens
+                            && (isIdentifier(i - 1, count) || isOperator(i - 1, count, RPAREN))) {
+                        braceKind = TYPE_BODY;
+                        memberStart = i + 1;
+                    } else {
+                        braceKind = isKeyword(i - 1, count, DO) ? DO_BLOCK : BLOCK;
+                    }
+                    pushBrace(braceKind, ref, name, typeName);
+                    pendingType = 0;
+                    pendingMethod = -1;
+                    typeHeader = false;
+                    newType = false;
+                    anonymousBody = false;
+                } else if (code == RBRACE) {
+                    if (braceDepth == 0) {
+                        continue;
+                    }
+                    braceDepth--;
+                    parenDepth = braceParens[braceDepth];
+                    int closed = braceKinds[braceDepth];
+                    if (closed == METHOD_BODY) {
+                        methodEnds[braceRefs[braceDepth]] = i;
+                    } else if (closed == TYPE_BODY && braceRefs[braceDepth] >= 0) {
+                        openClassCount--;
+                    } else if (closed == DO_BLOCK && isKeyword(i + 1, count, WHILE)) {
+                        flags[i + 1] |= NOT_COUNTED;
+                    }
+                    if (enumMembers[braceDepth] >= 0 && enumConstantsEnds[braceDepth] >= 0) {
+                        moveConstantMethodsLast(enumMembers[braceDepth], enumConstantsEnds[braceDepth]);
+                    }
+                    int outer = braceDepth > 0 ? braceKinds[braceDepth - 1] : 0;
+                    if ((outer == TYPE_BODY || outer == ENUM_CONSTANTS || outer == ANNOTATION_BODY)
+                            && parenDepth == braceParens[braceDepth - 1]) {
+                        memberStart = i + 1;
+                    }
+                } else if (code == SEMICOLON) {
+                    if (inParens) {
+                        parenSemicolons[parenDepth - 1] = true;
+                    } else {
+                        if (pendingMethod >= 0) {
+                            methodEnds[pendingMethod] = i;
+                            pendingMethod = -1;
+                        }
+                        if (top == TYPE_BODY || top == ENUM_CONSTANTS || top == ANNOTATION_BODY) {
+                            memberStart = i + 1;
+                            if (top == ENUM_CONSTANTS) {
+                                braceKinds[braceDepth - 1] = TYPE_BODY;
+                                enumConstantsEnds[braceDepth - 1] = memberCount;
+                            }
+                        }
+                        typeHeader = false;
+                    }
+                } else if (code == LPAREN) {
+                    int parenKind = PAREN;
+                    if (isKeyword(i - 1, count, FOR)) {
+                        parenKind = FOR_HEADER;
+                    } else if (isKeyword(i - 1, count, CATCH)) {
+                        parenKind = CATCH_HEADER;
+                    } else if (newType) {
+                        parenKind = NEW_ARGUMENTS;
+                        newType = false;
+                    }
+                    pushParen(parenKind, i);
+                } else if (code == RPAREN) {
+                    if (parenDepth == 0) {
+                        continue;
+                    }
+                    parenDepth--;
+                    int opener = parenOpeners[parenDepth];
+                    switch (parenKinds[parenDepth]) {
+                        case FOR_HEADER:
+                            if (!parenSemicolons[parenDepth]) {
+                                flags[opener - 1] |= NOT_COUNTED;
+                            }
+                            break;
+                        case NEW_ARGUMENTS:
+                            anonymousBody = isOperator(i + 1, count, LBRACE);
+                            break;
+                        case CATCH_HEADER:
+                            markCatchParameter(opener, i);
+                            break;
+                        default:
+                            break;
+                    }
+                } else if (code == LBRACKET && (flags[i] & SKIP) == 0) {
+                    newType = false;
+                }
+            } else if (kind == KEYWORD) {
+                if ((code == CLASS || code == INTERFACE || code == ENUM) && !isOperator(i - 1, count, DOT) && isIdentifier(i + 1, count)) {
+                    boolean annotation = isOperator(i - 1, count, AT);
+                    pendingType = annotation ? ANNOTATION_BODY : code == ENUM ? ENUM_CONSTANTS : TYPE_BODY;
+                    pendingClass = !annotation && code != ENUM;
+                    pendingTypeName = tokens.getCode(i + 1);
+                    flags[++i] |= ONCE;
+                    typeHeader = true;
+                } else if (code == NEW) {
+                    newType = !isOperator(i - 1, count, DOUBLE_COLON);
+                } else if (code == THROWS) {
+                    typeHeader = true;
+                } else if (code == SWITCH && isSwitchExpression(i, count)) {
+                    flags[i] |= NOT_COUNTED;
+                } else if (code == DEFAULT && (isOperator(i + 1, count, COLON) || isOperator(i + 1, count, ARROW))
+                        && !isOperator(i - 1, count, COMMA)) {
+                    flags[i] |= DEFAULT_LABEL;
+                } else if (code == PACKAGE && braceDepth == 0 && classCount == 0) {
+                    StringBuilder name = new StringBuilder();
+                    for (int j = i + 1; j < count && !isOperator(j, count, SEMICOLON); j++) {
+                        name.append(isIdentifier(j, count) ? tokens.getSymbolText(tokens.getCode(j)) : ".");
+                    }
+                    packageName = name.toString();
+                }
+            } else if (kind == IDENTIFIER && (flags[i] & SKIP) == 0) {
+                if (code == RECORD && isIdentifier(i + 1, count)
+                        && (isOperator(i + 2, count, LPAREN) || isOperator(i + 2, count, LT))) {
+                    flags[i] |= SKIP;
+                    pendingType = TYPE_BODY;
+                    pendingClass = false;
+                    pendingTypeName = tokens.getCode(i + 1);
+                    flags[++i] |= ONCE;
+                    typeHeader = true;
+                } else if (typeHeader || newType) {
+                    flags[i] |= ONCE;
+                } else if (isOperator(i + 1, count, LPAREN) && !inParens
+                        && (top == TYPE_BODY || top == ENUM_CONSTANTS) && endsType(i - 1, count)) {
+                    flags[i] |= ONCE;
+                    if (code != braceNames[braceDepth - 1]) {
+                        pendingMethod = addMethod(memberStart, code);
+                    }
+                }
+            }
+        }
+        while (braceDepth > 0) {
+            braceDepth--;
+            if (braceKinds[braceDepth] == METHOD_BODY) {
+                methodEnds[braceRefs[braceDepth]] = count - 1;
+            }
+        }
+        if (pendingMethod >= 0) {
+            methodEnds[pendingMethod] = count - 1;
+        }
+        return packageName;
+    }
+
+    /**
+     * @return true if token i ends a type, so an identifier after it is a declared name:
+     * an identifier, a primitive type, "var", a closing type argument bracket, "[]" or "..."
+     */
+    private boolean endsType(int i, int count) {
+        if (i < 0) {
+            return false;
+        }
+        int kind = tokens.getKind(i);
+        int code = tokens.getCode(i);
+        if (kind == IDENTIFIER) {
+            return (flags[i] & SKIP) == 0 && code != YIELD || code == VAR;
+        }
+        if (kind == KEYWORD) {
+            return PRIMITIVES[code];
+        }
+        return kind == OPERATOR && ((code == GT || code == SHR || code == USHR) && (flags[i] & SKIP) != 0
+                || code == RBRACKET && isOperator(i - 1, count, LBRACKET) || code == ELLIPSIS);
+    }
+
+    /**
+     * A switch after an operator, "return" or "yield" produces a value; others are statements.
+     */
+    private boolean isSwitchExpression(int i, int count) {
+        if (i == 0) {
+            return false;
+        }
+        int kind = tokens.getKind(i - 1);
+        int code = tokens.getCode(i - 1);
+        if (kind == OPERATOR) {
+            return code != SEMICOLON && code != LBRACE && code != RBRACE && code != RPAREN && code != COLON && code != ARROW;
+        }
+        return kind == KEYWORD && code == RETURN || kind == IDENTIFIER && code == YIELD;
+    }
+
+    /**
+     * The catch parameter is the last identifier in the parentheses; the others are its (union) types.
+     */
+    private void markCatchParameter(int open, int close) {
+        for (int j = open + 1; j < close; j++) {
+            if (tokens.getKind(j) == IDENTIFIER && (flags[j] & SKIP) == 0) {
+                flags[j] |= ONCE;
+            } else if (tokens.getKind(j) == OPERATOR && tokens.getCode(j) == OR) {
+                flags[j] |= SKIP;
+            }
+        }
+    }
+
+    /**
+     * Pass 3: classify the remaining identifiers as method calls, types, declared names or expression names,
+     * and mark the "=" of variable initializers.
+     */
+    private void classifyNames(int count) {
+        int depth = 0;
+        int declarationDepth = -1;
+        int typeStart = -1;
+        int typeEnd = -1;
+        for (int i = 0; i < count; i++) {
+            int kind = tokens.getKind(i);
+            if (kind == OPERATOR) {
+                int op = tokens.getCode(i);
+                if (op == ARROW) {
+                    markLambdaParameters(i, count);
+                } else if (op == LPAREN || op == LBRACKET || op == LBRACE) {
+                    depth++;
+                } else if (op == RPAREN || op == RBRACKET || op == RBRACE) {
+                    depth--;
+                }
+                if (depth < declarationDepth || op == SEMICOLON && depth == declarationDepth) {
+                    declarationDepth = -1;
+                }
+                continue;
+            }
+            if (kind != IDENTIFIER || (flags[i] & (SKIP | ONCE)) != 0) {
+                continue;
+            }
+            int code = tokens.getCode(i);
+            if ((flags[i] & TYPE_ARGUMENT) != 0) {
+                flags[i] |= ONCE;
+            } else if (isOperator(i - 1, count, DOUBLE_COLON)
+                    || isOperator(i + 1, count, DOT) && (isKeyword(i + 2, count, THIS) || isKeyword(i + 2, count, SUPER))
+                    || code == VAR && isIdentifier(i + 1, count)
+                    || code == YIELD && isStatementStart(i - 1, count) && !isOperator(i + 1, count, ASSIGN)) {
+                flags[i] |= SKIP;
+            } else if (isOperator(i + 1, count, LPAREN)) {
+                flags[i] |= CALL;
+            } else if (isOperator(i - 1, count, DOT) || isKeyword(i - 1, count, BREAK) || isKeyword(i - 1, count, CONTINUE)
+                    || isOperator(i + 1, count, ARROW)
+                    || isOperator(i + 1, count, COLON) && isStatementStart(i - 1, count)) {
+                flags[i] |= ONCE;
+            } else if (isType(i, count)) {
+                flags[i] |= ONCE;
+            } else if (endsType(i - 1, count)) {
+                int next = i + 1 < count && tokens.getKind(i + 1) == OPERATOR ? tokens.getCode(i + 1) : -1;
+                if (next == ASSIGN || next == SEMICOLON || next == COLON || next == COMMA && (flags[i] & IN_PARENS) == 0) {
+                    flags[i] |= DECLARATOR;
+                    if (next == ASSIGN) {
+                        flags[i + 1] |= INITIALIZER;
+                    }
+                    declarationDepth = depth;
+                    typeEnd = i - 1;
+                    typeStart = typeStart(typeEnd, count);
+                } else {
+                    flags[i] |= ONCE;
+                }
+            } else if (depth == declarationDepth && isOperator(i - 1, count, COMMA)
+                    && (isOperator(i + 1, count, ASSIGN) || isOperator(i + 1, count, COMMA) || isOperator(i + 1, count, SEMICOLON))) {
+                // Further variable of "Type a = 1, b = 2;"
+                flags[i] |= DECLARATOR | REPEATS_TYPE;
+                typeStarts[i] = typeStart;
+                typeEnds[i] = typeEnd;
+                if (isOperator(i + 1, count, ASSIGN)) {
+                    flags[i + 1] |= INITIALIZER;
+                }
+            } else {
+                flags[i] |= NAME;
+            }
+        }
+    }
+
+    /**
+     * @return First token of the type that ends at token end: a possibly qualified name with type arguments
+     * and array brackets, a primitive type or "var"
+     */
+    private int typeStart(int end, int count) {
+        int j = end;
+        while (j >= 0) {
+            if (isOperator(j, count, RBRACKET) || isOperator(j, count, ELLIPSIS)) {
+                j -= isOperator(j, count, ELLIPSIS) ? 1 : 2;
+            } else if (tokens.getKind(j) == OPERATOR && (flags[j] & SKIP) != 0) {
+                int depth = 0;
+                for (; j >= 0 && (flags[j] & (SKIP | TYPE_ARGUMENT)) != 0; j--) {
+                    int code = tokens.getCode(j);
+                    if (tokens.getKind(j) == OPERATOR) {
+                        depth += code == GT ? 1 : code == SHR ? 2 : code == USHR ? 3 : code == LT ? -1 : 0;
+                    }
+                    if (depth == 0 && code == LT && tokens.getKind(j) == OPERATOR) {
+                        j--;
+                        break;
+                    }
+                }
+            } else if (isIdentifier(j, count) && isOperator(j - 1, count, DOT) && isIdentifier(j - 2, count)) {
+                j -= 2;
+            } else {
+                return j;
+            }
+        }
+        return 0;
+    }
+
+    /** @return true if token i ends a statement or opens a block, so the next token starts a statement */
+    private boolean isStatementStart(int i, int count) {
+        return i < 0 || isOperator(i, count, SEMICOLON) || isOperator(i, count, LBRACE) || isOperator(i, count, RBRACE)
+                || isOperator(i, count, ARROW) || isOperator(i, count, COLON);
+    }
+
+    /**
+     * @return true if the identifier at i starts a type: it is followed by a declared name, type arguments,
+     * array brackets, varargs or ".class", follows "instanceof", "extends" or "implements",
+     * or is a parenthesized cast, possibly qualified
+     */
+    private boolean isType(int i, int count) {
+        int last = i;
+        while (isOperator(last + 1, count, DOT) && isIdentifier(last + 2, count)) {
+            last += 2;
+        }
+        int next = last + 1;
+        if (isIdentifier(next, count) && code(next, count) != YIELD
+                || isOperator(next, count, LT) && (flags[next] & SKIP) != 0
+                || isOperator(next, count, LBRACKET) && isOperator(next + 1, count, RBRACKET)
+                || isOperator(next, count, ELLIPSIS)
+                || isOperator(next, count, DOUBLE_COLON)
+                || isOperator(next, count, DOT) && isKeyword(next + 1, count, CLASS)) {
+            return true;
+        }
+        if (isKeyword(i - 1, count, INSTANCEOF) || isKeyword(i - 1, count, EXTENDS) || isKeyword(i - 1, count, IMPLEMENTS)) {
+            return true;
+        }
+        if (isOperator(i - 1, count, LPAREN) && isOperator(next, count, RPAREN) && i >= 2) {
+            int before = i - 2;
+            int beforeKind = tokens.getKind(before);
+            int beforeCode = tokens.getCode(before);
+            if (beforeKind == IDENTIFIER || beforeKind == KEYWORD && CONTROL_KEYWORDS[beforeCode]
+                    || beforeKind == OPERATOR && (beforeCode == RPAREN || beforeCode == RBRACKET)) {
+                return false;
+            }
+            int after = next + 1;
+            if (after >= count) {
+                return false;
+            }
+            int afterKind = tokens.getKind(after);
+            int afterCode = tokens.getCode(after);
+            return afterKind == IDENTIFIER || afterKind == LITERAL
+                    || afterKind == KEYWORD && (afterCode == THIS || afterCode == NEW || afterCode == SUPER)
+                    || afterKind == OPERATOR && (afterCode == LPAREN || afterCode == NOT || afterCode == TILDE);
+        }
+        return false;
+    }
+
+    /**
+     * The names in "(a, b) -&gt;" and "(Type a) -&gt;" are lambda parameters, counted once.
+     */
+    private void markLambdaParameters(int arrow, int count) {
+        if (!isOperator(arrow - 1, count, RPAREN)) {
+            return;
+        }
+        int depth = 0;
+        for (int j = arrow - 1; j >= 0; j--) {
+            if (isOperator(j, count, RPAREN)) {
+                depth++;
+            } else if (isOperator(j, count, LPAREN) && --depth == 0) {
+                return;
+            } else if (depth == 1 && tokens.getKind(j) == IDENTIFIER && (flags[j] & NAME) != 0
+                    && (isOperator(j + 1, count, COMMA) || isOperator(j + 1, count, RPAREN))) {
+                flags[j] = flags[j] & ~NAME | ONCE;
+            }
+        }
+    }
+
+    /**
+     * Measure one method over its token range, applying the counting rules of the AST visitor.
+     */
+    private MethodInfo measure(int method, int count) {
+        int start = methodStarts[method];
+        int end = Math.min(methodEnds[method], count - 1);
+        int symbols = tokens.getSymbolCount();
+        if (symbolStamps.length < symbols) {
+            symbolStamps = new int[Math.max(symbols, symbolStamps.length * 2)];
+        }
+        stamp++;
+        if (stamp == 0) {
+            Arrays.fill(operatorStamps, 0);
+            Arrays.fill(symbolStamps, 0);
+            stamp = 1;
+        }
+        int totalOperators = 0;
+        int totalOperands = 0;
+        int distinctOperators = 0;
+        int distinctOperands = 0;
+        int decisionPoints = 0;
+        for (int i = start; i <= end; i++) {
+            int f = flags[i];
+            if ((f & SKIP) != 0) {
+                continue;
+            }
+            int kind = tokens.getKind(i);
+            int code = tokens.getCode(i);
+            int operator = -1;
+            if (kind == IDENTIFIER || kind == LITERAL) {
+                int occurrences = (f & (NAME | DECLARATOR)) != 0 ? 2 : 1;
+                totalOperands += occurrences;
+                if (symbolStamps[code] != stamp) {
+                    symbolStamps[code] = stamp;
+                    distinctOperands++;
+                }
+                if ((f & REPEATS_TYPE) != 0) {
+                    for (int t = typeStarts[i]; t <= typeEnds[i]; t++) {
+                        if (tokens.getKind(t) == IDENTIFIER && (flags[t] & SKIP) == 0) {
+                            totalOperands++;
+                        }
+                    }
+                }
+                if ((f & CALL) != 0) {
+                    operator = CALL_ID;
+                }
+            } else if (kind == OPERATOR) {
+                if ((f & INITIALIZER) == 0) {
+                    operator = OPERATOR_IDS[code];
+                }
+            } else if ((f & NOT_COUNTED) == 0) {
+                if ((f & DEFAULT_LABEL) != 0) {
+                    code = CASE;
+                }
+                operator = KEYWORD_IDS[code];
+                if (DECISIONS[code]) {
+                    decisionPoints++;
+                }
+            }
+            if (operator >= 0) {
+                totalOperators++;
+                if (operatorStamps[operator] != stamp) {
+                    operatorStamps[operator] = stamp;
+                    distinctOperators++;
+                }
+            }
+        }
+        int loc = tokens.getEndLine(end) - tokens.getLine(start) + 1;
+        MethodMetrics metrics = new MethodMetrics(loc, decisionPoints + 1, totalOperators, totalOperands, distinctOperators, distinctOperands);
+        double halstead = metrics.halsteadVolume();
+        double commentRatio = commentRatio(start, end, loc);
+        double mi = calculator.score(halstead, metrics.cyclomaticComplexity, loc, commentRatio);
+        return new MethodInfo(tokens.getSymbolText(methodNames[method]), halstead, metrics.cyclomaticComplexity, loc,
+                mi, commentRatio);
+    }
+
+    /**
+     * Comment lines inside the method plus its leading comment, the closest one before its first token
+     * unless that comment trails the previous token's line, over all lines of both.
+     */
+    private double commentRatio(int start, int end, int loc) {
+        int comments = tokens.getCommentCount();
+        int low = 0;
+        int high = comments;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (tokens.getCommentNextToken(mid) < start) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        int lines = loc;
+        int commentLines = 0;
+        int c = low;
+        int leading = -1;
+        while (c < comments && tokens.getCommentNextToken(c) == start) {
+            leading = c++;
+        }
+        if (leading >= 0 && (start == 0 || tokens.getCommentLine(leading) > tokens.getEndLine(start - 1))) {
+            int leadingLines = tokens.getCommentEndLine(leading) - tokens.getCommentLine(leading) + 1;
+            lines += leadingLines;
+            commentLines += leadingLines;
+        }
+        int lastLine = 0;
+        for (; c < comments && tokens.getCommentNextToken(c) <= end; c++) {
+            int first = Math.max(tokens.getCommentLine(c), lastLine + 1);
+            int last = tokens.getCommentEndLine(c);
+            if (last >= first) {
+                commentLines += last - first + 1;
+                lastLine = last;
+            }
+        }
+        return Math.min(1, (double) commentLines / lines);
+    }
+
+    /**
+     * Name within the package of a type declared at the current brace: member types are prefixed with their
+     * enclosing type, like the AST's fully qualified names; local types and types in anonymous bodies are not.
+     */
+    private String typeName(int name) {
+        String outer = braceDepth > 0 ? braceTypeNames[braceDepth - 1] : null;
+        return outer == null ? tokens.getSymbolText(name) : outer + "." + tokens.getSymbolText(name);
+    }
+
+    private void pushBrace(int kind, int ref, int name, String typeName) {
+        if (braceDepth == braceKinds.length) {
+            int capacity = braceDepth * 2;
+            braceKinds = Arrays.copyOf(braceKinds, capacity);
+            braceRefs = Arrays.copyOf(braceRefs, capacity);
+            braceNames = Arrays.copyOf(braceNames, capacity);
+            braceTypeNames = Arrays.copyOf(braceTypeNames, capacity);
+            braceParens = Arrays.copyOf(braceParens, capacity);
+            enumMembers = Arrays.copyOf(enumMembers, capacity);
+            enumConstantsEnds = Arrays.copyOf(enumConstantsEnds, capacity);
+        }
+        braceKinds[braceDepth] = kind;
+        braceRefs[braceDepth] = ref;
+        braceNames[braceDepth] = name;
+        braceTypeNames[braceDepth] = typeName;
+        braceParens[braceDepth] = parenDepth;
+        enumMembers[braceDepth] = kind == ENUM_CONSTANTS ? memberCount : -1;
+        enumConstantsEnds[braceDepth] = -1;
+        braceDepth++;
+    }
+
+    private void pushParen(int kind, int opener) {
+        if (parenDepth == parenKinds.length) {
+            int capacity = parenDepth * 2;
+            parenKinds = Arrays.copyOf(parenKinds, capacity);
+            parenOpeners = Arrays.copyOf(parenOpeners, capacity);
+            parenSemicolons = Arrays.copyOf(parenSemicolons, capacity);
+        }
+        parenKinds[parenDepth] = kind;
+        parenOpeners[parenDepth] = opener;
+        parenSemicolons[parenDepth] = false;
+        parenDepth++;
+    }
+
+    /**
+     * The AST lists an enum's members before its constants, so move the methods found in constant bodies,
+     * members [from, constantsEnd), behind the methods of the enum body that follow them.
+     */
+    private void moveConstantMethodsLast(int from, int constantsEnd) {
+        int constants = constantsEnd - from;
+        if (constants == 0 || constantsEnd == memberCount) {
+            return;
+        }
+        int[] classes = Arrays.copyOfRange(memberClasses, from, constantsEnd);
+        int[] methods = Arrays.copyOfRange(memberMethods, from, constantsEnd);
+        System.arraycopy(memberClasses, constantsEnd, memberClasses, from, memberCount - constantsEnd);
+        System.arraycopy(memberMethods, constantsEnd, memberMethods, from, memberCount - constantsEnd);
+        System.arraycopy(classes, 0, memberClasses, memberCount - constants, constants);
+        System.arraycopy(methods, 0, memberMethods, memberCount - constants, constants);
+    }
+
+    private void addClass(String name) {
+        if (classCount == classNames.length) {
+            classNames = Arrays.copyOf(classNames, classCount * 2);
+        }
+        if (openClassCount == openClasses.length) {
+            openClasses = Arrays.copyOf(openClasses, openClassCount * 2);
+        }
+        classNames[classCount] = name;
+        openClasses[openClassCount++] = classCount;
+        classCount++;
+    }
+
+    /**
+     * Add a method and list it under every open class, outermost first.
+     */
+    private int addMethod(int start, int name) {
+        if (methodCount == methodStarts.length) {
+            int capacity = methodCount * 2;
+            methodStarts = Arrays.copyOf(methodStarts, capacity);
+            methodEnds = Arrays.copyOf(methodEnds, capacity);
+            methodNames = Arrays.copyOf(methodNames, capacity);
+        }
+        methodStarts[methodCount] = start;
+        methodEnds[methodCount] = Integer.MAX_VALUE;
+        methodNames[methodCount] = name;
+        for (int c = 0; c < openClassCount; c++) {
+            if (memberCount == memberClasses.length) {
+                memberClasses = Arrays.copyOf(memberClasses, memberCount * 2);
+                memberMethods = Arrays.copyOf(memberMethods, memberCount * 2);
+            }
+            memberClasses[memberCount] = openClasses[c];
+            memberMethods[memberCount] = methodCount;
+            memberCount++;
+        }
+        return methodCount++;
+    }
+}
@@ -0,0 +1,217 @@
+package com.mindex.cache;
+
+import com.mindex.model.FileResult;
+import com.mindex.model.MethodInfo;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Persistent on-disk cache of per-file analysis results, keyed by file path and content hash.
+ * Unchanged files are served from the cache without parsing; files not seen during a run
+ * are dropped when the cache is saved.
+ * <p>
+ * The cache is a single binary file that is loaded fully into memory. It is written to a
+ * temporary file and atomically renamed into place, so concurrent jobs sharing a cache file
+ * always read a complete file (the last writer wins). A cache written by a different format
+ * or metrics version, or failing its checksum, is ignored.
+ */
+public class AnalysisCache {
+    private static final int MAGIC = 0x4A4D4943; // "JMIC"
+    private static final int FORMAT_VERSION = 2;
+    /** Bump whenever MetricCalculator, MaintainabilityIndexCalculator or the class names of results change */
+    private static final int METRICS_VERSION = 2;
+    private static final String HASH_ALGORITHM = "SHA-256";
+
+    private final Path cacheFile;
+    /** Entries loaded from disk */
+    private final Map<String, Entry> loaded;
+    /** Entries used or added during this run; these are the ones saved */
+    private final Map<String, Entry> current = new ConcurrentHashMap<>();
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+
+    private AnalysisCache(Path cacheFile, Map<String, Entry> loaded) {
+        this.cacheFile = cacheFile;
+        this.loaded = loaded;
+    }
+
+    /**
+     * Load the cache from disk. A missing, outdated or corrupt cache file yields an empty cache.
+     * @param cacheFile Path of the cache file
+     * @return AnalysisCache backed by the given file
+     */
+    public static AnalysisCache load(Path cacheFile) {
+        Map<String, Entry> entries = new ConcurrentHashMap<>();
+        if (Files.isRegularFile(cacheFile)) {
+            try {
+                entries = read(cacheFile);
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Ignoring unreadable cache " + cacheFile + ": " + e);
+            }
+        }
+        return new AnalysisCache(cacheFile, entries);
+    }
+
+    /**
+     * Hash file contents for use as a cache key.
+     * @param content File contents
+     * @return Content hash
+     */
+    public static byte[] hash(byte[] content) {
+        try {
+            return MessageDigest.getInstance(HASH_ALGORITHM).digest(content);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(HASH_ALGORITHM + " not available", e);
+        }
+    }
+
+    /**
+     * Look up the cached result of a file. A hit keeps the entry for the next save.
+     * @param key File path relative to the analyzed project
+     * @param hash Content hash of the file
+     * @return Cached FileResult for the given path, or null if absent or the content changed
+     */
+    public FileResult get(String key, byte[] hash) {
+        Entry entry = loaded.get(key);
+        if (entry == null || !Arrays.equals(entry.hash, hash)) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        current.put(key, entry);
+        return entry.result;
+    }
+
+    /**
+     * Store the result of a freshly analyzed file.
+     * @param key File path relative to the analyzed project
+     * @param hash Content hash of the file
+     * @param result Analysis result of the file
+     */
+    public void put(String key, byte[] hash, FileResult result) {
+        current.put(key, new Entry(hash, result));
+    }
+
+    /** @return Number of files served from the cache in this run */
+    public int getHits() {
+        return hits.get();
+    }
+
+    /** @return Number of files that had to be analyzed in this run */
+    public int getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Write all entries used or added in this run, evicting files that were not seen.
+     * @throws IOException if the cache file cannot be written
+     */
+    public void save() throws IOException {
+        Path dir = cacheFile.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path tmp = Files.createTempFile(dir, cacheFile.getFileName().toString(), ".tmp");
+        try {
+            write(tmp, new TreeMap<>(current));
+            Files.move(tmp, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static Map<String, Entry> read(Path file) throws IOException {
+        CRC32 crc = new CRC32();
+        try (InputStream raw = new BufferedInputStream(Files.newInputStream(file), 1 << 16)) {
+            DataInputStream in = new DataInputStream(new CheckedInputStream(raw, crc));
+            Map<String, Entry> entries = new ConcurrentHashMap<>();
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION || in.readInt() != METRICS_VERSION) {
+                return entries;
+            }
+            int fileCount = in.readInt();
+            for (int f = 0; f < fileCount; f++) {
+                String key = in.readUTF();
+                byte[] hash = new byte[in.readUnsignedByte()];
+                in.readFully(hash);
+                FileResult result = new FileResult(key, in.readUTF());
+                int classCount = in.readInt();
+                for (int c = 0; c < classCount; c++) {
+                    String className = in.readUTF();
+                    int methodCount = in.readInt();
+                    ArrayList<MethodInfo> methods = new ArrayList<>(methodCount);
+                    for (int m = 0; m < methodCount; m++) {
+                        methods.add(new MethodInfo(in.readUTF(), in.readDouble(), in.readInt(), in.readInt(), in.readDouble(), in.readDouble()));
+                    }
+                    result.classMethods.put(className, methods);
+                }
+                entries.put(key, new Entry(hash, result));
+            }
+            long expected = crc.getValue();
+            if (new DataInputStream(raw).readLong() != expected) {
+                throw new IOException("checksum mismatch");
+            }
+            return entries;
+        }
+    }
+
+    private static void write(Path file, Map<String, Entry> entries) throws IOException {
+        CRC32 crc = new CRC32();
+        try (OutputStream raw = new BufferedOutputStream(Files.newOutputStream(file), 1 << 16)) {
+            DataOutputStream out = new DataOutputStream(new CheckedOutputStream(raw, crc));
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(METRICS_VERSION);
+            out.writeInt(entries.size());
+            for (Map.Entry<String, Entry> e : entries.entrySet()) {
+                Entry entry = e.getValue();
+                out.writeUTF(e.getKey());
+                out.writeByte(entry.hash.length);
+                out.write(entry.hash);
+                out.writeUTF(entry.result.packageName);
+                out.writeInt(entry.result.classMethods.size());
+                for (Map.Entry<String, ArrayList<MethodInfo>> c : entry.result.classMethods.entrySet()) {
+                    out.writeUTF(c.getKey());
+                    out.writeInt(c.getValue().size());
+                    for (MethodInfo m : c.getValue()) {
+                        out.writeUTF(m.name);
+                        out.writeDouble(m.halsteadVolume);
+                        out.writeInt(m.cyclomaticComplexity);
+                        out.writeInt(m.loc);
+                        out.writeDouble(m.maintainabilityIndex);
+                        out.writeDouble(m.commentRatio);
+                    }
+                }
+            }
+            out.flush();
+            new DataOutputStream(raw).writeLong(crc.getValue());
+        }
+    }
+
+    /** A cached file result together with the content hash it was computed from */
+    private static class Entry {
+        final byte[] hash;
+        final FileResult result;
+
+        Entry(byte[] hash, FileResult result) {
+            this.hash = hash;
+            this.result = result;
+        }
+    }
+}
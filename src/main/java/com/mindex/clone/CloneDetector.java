@@ -0,0 +1,169 @@
+package com.mindex.clone;
+
+import com.mindex.analyzer.ResultSink;
+import com.mindex.model.CloneGroup;
+import com.mindex.model.FileResult;
+import com.mindex.model.MethodFingerprint;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sink that collects method fingerprints while results arrive and groups copy-pasted methods at the end.
+ * Exact clones share a hash bucket of their whole normalized token sequence. Near clones are found by
+ * locality-sensitive hashing: each signature is cut into {@link #BANDS} bands, and methods whose band hashes
+ * collide become candidates, which are kept if their estimated similarity reaches the threshold. Each bucket
+ * keeps up to {@link #REPRESENTATIVES} methods of different groups, and each method is only compared with
+ * those, so the cost grows linearly with the number of methods rather than with the number of pairs.
+ */
+public class CloneDetector implements ResultSink {
+    /** Default lowest estimated similarity of the token shingles of two near clones */
+    public static final double DEFAULT_SIMILARITY = 0.8;
+    /** Default minimum number of tokens of a method to be considered; skips accessors and other one-liners */
+    public static final int DEFAULT_MIN_TOKENS = 50;
+    /**
+     * Number of LSH bands. With 4 rows each, two signatures that agree on 80% of their entries share a bucket
+     * in some band with probability 1 - (1 - 0.8^4)^8 ≈ 0.985. That is the chance of becoming candidates; the
+     * pair is only grouped if one of them is among the other's bucket representatives, and a true similarity
+     * of 0.8 gives an estimate below the threshold about half of the time.
+     */
+    static final int BANDS = 8;
+    /** Methods of different groups kept per band bucket to compare candidates with; bounds the cost per method */
+    static final int REPRESENTATIVES = 4;
+    private static final int ROWS = Fingerprinter.SIGNATURE_SIZE / BANDS;
+    private static final Comparator<CloneGroup> PRIORITY = Comparator
+            .comparingInt((CloneGroup g) -> -g.duplicatedLoc)
+            .thenComparingDouble(g -> g.averageMI);
+
+    private final double similarity;
+    private final int minTokens;
+    private final List<MethodFingerprint> methods = new ArrayList<>();
+
+    /**
+     * Detector with the default similarity threshold and minimum method size.
+     */
+    public CloneDetector() {
+        this(DEFAULT_SIMILARITY, DEFAULT_MIN_TOKENS);
+    }
+
+    /**
+     * @param similarity Lowest estimated similarity (0–1) of the token shingles of two near clones
+     * @param minTokens Minimum number of tokens of a method to be considered
+     */
+    public CloneDetector(double similarity, int minTokens) {
+        this.similarity = similarity;
+        this.minTokens = minTokens;
+    }
+
+    @Override
+    public void accept(FileResult fileResult) {
+        for (MethodFingerprint fingerprint : fileResult.fingerprints) {
+            if (fingerprint.tokens >= minTokens) {
+                methods.add(fingerprint);
+            }
+        }
+    }
+
+    /** @return Number of methods large enough to be compared */
+    public int getMethodCount() {
+        return methods.size();
+    }
+
+    /**
+     * Group the collected methods into clones.
+     * @return Groups of at least two methods, most duplicated lines first, then lowest average MI first
+     */
+    public List<CloneGroup> findClones() {
+        int[] parent = new int[methods.size()];
+        for (int i = 0; i < parent.length; i++) {
+            parent[i] = i;
+        }
+        Map<Long, Integer> firstInBucket = new HashMap<>();
+        for (int i = 0; i < methods.size(); i++) {
+            Integer first = firstInBucket.putIfAbsent(methods.get(i).hash, i);
+            if (first != null) {
+                union(parent, first, i);
+            }
+        }
+        Map<Long, List<Integer>> representatives = new HashMap<>();
+        for (int band = 0; band < BANDS; band++) {
+            representatives.clear();
+            for (int i = 0; i < methods.size(); i++) {
+                MethodFingerprint method = methods.get(i);
+                List<Integer> bucket = representatives.computeIfAbsent(bandHash(method.signature, band), h -> new ArrayList<>(1));
+                boolean matched = false;
+                for (int other : bucket) {
+                    if (find(parent, other) == find(parent, i)) {
+                        matched = true;
+                    } else if (methods.get(other).similarity(method) >= similarity) {
+                        union(parent, other, i);
+                        matched = true;
+                    }
+                }
+                // A method that joined none of the bucket's groups may start a new one
+                if (!matched && bucket.size() < REPRESENTATIVES) {
+                    bucket.add(i);
+                }
+            }
+        }
+        Map<Integer, List<MethodFingerprint>> members = new LinkedHashMap<>();
+        for (int i = 0; i < methods.size(); i++) {
+            members.computeIfAbsent(find(parent, i), root -> new ArrayList<>()).add(methods.get(i));
+        }
+        List<CloneGroup> groups = new ArrayList<>();
+        for (List<MethodFingerprint> group : members.values()) {
+            if (group.size() > 1) {
+                groups.add(toGroup(group));
+            }
+        }
+        // Stable sort: ties stay in file order
+        groups.sort(PRIORITY);
+        return groups;
+    }
+
+    private static CloneGroup toGroup(List<MethodFingerprint> group) {
+        // Exact copies have the same signature, so the lowest pairwise similarity only depends on one member per hash
+        Map<Long, MethodFingerprint> distinct = new LinkedHashMap<>();
+        for (MethodFingerprint member : group) {
+            distinct.putIfAbsent(member.hash, member);
+        }
+        List<MethodFingerprint> variants = new ArrayList<>(distinct.values());
+        double lowest = 1;
+        for (int a = 0; a < variants.size(); a++) {
+            for (int b = a + 1; b < variants.size(); b++) {
+                lowest = Math.min(lowest, variants.get(a).similarity(variants.get(b)));
+            }
+        }
+        return new CloneGroup(variants.size() == 1, lowest, group);
+    }
+
+    private static long bandHash(int[] signature, int band) {
+        long h = 0;
+        for (int i = band * ROWS; i < (band + 1) * ROWS; i++) {
+            h = h * 0x9E3779B97F4A7C15L + signature[i];
+        }
+        return h;
+    }
+
+    private static int find(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    private static void union(int[] parent, int a, int b) {
+        int rootA = find(parent, a);
+        int rootB = find(parent, b);
+        // The earlier method becomes the root, so groups list their members in file order
+        if (rootA < rootB) {
+            parent[rootB] = rootA;
+        } else if (rootB < rootA) {
+            parent[rootA] = rootB;
+        }
+    }
+}
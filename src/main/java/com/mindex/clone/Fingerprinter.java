@@ -0,0 +1,120 @@
+package com.mindex.clone;
+
+import com.github.javaparser.JavaToken;
+import com.github.javaparser.TokenRange;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.mindex.model.MethodFingerprint;
+import com.mindex.model.MethodInfo;
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Computes the token fingerprint of a method for clone detection.
+ * The method's tokens are normalized to their kinds, with every identifier and every literal mapped to one
+ * code each, so renamed copies look the same. The whole sequence is hashed for exact clones; for near clones,
+ * each run of {@link #SHINGLE_LENGTH} tokens is hashed with a rolling hash and the set of these shingles is
+ * summarized by a MinHash signature of {@link #SIGNATURE_SIZE} entries.
+ */
+public class Fingerprinter {
+    /** Number of consecutive tokens hashed together */
+    public static final int SHINGLE_LENGTH = 5;
+    /** Number of MinHash functions, i.e. entries of each signature */
+    public static final int SIGNATURE_SIZE = 32;
+
+    private static final int IDENTIFIER = -1;
+    private static final int LITERAL = -2;
+    private static final long BASE = 0x100000001B3L;
+    private static final long BASE_POWER;
+    private static final long[] SEEDS = new long[SIGNATURE_SIZE];
+
+    static {
+        long power = 1;
+        for (int i = 0; i < SHINGLE_LENGTH; i++) {
+            power *= BASE;
+        }
+        BASE_POWER = power;
+        long seed = 0x2545F4914F6CDD1DL;
+        for (int i = 0; i < SIGNATURE_SIZE; i++) {
+            seed += 0x9E3779B97F4A7C15L;
+            SEEDS[i] = mix(seed);
+        }
+    }
+
+    /**
+     * Fingerprint a method from its original tokens.
+     * Nodes without source positions (e.g. built programmatically) have no fingerprint.
+     * @param path Path of the source file
+     * @param className Fully qualified name of the innermost class declaring the method
+     * @param method JavaParser MethodDeclaration node
+     * @param info Metrics of the method
+     * @return Fingerprint of the method, or null if it has no tokens
+     */
+    public static MethodFingerprint fingerprint(String path, String className, MethodDeclaration method, MethodInfo info) {
+        Optional<TokenRange> range = method.getTokenRange();
+        if (!range.isPresent() || !method.getRange().isPresent()) {
+            return null;
+        }
+        int[] codes = new int[64];
+        int count = 0;
+        JavaToken token = range.get().getBegin();
+        JavaToken end = range.get().getEnd();
+        while (token != null) {
+            JavaToken.Category category = token.getCategory();
+            if (!category.isWhitespaceOrComment()) {
+                if (count == codes.length) {
+                    codes = Arrays.copyOf(codes, count * 2);
+                }
+                codes[count++] = category == JavaToken.Category.IDENTIFIER ? IDENTIFIER
+                        : category == JavaToken.Category.LITERAL ? LITERAL : token.getKind();
+            }
+            if (token == end) {
+                break;
+            }
+            token = token.getNextToken().orElse(null);
+        }
+        int line = method.getRange().get().begin.line;
+        return new MethodFingerprint(path, className, info, line, count, hash(codes, count), signature(codes, count));
+    }
+
+    private static long hash(int[] codes, int count) {
+        long h = count;
+        for (int i = 0; i < count; i++) {
+            h = (h + codes[i]) * 0x9E3779B97F4A7C15L;
+        }
+        return mix(h);
+    }
+
+    /**
+     * MinHash signature of the set of shingles; a sequence shorter than a shingle is a single shingle.
+     */
+    private static int[] signature(int[] codes, int count) {
+        int[] signature = new int[SIGNATURE_SIZE];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        long rolling = 0;
+        for (int i = 0; i < count; i++) {
+            rolling = rolling * BASE + codes[i];
+            if (i >= SHINGLE_LENGTH) {
+                rolling -= codes[i - SHINGLE_LENGTH] * BASE_POWER;
+            }
+            if (i >= SHINGLE_LENGTH - 1 || i == count - 1) {
+                long shingle = mix(rolling);
+                for (int j = 0; j < SIGNATURE_SIZE; j++) {
+                    signature[j] = Math.min(signature[j], (int) (mix(shingle ^ SEEDS[j]) >>> 33));
+                }
+            }
+        }
+        return signature;
+    }
+
+    /**
+     * 64-bit finalizer of MurmurHash3: spreads every input bit over the whole result.
+     */
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB93FE1A85EC3L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
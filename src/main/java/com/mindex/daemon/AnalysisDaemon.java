@@ -0,0 +1,369 @@
+package com.mindex.daemon;
+
+import com.mindex.analyzer.FileDiscovery;
+import com.mindex.model.FileResult;
+import com.mindex.model.MethodInfo;
+import com.mindex.model.RunningAverage;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Long-running analysis daemon. Keeps a warm analyzer and the in-memory results of one or more
+ * project roots, re-analyzes only the files touched on disk (via WatchService), and answers
+ * MI queries over HTTP on the loopback interface:
+ * <ul>
+ *   <li>{@code GET /projects} - analyzed roots</li>
+ *   <li>{@code GET /project[?root=]} - project average MI</li>
+ *   <li>{@code GET /package?name=[&root=]} - package average MI</li>
+ *   <li>{@code GET /class?name=[&root=]} - methods and average MI of all classes with a simple name</li>
+ *   <li>{@code GET /file?path=[&root=]} - methods of a file (path absolute or relative to the root)</li>
+ *   <li>{@code POST /shutdown} - stop the daemon</li>
+ * </ul>
+ * The root parameter may be omitted when the daemon serves a single project.
+ */
+public class AnalysisDaemon {
+    /** Port used when none is given */
+    public static final int DEFAULT_PORT = 7331;
+    /** Quiet period used to batch the burst of events an editor or VCS produces for one change */
+    private static final long DEBOUNCE_MILLIS = 100;
+
+    private final FileDiscovery discovery;
+    private final List<ProjectIndex> projects;
+    private final int port;
+    private final Map<WatchKey, ProjectIndex> watchKeys = new ConcurrentHashMap<>();
+    private WatchService watcher;
+    private HttpServer server;
+
+    /**
+     * Create a daemon for the given projects.
+     * @param discovery File selection used by the analyzer, also used to pick the directories to watch
+     * @param projects Project indexes to serve
+     * @param port Loopback port to listen on
+     */
+    public AnalysisDaemon(FileDiscovery discovery, List<ProjectIndex> projects, int port) {
+        this.discovery = discovery;
+        this.projects = projects;
+        this.port = port;
+    }
+
+    /**
+     * Analyze all projects, start watching them and start the HTTP endpoint.
+     * @throws IOException if a project cannot be read or the port cannot be bound
+     */
+    public void start() throws IOException {
+        watcher = Paths.get("").getFileSystem().newWatchService();
+        for (ProjectIndex project : projects) {
+            long start = System.nanoTime();
+            project.rescan();
+            registerDirectories(project);
+            System.out.printf("Indexed %s: %d files in %d ms\n", project.getRoot(), project.getFileCount(), (System.nanoTime() - start) / 1_000_000);
+        }
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/projects", exchange -> handle(exchange, this::projectsQuery));
+        server.createContext("/project", exchange -> handle(exchange, this::projectQuery));
+        server.createContext("/package", exchange -> handle(exchange, this::packageQuery));
+        server.createContext("/class", exchange -> handle(exchange, this::classQuery));
+        server.createContext("/file", exchange -> handle(exchange, this::fileQuery));
+        server.createContext("/shutdown", exchange -> {
+            // A GET can be sent by any web page (e.g. an image URL), so only POST stops the daemon
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "POST");
+                respond(exchange, 405, "{\"error\":\"use POST to shut down\"}");
+                return;
+            }
+            respond(exchange, 200, "{\"status\":\"stopping\"}");
+            stop();
+        });
+        server.setExecutor(Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "mindex-daemon-http");
+            thread.setDaemon(true);
+            return thread;
+        }));
+        server.start();
+        System.out.println("J-MIndex daemon listening on http://127.0.0.1:" + port);
+    }
+
+    /**
+     * Process file system events on the calling thread until the daemon is stopped.
+     */
+    public void watch() {
+        try {
+            while (true) {
+                WatchKey key = watcher.take();
+                Map<ProjectIndex, Set<Path>> touched = new LinkedHashMap<>();
+                Set<ProjectIndex> structural = new LinkedHashSet<>();
+                while (key != null) {
+                    collectEvents(key, touched, structural);
+                    key = watcher.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS);
+                }
+                applyChanges(touched, structural);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // stopped
+        }
+    }
+
+    /**
+     * Stop the HTTP endpoint and the file watcher.
+     */
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+        }
+        try {
+            if (watcher != null) {
+                watcher.close();
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to close file watcher: " + e.getMessage());
+        }
+    }
+
+    private void registerDirectories(ProjectIndex project) throws IOException {
+        for (Path dir : discovery.discoverDirectories(project.getRoot())) {
+            WatchKey key = dir.register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+            watchKeys.put(key, project);
+        }
+    }
+
+    /**
+     * Sort the events of one key into modified Java files and structural changes (created or deleted
+     * files and directories, lost events) that require re-discovery.
+     */
+    private void collectEvents(WatchKey key, Map<ProjectIndex, Set<Path>> touched, Set<ProjectIndex> structural) {
+        ProjectIndex project = watchKeys.get(key);
+        Path dir = (Path) key.watchable();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (project == null) {
+                continue;
+            }
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                structural.add(project);
+                continue;
+            }
+            Path path = dir.resolve((Path) event.context());
+            boolean javaFile = path.getFileName().toString().endsWith(".java");
+            if (event.kind() == StandardWatchEventKinds.ENTRY_MODIFY) {
+                if (javaFile) {
+                    touched.computeIfAbsent(project, k -> new LinkedHashSet<>()).add(path);
+                }
+            } else if (javaFile || event.kind() == StandardWatchEventKinds.ENTRY_DELETE || Files.isDirectory(path)) {
+                structural.add(project);
+            }
+        }
+        if (!key.reset()) {
+            watchKeys.remove(key);
+        }
+    }
+
+    private void applyChanges(Map<ProjectIndex, Set<Path>> touched, Set<ProjectIndex> structural) {
+        for (ProjectIndex project : structural) {
+            try {
+                long start = System.nanoTime();
+                int analyzed = project.rescan();
+                registerDirectories(project);
+                System.out.printf("Rescanned %s: %d files re-analyzed in %d ms\n", project.getRoot(), analyzed, (System.nanoTime() - start) / 1_000_000);
+            } catch (IOException e) {
+                System.err.println("Failed to rescan " + project.getRoot() + ": " + e.getMessage());
+            }
+        }
+        for (Map.Entry<ProjectIndex, Set<Path>> entry : touched.entrySet()) {
+            if (structural.contains(entry.getKey())) {
+                continue; // the rescan already picked up modified files
+            }
+            for (Path file : entry.getValue()) {
+                long start = System.nanoTime();
+                if (entry.getKey().refreshIfKnown(file)) {
+                    System.out.printf("Re-analyzed %s in %d ms\n", file, (System.nanoTime() - start) / 1_000_000);
+                }
+            }
+        }
+    }
+
+    private String projectsQuery(Map<String, String> params) {
+        List<String> roots = new ArrayList<>();
+        for (ProjectIndex project : projects) {
+            roots.add(quote(project.getRoot().toString()));
+        }
+        return "{\"projects\":[" + String.join(",", roots) + "]}";
+    }
+
+    private String projectQuery(Map<String, String> params) {
+        ProjectIndex project = project(params);
+        RunningAverage mi = project.getProjectMI();
+        return "{\"root\":" + quote(project.getRoot().toString()) + ",\"files\":" + project.getFileCount() + "," + summary(mi) + "}";
+    }
+
+    private String packageQuery(Map<String, String> params) {
+        String name = require(params, "name");
+        return "{\"package\":" + quote(name) + "," + summary(project(params).getPackageMI(name)) + "}";
+    }
+
+    private String classQuery(Map<String, String> params) {
+        String name = require(params, "name");
+        List<MethodInfo> methods = project(params).getClassMethods(name);
+        if (methods.isEmpty()) {
+            throw new QueryException(404, "class not found: " + name);
+        }
+        RunningAverage mi = new RunningAverage();
+        methods.forEach(m -> mi.add(m.maintainabilityIndex));
+        return "{\"class\":" + quote(name) + "," + summary(mi) + ",\"methodResults\":" + methodsJson(methods) + "}";
+    }
+
+    private String fileQuery(Map<String, String> params) {
+        String path = require(params, "path");
+        FileResult result = project(params).getFile(path);
+        if (result == null) {
+            throw new QueryException(404, "file not analyzed: " + path);
+        }
+        StringBuilder json = new StringBuilder();
+        json.append("{\"file\":").append(quote(result.path)).append(",\"package\":").append(quote(result.packageName)).append(",\"classes\":[");
+        boolean first = true;
+        for (Map.Entry<String, ArrayList<MethodInfo>> entry : result.classMethods.entrySet()) {
+            RunningAverage mi = new RunningAverage();
+            entry.getValue().forEach(m -> mi.add(m.maintainabilityIndex));
+            json.append(first ? "" : ",").append("{\"name\":").append(quote(entry.getKey())).append(",").append(summary(mi))
+                    .append(",\"methodResults\":").append(methodsJson(entry.getValue())).append("}");
+            first = false;
+        }
+        return json.append("]}").toString();
+    }
+
+    private ProjectIndex project(Map<String, String> params) {
+        String root = params.get("root");
+        if (root == null) {
+            if (projects.size() == 1) {
+                return projects.get(0);
+            }
+            throw new QueryException(400, "root parameter required when serving several projects");
+        }
+        Path rootPath = Paths.get(root).toAbsolutePath().normalize();
+        for (ProjectIndex project : projects) {
+            if (project.getRoot().equals(rootPath)) {
+                return project;
+            }
+        }
+        throw new QueryException(404, "project not served: " + root);
+    }
+
+    private static String require(Map<String, String> params, String name) {
+        String value = params.get(name);
+        if (value == null || value.isEmpty()) {
+            throw new QueryException(400, "missing parameter: " + name);
+        }
+        return value;
+    }
+
+    private static String summary(RunningAverage mi) {
+        return "\"methods\":" + mi.count + ",\"avgMI\":" + number(mi.average());
+    }
+
+    private static String methodsJson(List<MethodInfo> methods) {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < methods.size(); i++) {
+            MethodInfo m = methods.get(i);
+            json.append(i == 0 ? "" : ",").append("{\"name\":").append(quote(m.name))
+                    .append(",\"mi\":").append(number(m.maintainabilityIndex))
+                    .append(",\"cc\":").append(m.cyclomaticComplexity)
+                    .append(",\"hv\":").append(number(m.halsteadVolume))
+                    .append(",\"loc\":").append(m.loc).append("}");
+        }
+        return json.append("]").toString();
+    }
+
+    private static String number(double value) {
+        return Double.isNaN(value) ? "null" : String.format(Locale.ROOT, "%.2f", value);
+    }
+
+    private static String quote(String value) {
+        StringBuilder json = new StringBuilder("\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        return json.append('"').toString();
+    }
+
+    private static void handle(HttpExchange exchange, Query query) throws IOException {
+        try {
+            respond(exchange, 200, query.answer(parseQuery(exchange.getRequestURI().getRawQuery())));
+        } catch (QueryException e) {
+            respond(exchange, e.status, "{\"error\":" + quote(e.getMessage()) + "}");
+        } catch (RuntimeException e) {
+            respond(exchange, 500, "{\"error\":" + quote(String.valueOf(e)) + "}");
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null) {
+            return params;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String name = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            params.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Query {
+        String answer(Map<String, String> params);
+    }
+
+    /** A query that cannot be answered, with the HTTP status to report */
+    private static class QueryException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        final int status;
+
+        QueryException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+}
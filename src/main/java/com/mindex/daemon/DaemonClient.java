@@ -0,0 +1,72 @@
+package com.mindex.daemon;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Thin client for a running {@link AnalysisDaemon}. It does not load the parser, so a query
+ * answers in the time of one local HTTP round trip.
+ */
+public class DaemonClient {
+    private final int port;
+
+    /**
+     * @param port Loopback port the daemon listens on
+     */
+    public DaemonClient(int port) {
+        this.port = port;
+    }
+
+    /**
+     * Send a query to the daemon.
+     * @param query Query in CLI form: "project", "projects", "package=&lt;name&gt;", "class=&lt;name&gt;" or "file=&lt;path&gt;"
+     * @param root Project root to query, or null if the daemon serves a single project
+     * @return JSON response of the daemon
+     * @throws IOException if the daemon is not reachable or rejects the query
+     */
+    public String query(String query, String root) throws IOException {
+        int eq = query.indexOf('=');
+        String kind = eq < 0 ? query : query.substring(0, eq);
+        StringBuilder url = new StringBuilder("http://127.0.0.1:").append(port).append('/').append(kind);
+        char separator = '?';
+        if (eq >= 0) {
+            String param = "file".equals(kind) ? "path" : "name";
+            url.append(separator).append(param).append('=').append(URLEncoder.encode(query.substring(eq + 1), StandardCharsets.UTF_8));
+            separator = '&';
+        }
+        if (root != null) {
+            url.append(separator).append("root=").append(URLEncoder.encode(root, StandardCharsets.UTF_8));
+        }
+        return get(url.toString());
+    }
+
+    /**
+     * Ask the daemon to stop.
+     * @throws IOException if the daemon is not reachable
+     */
+    public void shutdown() throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://127.0.0.1:" + port + "/shutdown").openConnection();
+        connection.setRequestMethod("POST");
+        connection.getResponseCode();
+        connection.disconnect();
+    }
+
+    private static String get(String url) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        try {
+            int status = connection.getResponseCode();
+            InputStream body = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+            String response = body == null ? "" : new String(body.readAllBytes(), StandardCharsets.UTF_8);
+            if (status >= 400) {
+                throw new IOException("HTTP " + status + " " + response);
+            }
+            return response;
+        } finally {
+            connection.disconnect();
+        }
+    }
+}
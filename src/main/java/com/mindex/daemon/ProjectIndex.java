@@ -0,0 +1,193 @@
+package com.mindex.daemon;
+
+import com.mindex.analyzer.JavaAnalyzer;
+import com.mindex.model.FileResult;
+import com.mindex.model.MethodInfo;
+import com.mindex.model.RunningAverage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-memory analysis results of one project root, kept up to date file by file.
+ * Updates come from a single watcher thread; queries may run concurrently on any thread.
+ */
+public class ProjectIndex {
+    private final Path root;
+    private final JavaAnalyzer analyzer;
+    /** Results by absolute file path; files that failed to parse are kept with a null result */
+    private final Map<Path, Entry> files = new ConcurrentSkipListMap<>();
+
+    /**
+     * Create an empty index for a project root.
+     * @param root Root directory of the project
+     * @param analyzer Warm analyzer used for all (re-)analysis
+     */
+    public ProjectIndex(Path root, JavaAnalyzer analyzer) {
+        this.root = root.toAbsolutePath().normalize();
+        this.analyzer = analyzer;
+    }
+
+    /** @return Absolute root directory of the project */
+    public Path getRoot() {
+        return root;
+    }
+
+    /**
+     * Re-discover the project and analyze every file that is new or changed since it was last analyzed;
+     * files that disappeared are removed. Called once at startup and whenever the tree structure changes.
+     * @return Number of files (re-)analyzed
+     * @throws IOException if the project cannot be walked
+     */
+    public int rescan() throws IOException {
+        List<Path> discovered = analyzer.discoverFiles(root);
+        Map<Path, Long> stale = new HashMap<>();
+        for (Path file : discovered) {
+            Entry entry = files.get(file);
+            long lastModified = lastModified(file);
+            if (entry == null || entry.lastModified != lastModified) {
+                stale.put(file, lastModified);
+            }
+        }
+        files.keySet().retainAll(new HashSet<>(discovered));
+        List<Path> toAnalyze = new ArrayList<>(stale.keySet());
+        Collections.sort(toAnalyze);
+        Set<Path> delivered = new HashSet<>();
+        analyzer.analyzeFiles(root, toAnalyze, result -> {
+            Path file = Paths.get(result.path);
+            delivered.add(file);
+            files.put(file, new Entry(result, stale.get(file)));
+        });
+        // Files that failed to parse are kept with a null result so they are not retried until they change
+        for (Path file : toAnalyze) {
+            if (!delivered.contains(file)) {
+                files.put(file, new Entry(null, stale.get(file)));
+            }
+        }
+        return toAnalyze.size();
+    }
+
+    /**
+     * Re-analyze a single file that is already part of the project, or drop it if it was deleted.
+     * @param file Absolute path of the file
+     * @return true if the file belongs to the project and was refreshed
+     */
+    public boolean refreshIfKnown(Path file) {
+        if (!files.containsKey(file)) {
+            return false;
+        }
+        refresh(file);
+        return true;
+    }
+
+    private void refresh(Path file) {
+        long lastModified = lastModified(file);
+        if (lastModified < 0) {
+            files.remove(file);
+            return;
+        }
+        files.put(file, new Entry(analyzer.analyzeFile(file), lastModified));
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    /** @return Number of files in the index */
+    public int getFileCount() {
+        return files.size();
+    }
+
+    /**
+     * @param path File path, absolute or relative to the project root
+     * @return Results of the file, or null if it is not part of the project or failed to parse
+     */
+    public FileResult getFile(String path) {
+        Path file = root.resolve(Paths.get(path)).normalize();
+        Entry entry = files.get(file);
+        return entry == null ? null : entry.result;
+    }
+
+    /**
+     * @param className Simple class name; all classes with this name are aggregated
+     * @return Methods of the class, in file order
+     */
+    public List<MethodInfo> getClassMethods(String className) {
+        List<MethodInfo> methods = new ArrayList<>();
+        for (FileResult result : results()) {
+            List<MethodInfo> classMethods = result.classMethods.get(className);
+            if (classMethods != null) {
+                methods.addAll(classMethods);
+            }
+        }
+        return methods;
+    }
+
+    /**
+     * @param packageName Fully qualified package name
+     * @return Running MI average over all methods of the package
+     */
+    public RunningAverage getPackageMI(String packageName) {
+        RunningAverage average = new RunningAverage();
+        for (FileResult result : results()) {
+            if (result.packageName.equals(packageName)) {
+                addAll(average, result.classMethods.values());
+            }
+        }
+        return average;
+    }
+
+    /**
+     * @return Running MI average over all methods of the project
+     */
+    public RunningAverage getProjectMI() {
+        RunningAverage average = new RunningAverage();
+        for (FileResult result : results()) {
+            addAll(average, result.classMethods.values());
+        }
+        return average;
+    }
+
+    private static void addAll(RunningAverage average, Collection<? extends List<MethodInfo>> methodLists) {
+        for (List<MethodInfo> methods : methodLists) {
+            for (MethodInfo m : methods) {
+                average.add(m.maintainabilityIndex);
+            }
+        }
+    }
+
+    private List<FileResult> results() {
+        List<FileResult> results = new ArrayList<>(files.size());
+        for (Entry entry : files.values()) {
+            if (entry.result != null) {
+                results.add(entry.result);
+            }
+        }
+        return results;
+    }
+
+    /** Result of a file together with the modification time it was computed from */
+    private static class Entry {
+        final FileResult result;
+        final long lastModified;
+
+        Entry(FileResult result, long lastModified) {
+            this.result = result;
+            this.lastModified = lastModified;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.mindex.export;
+
+import com.mindex.analyzer.AggregateCollector;
+import com.mindex.model.AggregateNode;
+import com.mindex.model.RankedMethod;
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * Exports the aggregate tree and the top-K worst methods to a CSV file for quality dashboards.
+ */
+public class AggregateExporter {
+    /**
+     * Write one row per project, package and class with method count and MI statistics
+     * (average, min, max, p50, p90, p99), followed by the lowest-MI and highest-CC rankings.
+     * @param aggregates Aggregates collected during analysis
+     * @param outFile Output CSV file path
+     */
+    public static void exportSummaryToCSV(AggregateCollector aggregates, String outFile) {
+        try (ChannelWriter writer = new ChannelWriter(Paths.get(outFile))) {
+            writer.write("Level,Name,Methods,AvgMI,MinMI,MaxMI,P50MI,P90MI,P99MI\n");
+            AggregateNode project = aggregates.getProject();
+            writeNode(writer, "Project", project);
+            for (AggregateNode packageNode : project.getChildren()) {
+                writeNode(writer, "Package", packageNode);
+                for (AggregateNode classNode : packageNode.getChildren()) {
+                    writeNode(writer, "Class", classNode);
+                }
+            }
+            // Section: Lowest MI
+            writer.write("\nLowestMI,Class,Method,MI,CyclomaticComplexity,HalsteadVolume,LOC\n");
+            writeRanking(writer, aggregates.getLowestMI().toList());
+            // Section: Highest CC
+            writer.write("\nHighestCC,Class,Method,MI,CyclomaticComplexity,HalsteadVolume,LOC\n");
+            writeRanking(writer, aggregates.getHighestCC().toList());
+            System.out.println("Summary exported to: " + outFile);
+        } catch (IOException e) {
+            System.err.println("Failed to write summary file: " + e.getMessage());
+        }
+    }
+
+    private static void writeNode(ChannelWriter writer, String level, AggregateNode node) throws IOException {
+        writer.write(level).write(',').writeCsvField(node.getName()).write(',').write(node.getCount())
+                .write(',').writeOptionalFixed2(node.getAverage()).write(',').writeOptionalFixed2(node.getMin()).write(',').writeOptionalFixed2(node.getMax())
+                .write(',').writeOptionalFixed2(node.getQuantile(0.5)).write(',').writeOptionalFixed2(node.getQuantile(0.9))
+                .write(',').writeOptionalFixed2(node.getQuantile(0.99)).write('\n');
+    }
+
+    private static void writeRanking(ChannelWriter writer, Iterable<RankedMethod> ranking) throws IOException {
+        int rank = 1;
+        for (RankedMethod r : ranking) {
+            writer.write(rank++).write(',').writeCsvField(r.className).write(',').writeCsvField(r.method.name)
+                    .write(',').writeOptionalFixed2(r.method.maintainabilityIndex).write(',').write(r.method.cyclomaticComplexity)
+                    .write(',').writeFixed2(r.method.halsteadVolume).write(',').write(r.method.loc).write('\n');
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.mindex.export;
+
+import com.mindex.analyzer.ResultSink;
+import com.mindex.model.FileResult;
+import com.mindex.model.MethodInfo;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streaming exporter of a compact columnar binary format, for bulk loading into analytics stores.
+ * <p>
+ * All numbers are little-endian. The file starts with the magic {@code 0x4A4D4942} ("JMIB") and a
+ * format version (int32), followed by blocks, each introduced by a tag byte:
+ * <ul>
+ *   <li>{@code 1} dictionary: int32 count, then count strings (int32 UTF-8 length + bytes). Strings get
+ *       consecutive IDs starting after those of earlier dictionary blocks.</li>
+ *   <li>{@code 2} row group: int32 rows, then the columns one after another: package ID, class ID and
+ *       method name ID (int32 each), MI (float64), CC (int32), HV (float64), LOC (int32).</li>
+ *   <li>{@code 0} end: int64 total number of rows.</li>
+ * </ul>
+ * A dictionary block always precedes the first row group that uses its strings. Row groups hold up to
+ * {@link #ROW_GROUP_SIZE} rows, so memory stays bounded while each column is contiguous.
+ */
+public class BinaryExporter implements ResultSink {
+    static final int MAGIC = 0x4A4D4942; // "JMIB"
+    static final int FORMAT_VERSION = 1;
+    static final int TAG_END = 0;
+    static final int TAG_DICTIONARY = 1;
+    static final int TAG_ROWS = 2;
+    /** Rows buffered per row group */
+    public static final int ROW_GROUP_SIZE = 1 << 16;
+
+    private final String outFile;
+    private final ChannelWriter writer;
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> newStrings = new ArrayList<>();
+    private final int[] packageIds = new int[ROW_GROUP_SIZE];
+    private final int[] classIds = new int[ROW_GROUP_SIZE];
+    private final int[] methodIds = new int[ROW_GROUP_SIZE];
+    private final double[] mis = new double[ROW_GROUP_SIZE];
+    private final int[] ccs = new int[ROW_GROUP_SIZE];
+    private final double[] hvs = new double[ROW_GROUP_SIZE];
+    private final int[] locs = new int[ROW_GROUP_SIZE];
+    private int rows;
+    private long totalRows;
+
+    /**
+     * Open the output file and write the header.
+     * @param outFile Output file path
+     * @throws IOException if the output file cannot be created
+     */
+    public BinaryExporter(String outFile) throws IOException {
+        this.outFile = outFile;
+        this.writer = new ChannelWriter(Paths.get(outFile)).order(ByteOrder.LITTLE_ENDIAN);
+        writer.putInt(MAGIC).putInt(FORMAT_VERSION);
+    }
+
+    @Override
+    public void accept(FileResult fileResult) {
+        try {
+            int packageId = id(fileResult.packageName);
+            for (Map.Entry<String, ArrayList<MethodInfo>> entry : fileResult.classMethods.entrySet()) {
+                int classId = id(entry.getKey());
+                for (MethodInfo m : entry.getValue()) {
+                    packageIds[rows] = packageId;
+                    classIds[rows] = classId;
+                    methodIds[rows] = id(m.name);
+                    mis[rows] = m.maintainabilityIndex;
+                    ccs[rows] = m.cyclomaticComplexity;
+                    hvs[rows] = m.halsteadVolume;
+                    locs[rows] = m.loc;
+                    if (++rows == ROW_GROUP_SIZE) {
+                        writeRowGroup();
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private int id(String value) {
+        Integer id = ids.get(value);
+        if (id == null) {
+            id = ids.size();
+            ids.put(value, id);
+            newStrings.add(value);
+        }
+        return id;
+    }
+
+    private void writeRowGroup() throws IOException {
+        if (!newStrings.isEmpty()) {
+            writer.putByte(TAG_DICTIONARY).putInt(newStrings.size());
+            for (String value : newStrings) {
+                writer.putString(value);
+            }
+            newStrings.clear();
+        }
+        if (rows == 0) {
+            return;
+        }
+        writer.putByte(TAG_ROWS).putInt(rows);
+        for (int i = 0; i < rows; i++) {
+            writer.putInt(packageIds[i]);
+        }
+        for (int i = 0; i < rows; i++) {
+            writer.putInt(classIds[i]);
+        }
+        for (int i = 0; i < rows; i++) {
+            writer.putInt(methodIds[i]);
+        }
+        for (int i = 0; i < rows; i++) {
+            writer.putDouble(mis[i]);
+        }
+        for (int i = 0; i < rows; i++) {
+            writer.putInt(ccs[i]);
+        }
+        for (int i = 0; i < rows; i++) {
+            writer.putDouble(hvs[i]);
+        }
+        for (int i = 0; i < rows; i++) {
+            writer.putInt(locs[i]);
+        }
+        totalRows += rows;
+        rows = 0;
+    }
+
+    @Override
+    public void close() {
+        try (ChannelWriter w = writer) {
+            writeRowGroup();
+            w.putByte(TAG_END).putLong(totalRows);
+        } catch (IOException e) {
+            System.err.println("Failed to write output file: " + outFile + ": " + e.getMessage());
+            return;
+        }
+        System.out.println("Results exported to: " + outFile + " (" + totalRows + " methods)");
+    }
+}
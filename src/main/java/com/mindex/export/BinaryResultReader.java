@@ -0,0 +1,197 @@
+package com.mindex.export;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Row cursor over a file written by {@link BinaryExporter}. Reads one row group at a time.
+ * <pre>
+ * try (BinaryResultReader reader = new BinaryResultReader(path)) {
+ *     while (reader.next()) { ... reader.getMaintainabilityIndex() ... }
+ * }
+ * </pre>
+ */
+public class BinaryResultReader implements Closeable {
+    private final FileChannel channel;
+    private final List<String> strings = new ArrayList<>();
+    private ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+    private int[] packageIds = new int[0];
+    private int[] classIds = new int[0];
+    private int[] methodIds = new int[0];
+    private double[] mis = new double[0];
+    private int[] ccs = new int[0];
+    private double[] hvs = new double[0];
+    private int[] locs = new int[0];
+    private int rows;
+    private int row = -1;
+    private boolean ended;
+    private long totalRows;
+
+    /**
+     * Open a binary result file and check its header.
+     * @param file File written by BinaryExporter
+     * @throws IOException if the file cannot be read or is not a binary result file
+     */
+    public BinaryResultReader(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        buffer.flip();
+        if (readInt() != BinaryExporter.MAGIC || readInt() != BinaryExporter.FORMAT_VERSION) {
+            channel.close();
+            throw new IOException(file + " is not a binary result file of this version");
+        }
+    }
+
+    /**
+     * Advance to the next row.
+     * @return false after the last row
+     * @throws IOException if the file is truncated or corrupt
+     */
+    public boolean next() throws IOException {
+        while (++row >= rows) {
+            if (ended || !readBlock()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean readBlock() throws IOException {
+        row = -1;
+        rows = 0;
+        int tag = readByte();
+        switch (tag) {
+            case BinaryExporter.TAG_DICTIONARY:
+                int count = readInt();
+                for (int i = 0; i < count; i++) {
+                    byte[] bytes = new byte[readInt()];
+                    require(bytes.length);
+                    buffer.get(bytes);
+                    strings.add(new String(bytes, StandardCharsets.UTF_8));
+                }
+                return true;
+            case BinaryExporter.TAG_ROWS:
+                int n = readInt();
+                require(n * 36L);
+                packageIds = ints(n, packageIds);
+                classIds = ints(n, classIds);
+                methodIds = ints(n, methodIds);
+                mis = doubles(n, mis);
+                ccs = ints(n, ccs);
+                hvs = doubles(n, hvs);
+                locs = ints(n, locs);
+                rows = n;
+                return true;
+            case BinaryExporter.TAG_END:
+                totalRows = readLong();
+                ended = true;
+                return false;
+            default:
+                throw new IOException("Corrupt binary result file: unknown block " + tag);
+        }
+    }
+
+    private int[] ints(int n, int[] reuse) {
+        int[] values = reuse.length >= n ? reuse : new int[n];
+        buffer.asIntBuffer().get(values, 0, n);
+        buffer.position(buffer.position() + n * 4);
+        return values;
+    }
+
+    private double[] doubles(int n, double[] reuse) {
+        double[] values = reuse.length >= n ? reuse : new double[n];
+        buffer.asDoubleBuffer().get(values, 0, n);
+        buffer.position(buffer.position() + n * 8);
+        return values;
+    }
+
+    /**
+     * Make sure the buffer holds at least the given number of unread bytes.
+     */
+    private void require(long bytes) throws IOException {
+        if (buffer.remaining() >= bytes) {
+            return;
+        }
+        if (bytes > buffer.capacity()) {
+            ByteBuffer larger = ByteBuffer.allocate((int) bytes).order(ByteOrder.LITTLE_ENDIAN);
+            larger.put(buffer);
+            larger.flip();
+            buffer = larger;
+        }
+        buffer.compact();
+        while (buffer.position() < bytes) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("Truncated binary result file");
+            }
+        }
+        buffer.flip();
+    }
+
+    private int readByte() throws IOException {
+        require(1);
+        return buffer.get();
+    }
+
+    private int readInt() throws IOException {
+        require(4);
+        return buffer.getInt();
+    }
+
+    private long readLong() throws IOException {
+        require(8);
+        return buffer.getLong();
+    }
+
+    /** @return Package name of the current row */
+    public String getPackageName() {
+        return strings.get(packageIds[row]);
+    }
+
+    /** @return Class name of the current row */
+    public String getClassName() {
+        return strings.get(classIds[row]);
+    }
+
+    /** @return Method name of the current row */
+    public String getMethodName() {
+        return strings.get(methodIds[row]);
+    }
+
+    /** @return Maintainability Index of the current row */
+    public double getMaintainabilityIndex() {
+        return mis[row];
+    }
+
+    /** @return Cyclomatic Complexity of the current row */
+    public int getCyclomaticComplexity() {
+        return ccs[row];
+    }
+
+    /** @return Halstead Volume of the current row */
+    public double getHalsteadVolume() {
+        return hvs[row];
+    }
+
+    /** @return Lines of Code of the current row */
+    public int getLoc() {
+        return locs[row];
+    }
+
+    /** @return Total number of rows recorded in the file trailer, available once {@link #next()} returned false */
+    public long getTotalRows() {
+        return totalRows;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
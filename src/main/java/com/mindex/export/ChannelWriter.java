@@ -0,0 +1,305 @@
+package com.mindex.export;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+
+/**
+ * Writes text and binary values to a file through a large NIO buffer, without format strings.
+ * Text is encoded as UTF-8; binary values use the configured byte order. Not thread-safe.
+ */
+public class ChannelWriter implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 20;
+    /**
+     * Values of at least this magnitude are formatted with String.format instead of the fast path. Below it,
+     * value * 100 stays under 2^30, so the rounding error of the product is far smaller than the tie window.
+     */
+    private static final double FAST_FORMAT_LIMIT = 1e7;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final byte[] digits = new byte[20];
+
+    /**
+     * Create or truncate the output file.
+     * @param file File to write
+     * @throws IOException if the file cannot be opened
+     */
+    public ChannelWriter(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Set the byte order of binary values.
+     * @param order Byte order
+     * @return this writer
+     */
+    public ChannelWriter order(ByteOrder order) {
+        buffer.order(order);
+        return this;
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    /**
+     * Write a character as UTF-8.
+     * @param c Character (surrogate pairs must go through {@link #write(CharSequence)})
+     * @return this writer
+     * @throws IOException if writing fails
+     */
+    public ChannelWriter write(char c) throws IOException {
+        ensure(3);
+        if (c < 0x80) {
+            buffer.put((byte) c);
+        } else if (c < 0x800) {
+            buffer.put((byte) (0xC0 | c >> 6)).put((byte) (0x80 | c & 0x3F));
+        } else {
+            buffer.put((byte) (0xE0 | c >> 12)).put((byte) (0x80 | c >> 6 & 0x3F)).put((byte) (0x80 | c & 0x3F));
+        }
+        return this;
+    }
+
+    /**
+     * Write text as UTF-8.
+     * @param text Text to write
+     * @return this writer
+     * @throws IOException if writing fails
+     */
+    public ChannelWriter write(CharSequence text) throws IOException {
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                if (!buffer.hasRemaining()) {
+                    flush();
+                }
+                buffer.put((byte) c);
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(text.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, text.charAt(++i));
+                ensure(4);
+                buffer.put((byte) (0xF0 | cp >> 18)).put((byte) (0x80 | cp >> 12 & 0x3F))
+                        .put((byte) (0x80 | cp >> 6 & 0x3F)).put((byte) (0x80 | cp & 0x3F));
+            } else {
+                write(c);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Write a decimal integer.
+     * @param value Value to write
+     * @return this writer
+     * @throws IOException if writing fails
+     */
+    public ChannelWriter write(long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            return write(Long.toString(value));
+        }
+        ensure(20);
+        if (value < 0) {
+            buffer.put((byte) '-');
+            value = -value;
+        }
+        int n = 0;
+        do {
+            digits[n++] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        while (n > 0) {
+            buffer.put(digits[--n]);
+        }
+        return this;
+    }
+
+    /**
+     * Write a number with exactly two decimals, producing the same text as
+     * {@code String.format(Locale.ROOT, "%.2f", value)} (half-up rounding of the shortest decimal representation),
+     * so the decimal separator is always '.' whatever the default locale.
+     * @param value Value to write
+     * @return this writer
+     * @throws IOException if writing fails
+     */
+    public ChannelWriter writeFixed2(double value) throws IOException {
+        if (!(value >= 0 && value < FAST_FORMAT_LIMIT)) {
+            return write(String.format(Locale.ROOT, "%.2f", value));
+        }
+        double scaled = value * 100;
+        long whole = (long) scaled;
+        double fraction = scaled - whole;
+        long cents;
+        if (Math.abs(fraction - 0.5) < 1e-6) {
+            // Too close to a tie to trust the binary product; round the decimal representation like Formatter
+            cents = new BigDecimal(Double.toString(value)).setScale(2, RoundingMode.HALF_UP).movePointRight(2).longValueExact();
+        } else {
+            cents = fraction > 0.5 ? whole + 1 : whole;
+        }
+        write(cents / 100);
+        ensure(3);
+        long rest = cents % 100;
+        buffer.put((byte) '.').put((byte) ('0' + rest / 10)).put((byte) ('0' + rest % 10));
+        return this;
+    }
+
+    /**
+     * Write a number like {@link #writeFixed2(double)}, or nothing if it is NaN (an undefined MI), leaving an
+     * empty CSV field.
+     * @param value Value to write
+     * @return this writer
+     * @throws IOException if writing fails
+     */
+    public ChannelWriter writeOptionalFixed2(double value) throws IOException {
+        return Double.isNaN(value) ? this : writeFixed2(value);
+    }
+
+    /**
+     * Write a CSV field, quoted (with doubled quotes) only if it contains a separator, quote or line break.
+     * @param field Field value
+     * @return this writer
+     * @throws IOException if writing fails
+     */
+    public ChannelWriter writeCsvField(String field) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < field.length() && !quote; i++) {
+            char c = field.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            return write(field);
+        }
+        write('"');
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (c == '"') {
+                write('"');
+            }
+            write(c);
+        }
+        return write('"');
+    }
+
+    /**
+     * Write a JSON string literal with the required escapes.
+     * @param value String value
+     * @return this writer
+     * @throws IOException if writing fails
+     */
+    public ChannelWriter writeJsonString(String value) throws IOException {
+        write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                write('\\').write(c);
+            } else if (c < 0x20) {
+                write("\\u00").write(Character.forDigit(c >> 4, 16)).write(Character.forDigit(c & 0xF, 16));
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()) {
+                write(value.subSequence(i, i + 2));
+                i++;
+            } else {
+                write(c);
+            }
+        }
+        return write('"');
+    }
+
+    /**
+     * Write a binary 32-bit integer.
+     * @param value Value to write
+     * @return this writer
+     * @throws IOException if writing fails
+     */
+    public ChannelWriter putInt(int value) throws IOException {
+        ensure(4);
+        buffer.putInt(value);
+        return this;
+    }
+
+    /**
+     * Write a binary 64-bit integer.
+     * @param value Value to write
+     * @return this writer
+     * @throws IOException if writing fails
+     */
+    public ChannelWriter putLong(long value) throws IOException {
+        ensure(8);
+        buffer.putLong(value);
+        return this;
+    }
+
+    /**
+     * Write a binary 64-bit floating point number.
+     * @param value Value to write
+     * @return this writer
+     * @throws IOException if writing fails
+     */
+    public ChannelWriter putDouble(double value) throws IOException {
+        ensure(8);
+        buffer.putDouble(value);
+        return this;
+    }
+
+    /**
+     * Write a single byte.
+     * @param value Value to write
+     * @return this writer
+     * @throws IOException if writing fails
+     */
+    public ChannelWriter putByte(int value) throws IOException {
+        ensure(1);
+        buffer.put((byte) value);
+        return this;
+    }
+
+    /**
+     * Write a string as its UTF-8 byte length (32-bit) followed by the bytes.
+     * @param value String value
+     * @return this writer
+     * @throws IOException if writing fails
+     */
+    public ChannelWriter putString(String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        putInt(bytes.length);
+        if (bytes.length > buffer.remaining()) {
+            flush();
+            if (bytes.length > buffer.capacity()) {
+                channel.write(ByteBuffer.wrap(bytes));
+                return this;
+            }
+        }
+        buffer.put(bytes);
+        return this;
+    }
+
+    /**
+     * Write the buffered bytes to the file.
+     * @throws IOException if writing fails
+     */
+    public void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.mindex.export;
+
+import com.mindex.model.CloneGroup;
+import com.mindex.model.MethodFingerprint;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * Exports clone groups to a CSV file, one row per member, most duplicated lines first.
+ */
+public class CloneExporter {
+    /**
+     * Write the columns Group, Kind, Similarity, Methods, DuplicatedLOC, AvgMI, File, Class, Method, Line, LOC,
+     * MI and CyclomaticComplexity. The group columns repeat on each member row so the file can be filtered
+     * and sorted as a single table; Kind is "exact" or "near".
+     * @param groups Clone groups in report order
+     * @param outFile Output CSV file path
+     */
+    public static void exportClonesToCSV(List<CloneGroup> groups, String outFile) {
+        try (ChannelWriter writer = new ChannelWriter(Paths.get(outFile))) {
+            writer.write("Group,Kind,Similarity,Methods,DuplicatedLOC,AvgMI,File,Class,Method,Line,LOC,MI,CyclomaticComplexity\n");
+            int id = 1;
+            for (CloneGroup group : groups) {
+                for (MethodFingerprint member : group.members) {
+                    writer.write(id).write(',').write(group.exact ? "exact" : "near").write(',').writeFixed2(group.similarity)
+                            .write(',').write(group.members.size()).write(',').write(group.duplicatedLoc)
+                            .write(',').writeOptionalFixed2(group.averageMI).write(',').writeCsvField(member.path)
+                            .write(',').writeCsvField(member.className).write(',').writeCsvField(member.method.name)
+                            .write(',').write(member.line).write(',').write(member.method.loc)
+                            .write(',').writeOptionalFixed2(member.method.maintainabilityIndex)
+                            .write(',').write(member.method.cyclomaticComplexity).write('\n');
+                }
+                id++;
+            }
+            System.out.println("Clones exported to: " + outFile);
+        } catch (IOException e) {
+            System.err.println("Failed to write clone file: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.mindex.export;
+
+import com.mindex.git.DeltaReport;
+import com.mindex.git.MIDelta;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Map;
+
+/**
+ * Prints or exports the MI deltas between two revisions.
+ * Rows are project, packages, classes, then changed methods; an empty before or after value means the
+ * element was added or removed.
+ */
+public class DeltaExporter {
+    /**
+     * Export the deltas to a CSV file with the columns Level, Name, BeforeMI, AfterMI, DeltaMI,
+     * BeforeMethods and AfterMethods.
+     * @param report Deltas between two revisions
+     * @param outFile Output CSV file path
+     */
+    public static void exportDeltaToCSV(DeltaReport report, String outFile) {
+        try (ChannelWriter writer = new ChannelWriter(Paths.get(outFile))) {
+            writer.write("Level,Name,BeforeMI,AfterMI,DeltaMI,BeforeMethods,AfterMethods\n");
+            writeRow(writer, "Project", report.project);
+            writeRows(writer, "Package", report.packages);
+            writeRows(writer, "Class", report.classes);
+            writeRows(writer, "Method", report.methods);
+            System.out.println("Delta exported to: " + outFile);
+        } catch (IOException e) {
+            System.err.println("Failed to write output file: " + e.getMessage());
+        }
+    }
+
+    private static void writeRows(ChannelWriter writer, String level, Map<String, MIDelta> deltas) throws IOException {
+        for (MIDelta delta : deltas.values()) {
+            writeRow(writer, level, delta);
+        }
+    }
+
+    private static void writeRow(ChannelWriter writer, String level, MIDelta delta) throws IOException {
+        writer.write(level).write(',').writeCsvField(delta.name).write(',');
+        if (!delta.isAdded()) {
+            writer.writeOptionalFixed2(delta.before.average());
+        }
+        writer.write(',');
+        if (!delta.isRemoved()) {
+            writer.writeOptionalFixed2(delta.after.average());
+        }
+        writer.write(',');
+        if (!delta.isAdded() && !delta.isRemoved()) {
+            writer.writeOptionalFixed2(delta.getDelta());
+        }
+        writer.write(',').write(delta.before.count).write(',').write(delta.after.count).write('\n');
+    }
+
+    /**
+     * Print the deltas to the console.
+     * @param report Deltas between two revisions
+     */
+    public static void printDelta(DeltaReport report) {
+        System.out.println("\n--- Maintainability Index Delta " + report.from + ".." + report.to + " ---");
+        System.out.println("Changed files: " + report.files);
+        printSection("Project (changed files)", Map.of("", report.project));
+        printSection("Packages", report.packages);
+        printSection("Classes", report.classes);
+        printSection("Changed methods", report.methods);
+    }
+
+    private static void printSection(String title, Map<String, MIDelta> deltas) {
+        System.out.println("\n[" + title + "]");
+        for (MIDelta delta : deltas.values()) {
+            String name = delta.name.isEmpty() ? "" : delta.name + ": ";
+            if (delta.isAdded() && delta.isRemoved()) {
+                System.out.println("  " + name + "no methods");
+            } else if (delta.isAdded()) {
+                System.out.printf("  %sadded, MI %.2f\n", name, delta.after.average());
+            } else if (delta.isRemoved()) {
+                System.out.printf("  %sremoved, MI was %.2f\n", name, delta.before.average());
+            } else {
+                System.out.printf("  %s%.2f -> %.2f (%+.2f)\n", name, delta.before.average(), delta.after.average(), delta.getDelta());
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.mindex.export;
+
+import com.mindex.analyzer.ResultSink;
+import java.io.IOException;
+
+/**
+ * An output format that writes method results to a file as they are analyzed.
+ * Formats are looked up by name with {@link #forName}; new formats plug in by implementing this interface.
+ */
+@FunctionalInterface
+public interface ExportFormat {
+    /**
+     * Open a sink that writes every method result it receives to the file.
+     * @param outFile Output file path
+     * @return Sink writing the file; closing it completes the file
+     * @throws IOException if the file cannot be created
+     */
+    ResultSink open(String outFile) throws IOException;
+
+    /**
+     * Look up a built-in format.
+     * @param name "csv" (method rows plus package and project averages), "jsonl" (one JSON object per method)
+     *             or "bin" (compact columnar binary, see {@link BinaryExporter})
+     * @return Format with the given name
+     * @throws IllegalArgumentException if the name is unknown
+     */
+    static ExportFormat forName(String name) {
+        switch (name) {
+            case "csv":
+                return StreamingCsvExporter::new;
+            case "jsonl":
+                return JsonLinesExporter::new;
+            case "bin":
+                return BinaryExporter::new;
+            default:
+                throw new IllegalArgumentException("Unknown export format: " + name);
+        }
+    }
+}
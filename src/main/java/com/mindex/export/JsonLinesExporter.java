@@ -0,0 +1,70 @@
+package com.mindex.export;
+
+import com.mindex.analyzer.ResultSink;
+import com.mindex.model.FileResult;
+import com.mindex.model.MethodInfo;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Map;
+
+/**
+ * Streaming JSON Lines exporter: one self-contained JSON object per method, written as each file is analyzed.
+ * <pre>{"file":"src/com/example/ExampleClass.java","package":"com.example","class":"ExampleClass","method":"foo","mi":85.23,"cc":2,"hv":23.45,"loc":10}</pre>
+ * MI and HV keep their full precision.
+ */
+public class JsonLinesExporter implements ResultSink {
+    private final String outFile;
+    private final ChannelWriter writer;
+    private long rows;
+
+    /**
+     * Open the output file.
+     * @param outFile Output JSON Lines file path
+     * @throws IOException if the output file cannot be created
+     */
+    public JsonLinesExporter(String outFile) throws IOException {
+        this.outFile = outFile;
+        this.writer = new ChannelWriter(Paths.get(outFile));
+    }
+
+    @Override
+    public void accept(FileResult fileResult) {
+        try {
+            for (Map.Entry<String, ArrayList<MethodInfo>> entry : fileResult.classMethods.entrySet()) {
+                for (MethodInfo m : entry.getValue()) {
+                    writer.write("{\"file\":").writeJsonString(fileResult.path)
+                            .write(",\"package\":").writeJsonString(fileResult.packageName)
+                            .write(",\"class\":").writeJsonString(entry.getKey())
+                            .write(",\"method\":").writeJsonString(m.name)
+                            .write(",\"mi\":").write(number(m.maintainabilityIndex))
+                            .write(",\"cc\":").write(m.cyclomaticComplexity)
+                            .write(",\"hv\":").write(number(m.halsteadVolume))
+                            .write(",\"loc\":").write(m.loc)
+                            .write("}\n");
+                    rows++;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * JSON has no NaN or infinity, so non-finite values are written as null.
+     */
+    private static String number(double value) {
+        return Double.isFinite(value) ? Double.toString(value) : "null";
+    }
+
+    @Override
+    public void close() {
+        try {
+            writer.close();
+            System.out.println("Results exported to: " + outFile + " (" + rows + " methods)");
+        } catch (IOException e) {
+            System.err.println("Failed to write output file: " + outFile + ": " + e.getMessage());
+        }
+    }
+}
@@ -1,13 +1,16 @@
 package com.mindex.export;
 
 import com.mindex.model.MethodInfo;
-import java.io.PrintWriter;
+import com.mindex.model.ResultStore;
+import com.mindex.model.RunningAverage;
 import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Map;
 
 /**
  * Utility class for exporting analysis results to CSV format.
+ * Rows are written through a large NIO buffer without format strings; fields are quoted when needed.
  */
 public class ResultExporter {
     /**
@@ -18,30 +21,71 @@ public class ResultExporter {
      * @param outFile Output CSV file path
      */
     public static void exportResultsToCSV(Map<String, ArrayList<MethodInfo>> classMethods, Map<String, ArrayList<MethodInfo>> packageMethods, ArrayList<MethodInfo> allMethods, String outFile) {
-        try (PrintWriter writer = new PrintWriter(outFile)) {
-            writer.println("Class,Method,MI,CyclomaticComplexity,HalsteadVolume,LOC");
+        try (ChannelWriter writer = new ChannelWriter(Paths.get(outFile))) {
+            writer.write("Class,Method,MI,CyclomaticComplexity,HalsteadVolume,LOC\n");
             for (String className : classMethods.keySet()) {
                 ArrayList<MethodInfo> methods = classMethods.get(className);
                 for (MethodInfo m : methods) {
-                    writer.printf("%s,%s,%.2f,%d,%.2f,%d\n", className, m.name, m.maintainabilityIndex, m.cyclomaticComplexity, m.halsteadVolume, m.loc);
+                    writeMethodRow(writer, className, m.name, m.maintainabilityIndex, m.cyclomaticComplexity, m.halsteadVolume, m.loc);
                 }
             }
             // Section: Package Avg MI
-            writer.println();
-            writer.println("Package,AvgMI");
+            writer.write("\nPackage,AvgMI\n");
             for (String packageName : packageMethods.keySet()) {
                 ArrayList<MethodInfo> methods = packageMethods.get(packageName);
-                double pkgMI = methods.stream().mapToDouble(m -> m.maintainabilityIndex).average().orElse(0);
-                writer.printf("%s,%.2f\n", packageName, pkgMI);
+                writeAverageRow(writer, packageName, RunningAverage.of(methods).average());
             }
             // Section: Project Avg MI
-            writer.println();
-            writer.println("ProjectAvgMI,AvgMI");
-            double projectMI = allMethods.stream().mapToDouble(m -> m.maintainabilityIndex).average().orElse(0);
-            writer.printf("ProjectAvgMI,%.2f\n", projectMI);
+            writer.write("\nProjectAvgMI,AvgMI\n");
+            writeAverageRow(writer, "ProjectAvgMI", RunningAverage.of(allMethods).average());
             System.out.println("Results exported to: " + outFile);
         } catch (IOException e) {
             System.err.println("Failed to write output file: " + e.getMessage());
         }
     }
-} 
\ No newline at end of file
+
+    /**
+     * Export a columnar result store to a CSV file, in the same layout as the map-based export.
+     * @param store Method results of the project
+     * @param outFile Output CSV file path
+     */
+    public static void exportResultsToCSV(ResultStore store, String outFile) {
+        try (ChannelWriter writer = new ChannelWriter(Paths.get(outFile))) {
+            writer.write("Class,Method,MI,CyclomaticComplexity,HalsteadVolume,LOC\n");
+            for (int c = 0; c < store.getClassCount(); c++) {
+                String className = store.getClassName(c);
+                for (int m = store.getClassStart(c); m < store.getClassEnd(c); m++) {
+                    writeMethodRow(writer, className, store.getMethodName(m), store.getMaintainabilityIndex(m),
+                            store.getCyclomaticComplexity(m), store.getHalsteadVolume(m), store.getLoc(m));
+                }
+            }
+            // Section: Package Avg MI
+            writer.write("\nPackage,AvgMI\n");
+            for (int p = 0; p < store.getPackageCount(); p++) {
+                writeAverageRow(writer, store.getPackageName(p), store.getPackageAverageMI(p));
+            }
+            // Section: Project Avg MI
+            writer.write("\nProjectAvgMI,AvgMI\n");
+            writeAverageRow(writer, "ProjectAvgMI", store.getProjectAverageMI());
+            System.out.println("Results exported to: " + outFile);
+        } catch (IOException e) {
+            System.err.println("Failed to write output file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Write one row of the method section: Class,Method,MI,CyclomaticComplexity,HalsteadVolume,LOC.
+     * An undefined MI is left empty.
+     */
+    static void writeMethodRow(ChannelWriter writer, String className, String methodName, double mi, int cc, double hv, int loc) throws IOException {
+        writer.writeCsvField(className).write(',').writeCsvField(methodName).write(',')
+                .writeOptionalFixed2(mi).write(',').write(cc).write(',').writeFixed2(hv).write(',').write(loc).write('\n');
+    }
+
+    /**
+     * Write one row of an average section: Name,AvgMI. The average is empty if no method has a defined MI.
+     */
+    static void writeAverageRow(ChannelWriter writer, String name, double mi) throws IOException {
+        writer.writeCsvField(name).write(',').writeOptionalFixed2(mi).write('\n');
+    }
+}
@@ -0,0 +1,78 @@
+package com.mindex.export;
+
+import com.mindex.analyzer.ResultSink;
+import com.mindex.model.FileResult;
+import com.mindex.model.MethodInfo;
+import com.mindex.model.RunningAverage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Streaming CSV exporter: writes method rows as each file is analyzed and keeps only running
+ * package/project averages, so memory does not grow with the size of the project.
+ * Produces the same layout as {@link ResultExporter#exportResultsToCSV}.
+ */
+public class StreamingCsvExporter implements ResultSink {
+    private final String outFile;
+    private final ChannelWriter writer;
+    private final Map<String, RunningAverage> packageMI = new LinkedHashMap<>();
+    private final RunningAverage projectMI = new RunningAverage();
+
+    /**
+     * Open the output file and write the method section header.
+     * @param outFile Output CSV file path
+     * @throws IOException if the output file cannot be created
+     */
+    public StreamingCsvExporter(String outFile) throws IOException {
+        this.outFile = outFile;
+        this.writer = new ChannelWriter(Paths.get(outFile));
+        writer.write("Class,Method,MI,CyclomaticComplexity,HalsteadVolume,LOC\n");
+    }
+
+    @Override
+    public void accept(FileResult fileResult) {
+        for (Map.Entry<String, ArrayList<MethodInfo>> entry : fileResult.classMethods.entrySet()) {
+            ArrayList<MethodInfo> methods = entry.getValue();
+            String className = fileResult.qualifiedClassName(entry.getKey());
+            try {
+                for (MethodInfo m : methods) {
+                    ResultExporter.writeMethodRow(writer, className, m.name, m.maintainabilityIndex, m.cyclomaticComplexity, m.halsteadVolume, m.loc);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (!methods.isEmpty()) {
+                RunningAverage pkg = packageMI.computeIfAbsent(fileResult.packageName, k -> new RunningAverage());
+                for (MethodInfo m : methods) {
+                    pkg.add(m.maintainabilityIndex);
+                    projectMI.add(m.maintainabilityIndex);
+                }
+            }
+        }
+    }
+
+    /**
+     * Write the package and project sections and close the file.
+     */
+    @Override
+    public void close() {
+        try (ChannelWriter w = writer) {
+            // Section: Package Avg MI
+            w.write("\nPackage,AvgMI\n");
+            for (Map.Entry<String, RunningAverage> entry : packageMI.entrySet()) {
+                ResultExporter.writeAverageRow(w, entry.getKey(), entry.getValue().average());
+            }
+            // Section: Project Avg MI
+            w.write("\nProjectAvgMI,AvgMI\n");
+            ResultExporter.writeAverageRow(w, "ProjectAvgMI", projectMI.average());
+        } catch (IOException e) {
+            System.err.println("Failed to write output file: " + outFile + ": " + e.getMessage());
+            return;
+        }
+        System.out.println("Results exported to: " + outFile);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,58 @@
+package com.mindex.export;
+
+import com.mindex.analyzer.ResultSink;
+import com.mindex.model.FileResult;
+import com.mindex.model.MethodInfo;
+import com.mindex.model.RunningAverage;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Streaming console printer: prints each class as soon as its file is analyzed and keeps only
+ * running package/project averages. Produces the same layout as JavaAnalyzer.printResults.
+ */
+public class StreamingResultPrinter implements ResultSink {
+    private final Map<String, RunningAverage> packageMI = new LinkedHashMap<>();
+    private final RunningAverage projectMI = new RunningAverage();
+
+    /**
+     * Print the results header.
+     */
+    public StreamingResultPrinter() {
+        System.out.println("\n--- Maintainability Index Results ---");
+    }
+
+    @Override
+    public void accept(FileResult fileResult) {
+        for (Map.Entry<String, ArrayList<MethodInfo>> entry : fileResult.classMethods.entrySet()) {
+            System.out.println("Class: " + fileResult.qualifiedClassName(entry.getKey()));
+            ArrayList<MethodInfo> methods = entry.getValue();
+            RunningAverage classMI = new RunningAverage();
+            for (MethodInfo m : methods) {
+                System.out.printf("  Method: %s | MI: %.2f | CC: %d | HV: %.2f | LOC: %d\n", m.name, m.maintainabilityIndex, m.cyclomaticComplexity, m.halsteadVolume, m.loc);
+                classMI.add(m.maintainabilityIndex);
+            }
+            if (!methods.isEmpty()) {
+                System.out.printf("  [Class Avg MI: %.2f]\n", classMI.average());
+                RunningAverage pkg = packageMI.computeIfAbsent(fileResult.packageName, k -> new RunningAverage());
+                for (MethodInfo m : methods) {
+                    pkg.add(m.maintainabilityIndex);
+                    projectMI.add(m.maintainabilityIndex);
+                }
+            }
+        }
+    }
+
+    /**
+     * Print the package and project averages.
+     */
+    @Override
+    public void close() {
+        System.out.println("\n[Package Avg MI]");
+        for (Map.Entry<String, RunningAverage> entry : packageMI.entrySet()) {
+            System.out.printf("  Package: %s | Avg MI: %.2f\n", entry.getKey(), entry.getValue().average());
+        }
+        System.out.printf("\n[Project Avg MI: %.2f]\n", projectMI.average());
+    }
+}
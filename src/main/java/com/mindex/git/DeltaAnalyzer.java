@@ -0,0 +1,125 @@
+package com.mindex.git;
+
+import com.mindex.analyzer.FileDiscovery;
+import com.mindex.analyzer.JavaAnalyzer;
+import com.mindex.model.FileResult;
+import com.mindex.model.MethodInfo;
+import com.mindex.model.RunningAverage;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares the MI of two revisions of a git repository, for gating pull requests.
+ * Only the Java files that differ between the revisions are read (from the object store, without a
+ * checkout) and analyzed at both revisions, so the cost depends on the size of the diff rather than
+ * on the size of the repository.
+ */
+public class DeltaAnalyzer {
+    private final JavaAnalyzer analyzer;
+    private final FileDiscovery discovery;
+
+    /**
+     * @param analyzer Analyzer used for both revisions
+     * @param discovery File selection applied to the paths of changed files
+     */
+    public DeltaAnalyzer(JavaAnalyzer analyzer, FileDiscovery discovery) {
+        this.analyzer = analyzer;
+        this.discovery = discovery;
+    }
+
+    /**
+     * Analyze the Java files changed between two revisions.
+     * @param repoDir Repository directory, or a directory inside it to restrict the comparison to
+     * @param from Old revision (commit, branch or tag)
+     * @param to New revision
+     * @return MI deltas per package, class and changed method
+     * @throws IOException if git fails or a revision does not exist
+     */
+    public DeltaReport analyze(Path repoDir, String from, String to) throws IOException {
+        DeltaReport report = new DeltaReport(from, to);
+        Map<String, MethodInfo> beforeMethods = new HashMap<>();
+        Map<String, MethodInfo> afterMethods = new HashMap<>();
+        try (GitRepository repository = new GitRepository(repoDir)) {
+            for (GitRepository.ChangedFile change : repository.diff(from, to)) {
+                boolean before = change.oldId != null && discovery.selects(change.oldPath);
+                boolean after = change.newId != null && discovery.selects(change.newPath);
+                if (before) {
+                    add(report, analyzer.analyzeSource(Paths.get(change.oldPath), repository.readBlob(change.oldId)), false, beforeMethods);
+                }
+                if (after) {
+                    add(report, analyzer.analyzeSource(Paths.get(change.newPath), repository.readBlob(change.newId)), true, afterMethods);
+                }
+                if (before || after) {
+                    report.files++;
+                }
+            }
+        }
+        collectChangedMethods(report, beforeMethods, afterMethods);
+        return report;
+    }
+
+    /**
+     * Add the methods of one file version to the project, package and class averages of its side.
+     */
+    private static void add(DeltaReport report, FileResult fileResult, boolean after, Map<String, MethodInfo> methods) {
+        if (fileResult == null) {
+            return;
+        }
+        String prefix = fileResult.packageName.isEmpty() ? "" : fileResult.packageName + ".";
+        for (Map.Entry<String, ArrayList<MethodInfo>> entry : fileResult.classMethods.entrySet()) {
+            String className = prefix + entry.getKey();
+            for (MethodInfo m : entry.getValue()) {
+                double mi = m.maintainabilityIndex;
+                side(report.project, after).add(mi);
+                side(report.packages.computeIfAbsent(fileResult.packageName, MIDelta::new), after).add(mi);
+                side(report.classes.computeIfAbsent(className, MIDelta::new), after).add(mi);
+                String key = className + "." + m.name;
+                for (int n = 2; methods.containsKey(key); n++) {
+                    key = className + "." + m.name + "#" + n;
+                }
+                methods.put(key, m);
+            }
+        }
+    }
+
+    private static RunningAverage side(MIDelta delta, boolean after) {
+        return after ? delta.after : delta.before;
+    }
+
+    /**
+     * Keep the methods that exist at only one revision or whose metrics differ.
+     */
+    private static void collectChangedMethods(DeltaReport report, Map<String, MethodInfo> beforeMethods, Map<String, MethodInfo> afterMethods) {
+        List<String> keys = new ArrayList<>(beforeMethods.keySet());
+        for (String key : afterMethods.keySet()) {
+            if (!beforeMethods.containsKey(key)) {
+                keys.add(key);
+            }
+        }
+        for (String key : keys) {
+            MethodInfo before = beforeMethods.get(key);
+            MethodInfo after = afterMethods.get(key);
+            if (before != null && after != null && sameMetrics(before, after)) {
+                continue;
+            }
+            MIDelta delta = new MIDelta(key);
+            if (before != null) {
+                delta.before.add(before.maintainabilityIndex);
+            }
+            if (after != null) {
+                delta.after.add(after.maintainabilityIndex);
+            }
+            report.methods.put(key, delta);
+        }
+    }
+
+    private static boolean sameMetrics(MethodInfo a, MethodInfo b) {
+        return Double.compare(a.maintainabilityIndex, b.maintainabilityIndex) == 0 && a.cyclomaticComplexity == b.cyclomaticComplexity
+                && Double.compare(a.halsteadVolume, b.halsteadVolume) == 0 && a.loc == b.loc;
+    }
+}
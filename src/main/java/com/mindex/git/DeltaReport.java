@@ -0,0 +1,34 @@
+package com.mindex.git;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * MI changes between two revisions, restricted to the files that changed.
+ * Class and package averages only cover the methods of changed files, so they show the direction
+ * a change moves the touched code in, not the new average of the whole package.
+ */
+public class DeltaReport {
+    /** Old revision */
+    public final String from;
+    /** New revision */
+    public final String to;
+    /** Number of changed Java files that were analyzed */
+    public int files;
+    /** All methods of the changed files */
+    public final MIDelta project = new MIDelta("");
+    /** Packages of the changed files by name, sorted */
+    public final Map<String, MIDelta> packages = new TreeMap<>();
+    /** Classes of the changed files by qualified name, sorted */
+    public final Map<String, MIDelta> classes = new TreeMap<>();
+    /**
+     * Methods whose metrics changed, were added or removed, by "package.Class.method", sorted.
+     * The n-th method of a class with the same name (an overload) is suffixed with "#n" from the second on.
+     */
+    public final Map<String, MIDelta> methods = new TreeMap<>();
+
+    public DeltaReport(String from, String to) {
+        this.from = from;
+        this.to = to;
+    }
+}
@@ -0,0 +1,183 @@
+package com.mindex.git;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads changed files and blobs of a local git repository through the git command line, straight from the
+ * object store: nothing is checked out and the working tree is never touched.
+ * Blobs are served by one long-running {@code git cat-file --batch} process, so reading n blobs costs
+ * n round trips instead of n process starts.
+ */
+public class GitRepository implements Closeable {
+    private static final String NULL_ID = "0000000000000000000000000000000000000000";
+
+    private final Path dir;
+    private Process catFile;
+    private OutputStream catFileIn;
+    private InputStream catFileOut;
+
+    /**
+     * A Java file that differs between two revisions.
+     */
+    public static class ChangedFile {
+        /** Path before the change, relative to the repository directory, or null if the file was added */
+        public final String oldPath;
+        /** Path after the change, or null if the file was deleted */
+        public final String newPath;
+        /** Blob ID before the change, or null if the file was added */
+        public final String oldId;
+        /** Blob ID after the change, or null if the file was deleted */
+        public final String newId;
+
+        public ChangedFile(String oldPath, String newPath, String oldId, String newId) {
+            this.oldPath = oldPath;
+            this.newPath = newPath;
+            this.oldId = oldId;
+            this.newId = newId;
+        }
+    }
+
+    /**
+     * @param dir Repository directory or a directory inside it; paths are reported relative to it
+     */
+    public GitRepository(Path dir) {
+        this.dir = dir;
+    }
+
+    /**
+     * List the Java files that differ between two revisions below the repository directory.
+     * Renames are detected, so a moved file is one change rather than a deletion and an addition.
+     * Only regular files are listed; symbolic links and submodules are skipped.
+     * @param from Old revision (commit, branch or tag)
+     * @param to New revision
+     * @return Changed files in path order
+     * @throws IOException if git fails, e.g. because a revision does not exist
+     */
+    public List<ChangedFile> diff(String from, String to) throws IOException {
+        byte[] output = run("diff-tree", "-r", "-z", "-M", "--no-abbrev", "--relative", from, to, "--", "*.java");
+        // Records are ":<old mode> <new mode> <old id> <new id> <status>\0<path>\0", renames and copies add a second path
+        List<String> fields = splitNul(output);
+        List<ChangedFile> changes = new ArrayList<>();
+        for (int i = 0; i < fields.size(); ) {
+            String[] info = fields.get(i++).substring(1).split(" ");
+            char status = info[4].charAt(0);
+            String path = fields.get(i++);
+            String newPath = status == 'R' || status == 'C' ? fields.get(i++) : path;
+            String oldId = isFile(info[0]) && !NULL_ID.equals(info[2]) ? info[2] : null;
+            String newId = isFile(info[1]) && !NULL_ID.equals(info[3]) ? info[3] : null;
+            if (oldId != null || newId != null) {
+                changes.add(new ChangedFile(oldId != null ? path : null, newId != null ? newPath : null, oldId, newId));
+            }
+        }
+        return changes;
+    }
+
+    /** @return true for the modes of regular and executable files */
+    private static boolean isFile(String mode) {
+        return "100644".equals(mode) || "100755".equals(mode);
+    }
+
+    /**
+     * Read the content of a blob.
+     * @param id Blob ID
+     * @return Blob content
+     * @throws IOException if the blob does not exist or git fails
+     */
+    public byte[] readBlob(String id) throws IOException {
+        if (catFile == null) {
+            catFile = new ProcessBuilder("git", "cat-file", "--batch").directory(dir.toFile())
+                    .redirectError(ProcessBuilder.Redirect.INHERIT).start();
+            catFileIn = new BufferedOutputStream(catFile.getOutputStream());
+            catFileOut = new BufferedInputStream(catFile.getInputStream(), 1 << 16);
+        }
+        catFileIn.write((id + "\n").getBytes(StandardCharsets.US_ASCII));
+        catFileIn.flush();
+        // Header "<id> <type> <size>", or "<id> missing"
+        String[] header = readLine(catFileOut).split(" ");
+        if (header.length != 3 || !"blob".equals(header[1])) {
+            throw new IOException("Not a blob: " + id);
+        }
+        byte[] content = new byte[Integer.parseInt(header[2])];
+        int read = 0;
+        while (read < content.length) {
+            int n = catFileOut.read(content, read, content.length - read);
+            if (n < 0) {
+                throw new EOFException("git cat-file ended in the middle of blob " + id);
+            }
+            read += n;
+        }
+        catFileOut.read(); // newline after the content
+        return content;
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream(64);
+        int b;
+        while ((b = in.read()) != '\n') {
+            if (b < 0) {
+                throw new EOFException("git cat-file ended unexpectedly");
+            }
+            line.write(b);
+        }
+        return line.toString(StandardCharsets.UTF_8);
+    }
+
+    private static List<String> splitNul(byte[] output) {
+        List<String> fields = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i < output.length; i++) {
+            if (output[i] == 0) {
+                fields.add(new String(output, start, i - start, StandardCharsets.UTF_8));
+                start = i + 1;
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * Run a git command in the repository directory and return its standard output.
+     */
+    private byte[] run(String... args) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add("git");
+        command.addAll(Arrays.asList(args));
+        Process process = new ProcessBuilder(command).directory(dir.toFile())
+                .redirectError(ProcessBuilder.Redirect.INHERIT).start();
+        byte[] output = process.getInputStream().readAllBytes();
+        try {
+            int exit = process.waitFor();
+            if (exit != 0) {
+                throw new IOException("git " + args[0] + " failed with exit code " + exit);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for git", e);
+        }
+        return output;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (catFile != null) {
+            catFileIn.close();
+            try {
+                catFile.waitFor();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            catFile = null;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.mindex.git;
+
+import com.mindex.model.RunningAverage;
+
+/**
+ * MI of one method, class or package before and after a change.
+ * A side without methods (added or removed element) has a count of 0.
+ */
+public class MIDelta {
+    /** Qualified name of the element */
+    public final String name;
+    /** MI of the methods at the old revision */
+    public final RunningAverage before = new RunningAverage();
+    /** MI of the methods at the new revision */
+    public final RunningAverage after = new RunningAverage();
+
+    public MIDelta(String name) {
+        this.name = name;
+    }
+
+    /** @return true if the element only exists at the new revision */
+    public boolean isAdded() {
+        return before.count == 0;
+    }
+
+    /** @return true if the element only exists at the old revision */
+    public boolean isRemoved() {
+        return after.count == 0;
+    }
+
+    /** @return Change of the average MI, 0 if the element was added or removed, or NaN if either side has no defined MI */
+    public double getDelta() {
+        return isAdded() || isRemoved() ? 0 : after.average() - before.average();
+    }
+}
@@ -0,0 +1,420 @@
+package com.mindex.metrics;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Minimal Java lexer for the token-based estimation mode. It splits a source file into identifiers,
+ * keywords, literals and operators without building any tree, and numbers every distinct identifier
+ * and literal text of the file (its symbol), so later passes compare integers instead of strings.
+ * <p>
+ * Tokens are kept in parallel primitive arrays that are reused from file to file, so tokenizing
+ * allocates almost nothing. Comments are recorded separately with their lines. Unicode escapes
+ * outside literals are not translated. Not thread-safe; use one instance per thread.
+ */
+public class JavaTokenizer {
+    /** Token kind of a name that is not a keyword */
+    public static final int IDENTIFIER = 1;
+    /** Token kind of a reserved word (true, false and null are literals) */
+    public static final int KEYWORD = 2;
+    /** Token kind of a number, character, string, text block, true, false or null */
+    public static final int LITERAL = 3;
+    /** Token kind of an operator or separator */
+    public static final int OPERATOR = 4;
+
+    private static final String[] KEYWORDS = {
+        "abstract", "assert", "boolean", "break", "byte", "case", "catch", "char", "class", "const", "continue",
+        "default", "do", "double", "else", "enum", "extends", "final", "finally", "float", "for", "goto", "if",
+        "implements", "import", "instanceof", "int", "interface", "long", "native", "new", "package", "private",
+        "protected", "public", "return", "short", "static", "strictfp", "super", "switch", "synchronized", "this",
+        "throw", "throws", "transient", "try", "void", "volatile", "while", "true", "false", "null"
+    };
+    /** Restricted identifiers; they are IDENTIFIER tokens with fixed symbols right after the keywords */
+    private static final String[] CONTEXTUAL_KEYWORDS = {"var", "yield", "record"};
+    private static final String[] OPERATORS = {
+        "(", ")", "{", "}", "[", "]", ";", ",", ".", "...", "@", "::", "=", ">", "<", "!", "~", "?", ":", "->",
+        "==", ">=", "<=", "!=", "&&", "||", "++", "--", "+", "-", "*", "/", "&", "|", "^", "%", "<<", ">>", ">>>",
+        "+=", "-=", "*=", "/=", "&=", "|=", "^=", "%=", "<<=", ">>=", ">>>="
+    };
+    /** Operator codes by first character, longest first */
+    private static final int[][] OPERATORS_BY_FIRST = new int[128][];
+    /** Keywords and contextual keywords followed by a space each; the text buffer starts with it so they get the first symbols */
+    private static final char[] KEYWORD_PREFIX;
+    private static final int FIRST_LITERAL_KEYWORD = keywordCode("true");
+
+    static {
+        for (char c = 0; c < 128; c++) {
+            int count = 0;
+            int[] codes = new int[OPERATORS.length];
+            for (int length = 4; length >= 1; length--) {
+                for (int code = 0; code < OPERATORS.length; code++) {
+                    if (OPERATORS[code].length() == length && OPERATORS[code].charAt(0) == c) {
+                        codes[count++] = code;
+                    }
+                }
+            }
+            OPERATORS_BY_FIRST[c] = count == 0 ? null : Arrays.copyOf(codes, count);
+        }
+        StringBuilder prefix = new StringBuilder();
+        for (String keyword : KEYWORDS) {
+            prefix.append(keyword).append(' ');
+        }
+        for (String keyword : CONTEXTUAL_KEYWORDS) {
+            prefix.append(keyword).append(' ');
+        }
+        KEYWORD_PREFIX = prefix.toString().toCharArray();
+    }
+
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+    /** Keyword prefix followed by the source of the current file */
+    private char[] text = Arrays.copyOf(KEYWORD_PREFIX, 1 << 16);
+    private int textLength;
+
+    private int count;
+    private int[] kinds = new int[4096];
+    private int[] codes = new int[4096];
+    private int[] lines = new int[4096];
+    private int[] endLines = new int[4096];
+
+    private int commentCount;
+    private int[] commentLines = new int[256];
+    private int[] commentEndLines = new int[256];
+    private int[] commentNextTokens = new int[256];
+
+    private int symbolCount;
+    private int[] symbolStarts = new int[1024];
+    private int[] symbolLengths = new int[1024];
+    private int[] symbolHashes = new int[1024];
+    /** Open-addressing table of symbol + 1, 0 = empty */
+    private int[] slots = new int[2048];
+
+    /**
+     * @param keyword Java keyword, or "true", "false" or "null"
+     * @return Code of the keyword, as returned by {@link #getCode} for KEYWORD and these LITERAL tokens
+     * @throws IllegalArgumentException if the word is not a keyword
+     */
+    public static int keywordCode(String keyword) {
+        int code = Arrays.asList(KEYWORDS).indexOf(keyword);
+        if (code < 0) {
+            throw new IllegalArgumentException("Not a keyword: " + keyword);
+        }
+        return code;
+    }
+
+    /**
+     * @param keyword Contextual keyword: "var", "yield" or "record"
+     * @return Symbol of the word in every file, as returned by {@link #getCode} for its IDENTIFIER tokens
+     * @throws IllegalArgumentException if the word is not a contextual keyword
+     */
+    public static int contextualKeywordCode(String keyword) {
+        int index = Arrays.asList(CONTEXTUAL_KEYWORDS).indexOf(keyword);
+        if (index < 0) {
+            throw new IllegalArgumentException("Not a contextual keyword: " + keyword);
+        }
+        return KEYWORDS.length + index;
+    }
+
+    /**
+     * @param operator Operator or separator, e.g. "&amp;&amp;" or "{"
+     * @return Code of the operator, as returned by {@link #getCode} for OPERATOR tokens
+     * @throws IllegalArgumentException if the operator is unknown
+     */
+    public static int operatorCode(String operator) {
+        int code = Arrays.asList(OPERATORS).indexOf(operator);
+        if (code < 0) {
+            throw new IllegalArgumentException("Not an operator: " + operator);
+        }
+        return code;
+    }
+
+    /** @return Number of distinct operator codes */
+    public static int operatorCount() {
+        return OPERATORS.length;
+    }
+
+    /**
+     * Split a UTF-8 source file into tokens, replacing the tokens of the previous file.
+     * @param content Source file contents
+     */
+    public void tokenize(byte[] content) {
+        int prefix = KEYWORD_PREFIX.length;
+        if (text.length < prefix + content.length) {
+            text = Arrays.copyOf(KEYWORD_PREFIX, prefix + content.length);
+        }
+        CharBuffer chars = CharBuffer.wrap(text, prefix, text.length - prefix);
+        decoder.reset();
+        decoder.decode(ByteBuffer.wrap(content), chars, true);
+        decoder.flush(chars);
+        textLength = chars.position();
+        count = 0;
+        commentCount = 0;
+        resetSymbols();
+        scan(prefix);
+    }
+
+    private void resetSymbols() {
+        Arrays.fill(slots, 0);
+        symbolCount = 0;
+        int start = 0;
+        while (start < KEYWORD_PREFIX.length) {
+            int end = start;
+            while (KEYWORD_PREFIX[end] != ' ') {
+                end++;
+            }
+            symbol(start, end - start);
+            start = end + 1;
+        }
+    }
+
+    private void scan(int start) {
+        char[] t = text;
+        int end = textLength;
+        int line = 1;
+        int i = start;
+        while (i < end) {
+            char c = t[i];
+            if (c == '\n') {
+                line++;
+                i++;
+            } else if (c == '\r') {
+                if (i + 1 >= end || t[i + 1] != '\n') {
+                    line++;
+                }
+                i++;
+            } else if (c == ' ' || c == '\t' || c == '\f' || c == '﻿') {
+                i++;
+            } else if (c == '/' && i + 1 < end && t[i + 1] == '/') {
+                while (i < end && t[i] != '\n' && t[i] != '\r') {
+                    i++;
+                }
+                addComment(line, line);
+            } else if (c == '/' && i + 1 < end && t[i + 1] == '*') {
+                int first = line;
+                i += 2;
+                while (i < end && !(t[i] == '*' && i + 1 < end && t[i + 1] == '/')) {
+                    if (t[i] == '\n' || (t[i] == '\r' && (i + 1 >= end || t[i + 1] != '\n'))) {
+                        line++;
+                    }
+                    i++;
+                }
+                i = Math.min(end, i + 2);
+                addComment(first, line);
+            } else if (Character.isJavaIdentifierStart(c)) {
+                int s = i++;
+                while (i < end && Character.isJavaIdentifierPart(t[i])) {
+                    i++;
+                }
+                int symbol = symbol(s, i - s);
+                if (symbol >= KEYWORDS.length) {
+                    add(IDENTIFIER, symbol, line, line);
+                } else {
+                    add(symbol >= FIRST_LITERAL_KEYWORD ? LITERAL : KEYWORD, symbol, line, line);
+                }
+            } else if (c >= '0' && c <= '9' || c == '.' && i + 1 < end && t[i + 1] >= '0' && t[i + 1] <= '9') {
+                int s = i++;
+                boolean hex = c == '0' && i < end && (t[i] == 'x' || t[i] == 'X');
+                while (i < end) {
+                    char d = t[i];
+                    char previous = t[i - 1];
+                    boolean exponent = hex ? previous == 'p' || previous == 'P' : previous == 'e' || previous == 'E';
+                    if (Character.isLetterOrDigit(d) || d == '_' || d == '.' || (d == '+' || d == '-') && exponent) {
+                        i++;
+                    } else {
+                        break;
+                    }
+                }
+                add(LITERAL, symbol(s, i - s), line, line);
+            } else if (c == '"' && i + 2 < end && t[i + 1] == '"' && t[i + 2] == '"') {
+                int s = i;
+                int first = line;
+                i += 3;
+                while (i < end && !(t[i] == '"' && i + 2 < end && t[i + 1] == '"' && t[i + 2] == '"')) {
+                    if (t[i] == '\\') {
+                        i++;
+                    } else if (t[i] == '\n' || (t[i] == '\r' && (i + 1 >= end || t[i + 1] != '\n'))) {
+                        line++;
+                    }
+                    i++;
+                }
+                i = Math.min(end, i + 3);
+                add(LITERAL, symbol(s, i - s), first, line);
+            } else if (c == '"' || c == '\'') {
+                int s = i++;
+                while (i < end && t[i] != c && t[i] != '\n' && t[i] != '\r') {
+                    i += t[i] == '\\' ? 2 : 1;
+                }
+                i = Math.min(end, i + 1);
+                add(LITERAL, symbol(s, i - s), line, line);
+            } else {
+                int[] candidates = c < 128 ? OPERATORS_BY_FIRST[c] : null;
+                int code = -1;
+                if (candidates != null) {
+                    for (int candidate : candidates) {
+                        String op = OPERATORS[candidate];
+                        if (i + op.length() <= end && matches(t, i, op)) {
+                            code = candidate;
+                            break;
+                        }
+                    }
+                }
+                if (code < 0) {
+                    i++; // stray character, e.g. a backslash of a unicode escape
+                } else {
+                    add(OPERATOR, code, line, line);
+                    i += OPERATORS[code].length();
+                }
+            }
+        }
+    }
+
+    private static boolean matches(char[] t, int at, String op) {
+        for (int k = 1; k < op.length(); k++) {
+            if (t[at + k] != op.charAt(k)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void add(int kind, int code, int line, int endLine) {
+        if (count == kinds.length) {
+            int capacity = count * 2;
+            kinds = Arrays.copyOf(kinds, capacity);
+            codes = Arrays.copyOf(codes, capacity);
+            lines = Arrays.copyOf(lines, capacity);
+            endLines = Arrays.copyOf(endLines, capacity);
+        }
+        kinds[count] = kind;
+        codes[count] = code;
+        lines[count] = line;
+        endLines[count] = endLine;
+        count++;
+    }
+
+    private void addComment(int line, int endLine) {
+        if (commentCount == commentLines.length) {
+            int capacity = commentCount * 2;
+            commentLines = Arrays.copyOf(commentLines, capacity);
+            commentEndLines = Arrays.copyOf(commentEndLines, capacity);
+            commentNextTokens = Arrays.copyOf(commentNextTokens, capacity);
+        }
+        commentLines[commentCount] = line;
+        commentEndLines[commentCount] = endLine;
+        commentNextTokens[commentCount] = count;
+        commentCount++;
+    }
+
+    /**
+     * Return the symbol of the text at [start, start + length), adding it if it is new.
+     */
+    private int symbol(int start, int length) {
+        int hash = 0;
+        for (int k = start; k < start + length; k++) {
+            hash = 31 * hash + text[k];
+        }
+        int mask = slots.length - 1;
+        for (int slot = (hash ^ hash >>> 16) & mask; ; slot = (slot + 1) & mask) {
+            int entry = slots[slot] - 1;
+            if (entry < 0) {
+                break;
+            }
+            if (symbolHashes[entry] == hash && symbolLengths[entry] == length
+                    && Arrays.equals(text, symbolStarts[entry], symbolStarts[entry] + length, text, start, start + length)) {
+                return entry;
+            }
+        }
+        if (symbolCount == symbolStarts.length) {
+            int capacity = symbolCount * 2;
+            symbolStarts = Arrays.copyOf(symbolStarts, capacity);
+            symbolLengths = Arrays.copyOf(symbolLengths, capacity);
+            symbolHashes = Arrays.copyOf(symbolHashes, capacity);
+        }
+        int symbol = symbolCount++;
+        symbolStarts[symbol] = start;
+        symbolLengths[symbol] = length;
+        symbolHashes[symbol] = hash;
+        if (symbolCount * 2 > slots.length) {
+            rehash(slots.length * 2);
+        } else {
+            insert(symbol);
+        }
+        return symbol;
+    }
+
+    private void rehash(int capacity) {
+        slots = new int[capacity];
+        for (int s = 0; s < symbolCount; s++) {
+            insert(s);
+        }
+    }
+
+    private void insert(int symbol) {
+        int hash = symbolHashes[symbol];
+        int mask = slots.length - 1;
+        int slot = (hash ^ hash >>> 16) & mask;
+        while (slots[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        slots[slot] = symbol + 1;
+    }
+
+    /** @return Number of tokens of the current file, comments excluded */
+    public int getTokenCount() {
+        return count;
+    }
+
+    /** @return Kind of token i: IDENTIFIER, KEYWORD, LITERAL or OPERATOR */
+    public int getKind(int i) {
+        return kinds[i];
+    }
+
+    /** @return Symbol of an IDENTIFIER or LITERAL token, keyword code of a KEYWORD token, operator code of an OPERATOR token */
+    public int getCode(int i) {
+        return codes[i];
+    }
+
+    /** @return Line on which token i starts (1-based) */
+    public int getLine(int i) {
+        return lines[i];
+    }
+
+    /** @return Line on which token i ends; differs from the start line for text blocks only */
+    public int getEndLine(int i) {
+        return endLines[i];
+    }
+
+    /** @return Number of distinct symbols of the current file, keywords included; symbols are below this number */
+    public int getSymbolCount() {
+        return symbolCount;
+    }
+
+    /** @return Source text of a symbol */
+    public String getSymbolText(int symbol) {
+        return new String(text, symbolStarts[symbol], symbolLengths[symbol]);
+    }
+
+    /** @return Number of comments of the current file */
+    public int getCommentCount() {
+        return commentCount;
+    }
+
+    /** @return First line of comment c */
+    public int getCommentLine(int c) {
+        return commentLines[c];
+    }
+
+    /** @return Last line of comment c */
+    public int getCommentEndLine(int c) {
+        return commentEndLines[c];
+    }
+
+    /** @return Index of the first token after comment c (the token count if the comment ends the file) */
+    public int getCommentNextToken(int c) {
+        return commentNextTokens[c];
+    }
+}
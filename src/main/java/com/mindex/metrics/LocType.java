@@ -0,0 +1,13 @@
+package com.mindex.metrics;
+
+/**
+ * Variants of Lines of Code (LOC), all read from the original source positions and tokens of a method.
+ */
+public enum LocType {
+    /** Every line spanned by the method, from its first to its last token (blank and comment lines included) */
+    PHYSICAL,
+    /** Lines containing at least one code token; blank and comment-only lines are excluded */
+    SOURCE,
+    /** Logical statements: semicolons outside parentheses plus opening braces of blocks */
+    LOGICAL
+}
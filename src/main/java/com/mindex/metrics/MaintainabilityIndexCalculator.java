@@ -3,8 +3,77 @@ package com.mindex.metrics;
 /**
  * Utility class for calculating the Maintainability Index (MI) for Java methods/classes.
  * Uses the normalized MI formula (0–100).
+ * <p>
+ * The static {@link #calculate} uses the standard coefficients and rejects invalid metrics with an exception.
+ * Instances hold configurable coefficients and never throw: {@link #score} and the batch {@link #scoreAll}
+ * return {@link #INVALID} for metrics the formula is not defined for, so cached metrics can be re-scored
+ * in bulk without exception handling on the hot path.
  */
 public class MaintainabilityIndexCalculator {
+    /** Marker returned instead of an MI for invalid metrics (HV &lt;= 0, CC &lt; 0 or LOC &lt;= 0); test with Double.isNaN */
+    public static final double INVALID = Double.NaN;
+    /** Standard coefficients 171 / 5.2 / 0.23 / 16.2, without comment weighting */
+    public static final MaintainabilityIndexCalculator DEFAULT = new MaintainabilityIndexCalculator(171, 5.2, 0.23, 16.2, 0, 0);
+
+    private final double base;
+    private final double volumeWeight;
+    private final double complexityWeight;
+    private final double locWeight;
+    private final double commentWeight;
+    private final double commentScale;
+
+    /**
+     * Create a calculator with custom coefficients:
+     * MI = MIN(100, MAX(0, (base - volumeWeight * ln(HV) - complexityWeight * CC - locWeight * ln(LOC)
+     * + commentWeight * sin(sqrt(commentScale * CM))) * 100 / base)), where CM is the comment ratio (0–1).
+     * @param base Constant term, also used for normalization (standard 171)
+     * @param volumeWeight Weight of ln(Halstead Volume) (standard 5.2)
+     * @param complexityWeight Weight of Cyclomatic Complexity (standard 0.23)
+     * @param locWeight Weight of ln(LOC) (standard 16.2)
+     * @param commentWeight Weight of the comment term (50 in the comment-weighted variant, 0 to disable)
+     * @param commentScale Scale of the comment ratio inside the sine (2.4 in the comment-weighted variant)
+     */
+    public MaintainabilityIndexCalculator(double base, double volumeWeight, double complexityWeight, double locWeight,
+                                          double commentWeight, double commentScale) {
+        this.base = base;
+        this.volumeWeight = volumeWeight;
+        this.complexityWeight = complexityWeight;
+        this.locWeight = locWeight;
+        this.commentWeight = commentWeight;
+        this.commentScale = commentScale;
+    }
+
+    /**
+     * Parse coefficients given as "base,volume,complexity,loc" or "base,volume,complexity,loc,comment,scale",
+     * e.g. "171,5.2,0.23,16.2,50,2.4" for the comment-weighted variant.
+     * @param spec Comma-separated coefficients
+     * @return Calculator with the given coefficients
+     * @throws IllegalArgumentException if the specification is malformed
+     */
+    public static MaintainabilityIndexCalculator parse(String spec) {
+        String[] parts = spec.split(",");
+        if (parts.length != 4 && parts.length != 6) {
+            throw new IllegalArgumentException("Expected 4 or 6 comma-separated coefficients: " + spec);
+        }
+        double[] c = new double[6];
+        for (int i = 0; i < parts.length; i++) {
+            try {
+                c[i] = Double.parseDouble(parts[i].trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid coefficient: " + parts[i]);
+            }
+        }
+        if (!(c[0] > 0)) {
+            throw new IllegalArgumentException("The base coefficient must be positive: " + spec);
+        }
+        return new MaintainabilityIndexCalculator(c[0], c[1], c[2], c[3], c[4], c[5]);
+    }
+
+    /** @return true if the comment ratio contributes to the score */
+    public boolean usesComments() {
+        return commentWeight != 0;
+    }
+
     /**
      * Calculates the Maintainability Index (M-Index) using the normalized formula.
      * MI = MAX(0, (171 - 5.2 * ln(Halstead Volume) - 0.23 * Cyclomatic Complexity - 16.2 * ln(LOC)) * 100 / 171)
@@ -15,11 +84,64 @@ public class MaintainabilityIndexCalculator {
      * @throws IllegalArgumentException if any metric is invalid
      */
     public static double calculate(double halsteadVolume, int cyclomaticComplexity, int loc) {
-        if (halsteadVolume <= 0 || cyclomaticComplexity < 0 || loc <= 0) {
+        double mi = DEFAULT.score(halsteadVolume, cyclomaticComplexity, loc, 0);
+        if (Double.isNaN(mi)) {
             throw new IllegalArgumentException("Invalid metric values");
         }
-        double raw = 171 - 5.2 * Math.log(halsteadVolume) - 0.23 * cyclomaticComplexity - 16.2 * Math.log(loc);
-        double normalized = Math.max(0, (raw * 100) / 171);
-        return normalized;
+        return mi;
+    }
+
+    /**
+     * Score one method with this calculator's coefficients.
+     * @param halsteadVolume Halstead Volume (V)
+     * @param cyclomaticComplexity Cyclomatic Complexity (CC)
+     * @param loc Lines of Code (LOC)
+     * @param commentRatio Share of comment lines (0–1); ignored unless comment weighting is enabled
+     * @return Maintainability Index (0–100), or {@link #INVALID} if a metric is invalid
+     */
+    public double score(double halsteadVolume, int cyclomaticComplexity, int loc, double commentRatio) {
+        if (!(halsteadVolume > 0) || cyclomaticComplexity < 0 || loc <= 0) {
+            return INVALID;
+        }
+        double raw = base - volumeWeight * Math.log(halsteadVolume) - complexityWeight * cyclomaticComplexity - locWeight * Math.log(loc);
+        if (commentWeight != 0) {
+            raw += commentWeight * Math.sin(Math.sqrt(commentScale * commentRatio));
+        }
+        return Math.min(100, Math.max(0, (raw * 100) / base));
+    }
+
+    /**
+     * Score a range of methods held in parallel primitive arrays, writing {@link #INVALID} for invalid metrics.
+     * The loop has no calls besides Math intrinsics and no exceptions, so the JIT can unroll and vectorize it.
+     * @param halsteadVolumes Halstead Volumes
+     * @param cyclomaticComplexities Cyclomatic Complexities
+     * @param locs Lines of Code
+     * @param commentRatios Comment ratios (0–1), or null for none; only read when comment weighting is enabled
+     * @param out Receives the Maintainability Indexes; may not alias an input array
+     * @param from First index to score
+     * @param to Index after the last one to score
+     */
+    public void scoreAll(double[] halsteadVolumes, int[] cyclomaticComplexities, int[] locs, double[] commentRatios,
+                         double[] out, int from, int to) {
+        if (commentWeight != 0 && commentRatios != null) {
+            for (int i = from; i < to; i++) {
+                double hv = halsteadVolumes[i];
+                int cc = cyclomaticComplexities[i];
+                int loc = locs[i];
+                double raw = base - volumeWeight * Math.log(hv) - complexityWeight * cc - locWeight * Math.log(loc)
+                        + commentWeight * Math.sin(Math.sqrt(commentScale * commentRatios[i]));
+                double mi = Math.min(100, Math.max(0, (raw * 100) / base));
+                out[i] = hv > 0 && cc >= 0 && loc > 0 ? mi : INVALID;
+            }
+            return;
+        }
+        for (int i = from; i < to; i++) {
+            double hv = halsteadVolumes[i];
+            int cc = cyclomaticComplexities[i];
+            int loc = locs[i];
+            double raw = base - volumeWeight * Math.log(hv) - complexityWeight * cc - locWeight * Math.log(loc);
+            double mi = Math.min(100, Math.max(0, (raw * 100) / base));
+            out[i] = hv > 0 && cc >= 0 && loc > 0 ? mi : INVALID;
+        }
     }
-} 
\ No newline at end of file
+}
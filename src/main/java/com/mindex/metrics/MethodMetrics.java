@@ -0,0 +1,49 @@
+package com.mindex.metrics;
+
+/**
+ * Data class for holding all raw metrics of a single method, as computed by one AST traversal.
+ * Halstead Volume is derived from the operator/operand counts on demand.
+ */
+public class MethodMetrics {
+    /** Lines of Code */
+    public final int loc;
+    /** Cyclomatic Complexity */
+    public final int cyclomaticComplexity;
+    /** Total number of operator occurrences (N1) */
+    public final int totalOperators;
+    /** Total number of operand occurrences (N2) */
+    public final int totalOperands;
+    /** Number of distinct operators (n1) */
+    public final int distinctOperators;
+    /** Number of distinct operands (n2) */
+    public final int distinctOperands;
+
+    /**
+     * Constructor for MethodMetrics.
+     * @param loc Lines of Code
+     * @param cyclomaticComplexity Cyclomatic Complexity
+     * @param totalOperators Total number of operator occurrences
+     * @param totalOperands Total number of operand occurrences
+     * @param distinctOperators Number of distinct operators
+     * @param distinctOperands Number of distinct operands
+     */
+    public MethodMetrics(int loc, int cyclomaticComplexity, int totalOperators, int totalOperands, int distinctOperators, int distinctOperands) {
+        this.loc = loc;
+        this.cyclomaticComplexity = cyclomaticComplexity;
+        this.totalOperators = totalOperators;
+        this.totalOperands = totalOperands;
+        this.distinctOperators = distinctOperators;
+        this.distinctOperands = distinctOperands;
+    }
+
+    /**
+     * Halstead Volume: V = N * log2(n), where N = total operators+operands, n = distinct operators+operands.
+     * @return Halstead Volume, or 1.0 for a method without operators and operands
+     */
+    public double halsteadVolume() {
+        int total = totalOperators + totalOperands;
+        int n = distinctOperators + distinctOperands;
+        if (total == 0 || n == 0) return 1.0;
+        return total * (Math.log(n) / Math.log(2));
+    }
+}
@@ -0,0 +1,277 @@
+package com.mindex.metrics;
+
+import com.github.javaparser.JavaToken;
+import com.github.javaparser.ast.body.VariableDeclarator;
+import com.github.javaparser.ast.expr.AssignExpr;
+import com.github.javaparser.ast.expr.BinaryExpr;
+import com.github.javaparser.ast.expr.BooleanLiteralExpr;
+import com.github.javaparser.ast.expr.CharLiteralExpr;
+import com.github.javaparser.ast.expr.DoubleLiteralExpr;
+import com.github.javaparser.ast.expr.IntegerLiteralExpr;
+import com.github.javaparser.ast.expr.LiteralExpr;
+import com.github.javaparser.ast.expr.LongLiteralExpr;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import com.github.javaparser.ast.expr.NameExpr;
+import com.github.javaparser.ast.expr.NullLiteralExpr;
+import com.github.javaparser.ast.expr.SimpleName;
+import com.github.javaparser.ast.expr.StringLiteralExpr;
+import com.github.javaparser.ast.expr.TextBlockLiteralExpr;
+import com.github.javaparser.ast.expr.UnaryExpr;
+import com.github.javaparser.ast.stmt.BreakStmt;
+import com.github.javaparser.ast.stmt.CatchClause;
+import com.github.javaparser.ast.stmt.ContinueStmt;
+import com.github.javaparser.ast.stmt.DoStmt;
+import com.github.javaparser.ast.stmt.ForStmt;
+import com.github.javaparser.ast.stmt.IfStmt;
+import com.github.javaparser.ast.stmt.ReturnStmt;
+import com.github.javaparser.ast.stmt.SwitchEntry;
+import com.github.javaparser.ast.stmt.SwitchStmt;
+import com.github.javaparser.ast.stmt.ThrowStmt;
+import com.github.javaparser.ast.stmt.TryStmt;
+import com.github.javaparser.ast.stmt.WhileStmt;
+import com.github.javaparser.ast.visitor.VoidVisitorAdapter;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Single-pass visitor that collects Cyclomatic Complexity and Halstead operator/operand counts
+ * for one method. Node types are dispatched by the visitor instead of an instanceof cascade,
+ * and operators are identified by small integer IDs rather than strings.
+ * A visitor instance accumulates state and must be used for one method only.
+ */
+class MethodMetricsVisitor extends VoidVisitorAdapter<Void> {
+    /** Operator IDs by symbol; symbols shared by binary and unary operators (e.g. "+") share an ID */
+    private static final Map<String, Integer> OPERATOR_IDS = new HashMap<>();
+    private static final int[] BINARY_OPERATOR_IDS = new int[BinaryExpr.Operator.values().length];
+    private static final int[] UNARY_OPERATOR_IDS = new int[UnaryExpr.Operator.values().length];
+    private static final int ASSIGN = operatorId("=");
+    private static final int IF = operatorId("if");
+    private static final int FOR = operatorId("for");
+    private static final int WHILE = operatorId("while");
+    private static final int DO = operatorId("do");
+    private static final int SWITCH = operatorId("switch");
+    private static final int CASE = operatorId("case");
+    private static final int CATCH = operatorId("catch");
+    private static final int BREAK = operatorId("break");
+    private static final int CONTINUE = operatorId("continue");
+    private static final int RETURN = operatorId("return");
+    private static final int THROW = operatorId("throw");
+    private static final int TRY = operatorId("try");
+    private static final int CALL = operatorId("call");
+
+    static {
+        for (BinaryExpr.Operator operator : BinaryExpr.Operator.values()) {
+            BINARY_OPERATOR_IDS[operator.ordinal()] = operatorId(operator.asString());
+        }
+        for (UnaryExpr.Operator operator : UnaryExpr.Operator.values()) {
+            UNARY_OPERATOR_IDS[operator.ordinal()] = operatorId(operator.asString());
+        }
+    }
+
+    private final BitSet operators = new BitSet(OPERATOR_IDS.size());
+    private final Set<String> operands = new HashSet<>();
+    private int totalOperators;
+    private int totalOperands;
+    private int decisionPoints;
+
+    private static int operatorId(String symbol) {
+        return OPERATOR_IDS.computeIfAbsent(symbol, k -> OPERATOR_IDS.size());
+    }
+
+    /**
+     * Build the metrics collected so far.
+     * @param loc Lines of Code of the visited method
+     * @return MethodMetrics for the visited method
+     */
+    MethodMetrics toMetrics(int loc) {
+        return new MethodMetrics(loc, decisionPoints + 1, totalOperators, totalOperands, operators.cardinality(), operands.size());
+    }
+
+    private void operator(int id) {
+        operators.set(id);
+        totalOperators++;
+    }
+
+    private void operand(String operand) {
+        operands.add(operand);
+        totalOperands++;
+    }
+
+    /**
+     * Literal operands are identified by their source text, read from the token instead of pretty-printing the node.
+     */
+    private void literal(LiteralExpr literal) {
+        operand(literal.getTokenRange().map(range -> range.getBegin()).map(JavaToken::getText).orElseGet(literal::toString));
+    }
+
+    @Override
+    public void visit(BinaryExpr n, Void arg) {
+        operator(BINARY_OPERATOR_IDS[n.getOperator().ordinal()]);
+        super.visit(n, arg);
+    }
+
+    @Override
+    public void visit(UnaryExpr n, Void arg) {
+        operator(UNARY_OPERATOR_IDS[n.getOperator().ordinal()]);
+        super.visit(n, arg);
+    }
+
+    @Override
+    public void visit(AssignExpr n, Void arg) {
+        operator(ASSIGN);
+        super.visit(n, arg);
+    }
+
+    @Override
+    public void visit(IfStmt n, Void arg) {
+        operator(IF);
+        decisionPoints++;
+        super.visit(n, arg);
+    }
+
+    @Override
+    public void visit(ForStmt n, Void arg) {
+        operator(FOR);
+        decisionPoints++;
+        super.visit(n, arg);
+    }
+
+    @Override
+    public void visit(WhileStmt n, Void arg) {
+        operator(WHILE);
+        decisionPoints++;
+        super.visit(n, arg);
+    }
+
+    @Override
+    public void visit(DoStmt n, Void arg) {
+        operator(DO);
+        decisionPoints++;
+        super.visit(n, arg);
+    }
+
+    @Override
+    public void visit(SwitchStmt n, Void arg) {
+        operator(SWITCH);
+        super.visit(n, arg);
+    }
+
+    @Override
+    public void visit(SwitchEntry n, Void arg) {
+        operator(CASE);
+        decisionPoints++;
+        super.visit(n, arg);
+    }
+
+    @Override
+    public void visit(CatchClause n, Void arg) {
+        operator(CATCH);
+        decisionPoints++;
+        super.visit(n, arg);
+    }
+
+    @Override
+    public void visit(BreakStmt n, Void arg) {
+        operator(BREAK);
+        super.visit(n, arg);
+    }
+
+    @Override
+    public void visit(ContinueStmt n, Void arg) {
+        operator(CONTINUE);
+        super.visit(n, arg);
+    }
+
+    @Override
+    public void visit(ReturnStmt n, Void arg) {
+        operator(RETURN);
+        super.visit(n, arg);
+    }
+
+    @Override
+    public void visit(ThrowStmt n, Void arg) {
+        operator(THROW);
+        super.visit(n, arg);
+    }
+
+    @Override
+    public void visit(TryStmt n, Void arg) {
+        operator(TRY);
+        super.visit(n, arg);
+    }
+
+    @Override
+    public void visit(MethodCallExpr n, Void arg) {
+        operator(CALL);
+        super.visit(n, arg);
+    }
+
+    @Override
+    public void visit(NameExpr n, Void arg) {
+        operand(n.getNameAsString());
+        super.visit(n, arg);
+    }
+
+    @Override
+    public void visit(SimpleName n, Void arg) {
+        operand(n.asString());
+        super.visit(n, arg);
+    }
+
+    @Override
+    public void visit(VariableDeclarator n, Void arg) {
+        operand(n.getNameAsString());
+        super.visit(n, arg);
+    }
+
+    @Override
+    public void visit(BooleanLiteralExpr n, Void arg) {
+        literal(n);
+        super.visit(n, arg);
+    }
+
+    @Override
+    public void visit(CharLiteralExpr n, Void arg) {
+        literal(n);
+        super.visit(n, arg);
+    }
+
+    @Override
+    public void visit(DoubleLiteralExpr n, Void arg) {
+        literal(n);
+        super.visit(n, arg);
+    }
+
+    @Override
+    public void visit(IntegerLiteralExpr n, Void arg) {
+        literal(n);
+        super.visit(n, arg);
+    }
+
+    @Override
+    public void visit(LongLiteralExpr n, Void arg) {
+        literal(n);
+        super.visit(n, arg);
+    }
+
+    @Override
+    public void visit(NullLiteralExpr n, Void arg) {
+        literal(n);
+        super.visit(n, arg);
+    }
+
+    @Override
+    public void visit(StringLiteralExpr n, Void arg) {
+        literal(n);
+        super.visit(n, arg);
+    }
+
+    @Override
+    public void visit(TextBlockLiteralExpr n, Void arg) {
+        literal(n);
+        super.visit(n, arg);
+    }
+}
@@ -1,10 +1,11 @@
 package com.mindex.metrics;
 
+import com.github.javaparser.JavaToken;
+import com.github.javaparser.Range;
+import com.github.javaparser.TokenRange;
 import com.github.javaparser.ast.body.MethodDeclaration;
-import com.github.javaparser.ast.stmt.Statement;
-import java.util.HashSet;
-import java.util.Set;
-import java.util.concurrent.atomic.AtomicInteger;
+import com.github.javaparser.ast.comments.Comment;
+import java.util.Optional;
 
 /**
  * Utility class for calculating code metrics for Java methods.
@@ -12,13 +13,123 @@ import java.util.concurrent.atomic.AtomicInteger;
  * All methods are static and operate on JavaParser's MethodDeclaration AST node.
  */
 public class MetricCalculator {
+    private static final int LPAREN = JavaToken.Kind.LPAREN.getKind();
+    private static final int RPAREN = JavaToken.Kind.RPAREN.getKind();
+    private static final int LBRACE = JavaToken.Kind.LBRACE.getKind();
+    private static final int SEMICOLON = JavaToken.Kind.SEMICOLON.getKind();
+
     /**
-     * Calculates the number of lines of code (LOC) in a method.
+     * Calculates the number of physical lines of code (LOC) in a method, from its source range.
      * @param method JavaParser MethodDeclaration node
      * @return Number of lines of code
      */
     public static int calculateLOC(MethodDeclaration method) {
-        return (int) method.toString().lines().count();
+        return method.getRange()
+                .map(range -> range.end.line - range.begin.line + 1)
+                .orElseGet(() -> (int) method.toString().lines().count());
+    }
+
+    /**
+     * Calculates a variant of lines of code (LOC) in a method, reading the original token stream.
+     * Nodes without source positions (e.g. built programmatically) fall back to the printed source.
+     * @param method JavaParser MethodDeclaration node
+     * @param type LOC variant to calculate
+     * @return Number of lines of code of the given type
+     */
+    public static int calculateLOC(MethodDeclaration method, LocType type) {
+        if (type == LocType.PHYSICAL) {
+            return calculateLOC(method);
+        }
+        Optional<TokenRange> tokens = method.getTokenRange();
+        if (!tokens.isPresent()) {
+            return (int) method.toString().lines().filter(line -> !line.isBlank()).count();
+        }
+        JavaToken token = tokens.get().getBegin();
+        JavaToken end = tokens.get().getEnd();
+        int count = 0;
+        int lastLine = 0;
+        int parenDepth = 0;
+        while (token != null) {
+            JavaToken.Category category = token.getCategory();
+            if (!category.isWhitespaceOrComment()) {
+                if (type == LocType.SOURCE) {
+                    if (token.hasRange()) {
+                        Range range = token.getRange().get();
+                        int first = Math.max(range.begin.line, lastLine + 1);
+                        if (range.end.line >= first) {
+                            count += range.end.line - first + 1;
+                            lastLine = range.end.line;
+                        }
+                    }
+                } else {
+                    int kind = token.getKind();
+                    if (kind == LPAREN) {
+                        parenDepth++;
+                    } else if (kind == RPAREN) {
+                        parenDepth--;
+                    } else if (kind == LBRACE || (kind == SEMICOLON && parenDepth == 0)) {
+                        count++;
+                    }
+                }
+            }
+            if (token == end) {
+                break;
+            }
+            token = token.getNextToken().orElse(null);
+        }
+        return count;
+    }
+
+    /**
+     * Calculates the share of a method's lines that contain a comment, reading the original token stream.
+     * The method's leading Javadoc or comment counts as part of the method.
+     * Nodes without source positions (e.g. built programmatically) have a ratio of 0.
+     * @param method JavaParser MethodDeclaration node
+     * @return Comment lines divided by all lines (0–1)
+     */
+    public static double calculateCommentRatio(MethodDeclaration method) {
+        Optional<TokenRange> tokens = method.getTokenRange();
+        if (!tokens.isPresent() || !method.getRange().isPresent()) {
+            return 0;
+        }
+        int lines = calculateLOC(method);
+        int commentLines = 0;
+        Optional<Range> leading = method.getComment().flatMap(Comment::getRange);
+        if (leading.isPresent()) {
+            int leadingLines = leading.get().end.line - leading.get().begin.line + 1;
+            lines += leadingLines;
+            commentLines += leadingLines;
+        }
+        JavaToken token = tokens.get().getBegin();
+        JavaToken end = tokens.get().getEnd();
+        int lastLine = 0;
+        while (token != null) {
+            if (token.getCategory().isComment() && token.hasRange()) {
+                Range range = token.getRange().get();
+                int first = Math.max(range.begin.line, lastLine + 1);
+                if (range.end.line >= first) {
+                    commentLines += range.end.line - first + 1;
+                    lastLine = range.end.line;
+                }
+            }
+            if (token == end) {
+                break;
+            }
+            token = token.getNextToken().orElse(null);
+        }
+        return Math.min(1, (double) commentLines / lines);
+    }
+
+    /**
+     * Calculates LOC, Cyclomatic Complexity and Halstead operator/operand counts in a single AST traversal.
+     * Prefer this over the individual calculators when more than one metric is needed.
+     * @param method JavaParser MethodDeclaration node
+     * @return MethodMetrics with all raw metrics of the method
+     */
+    public static MethodMetrics calculateMetrics(MethodDeclaration method) {
+        MethodMetricsVisitor visitor = new MethodMetricsVisitor();
+        method.accept(visitor, null);
+        return visitor.toMetrics(calculateLOC(method));
     }
 
     /**
@@ -29,19 +140,9 @@ public class MetricCalculator {
      * @return Cyclomatic Complexity
      */
     public static int calculateCyclomaticComplexity(MethodDeclaration method) {
-        int numStatements = method.findAll(Statement.class).size();
-        int numBranches = 0;
-        numBranches += method.findAll(com.github.javaparser.ast.stmt.IfStmt.class).size();
-        numBranches += method.findAll(com.github.javaparser.ast.stmt.ForStmt.class).size();
-        numBranches += method.findAll(com.github.javaparser.ast.stmt.WhileStmt.class).size();
-        numBranches += method.findAll(com.github.javaparser.ast.stmt.DoStmt.class).size();
-        numBranches += method.findAll(com.github.javaparser.ast.stmt.SwitchEntry.class).size();
-        numBranches += method.findAll(com.github.javaparser.ast.stmt.CatchClause.class).size();
-        int N = numStatements;
-        int E = N - 1 + numBranches;
-        int P = 1;
-        int cc = E - N + 2 * P;
-        return cc;
+        MethodMetricsVisitor visitor = new MethodMetricsVisitor();
+        method.accept(visitor, null);
+        return visitor.toMetrics(0).cyclomaticComplexity;
     }
 
     /**
@@ -52,75 +153,8 @@ public class MetricCalculator {
      * @return Halstead Volume
      */
     public static double calculateHalsteadVolume(MethodDeclaration method) {
-        Set<String> operators = new HashSet<>();
-        Set<String> operands = new HashSet<>();
-        AtomicInteger total = new AtomicInteger(0);
-        method.walk(node -> {
-            if (node instanceof com.github.javaparser.ast.expr.BinaryExpr) {
-                operators.add(((com.github.javaparser.ast.expr.BinaryExpr) node).getOperator().asString());
-                total.incrementAndGet();
-            } else if (node instanceof com.github.javaparser.ast.expr.UnaryExpr) {
-                operators.add(((com.github.javaparser.ast.expr.UnaryExpr) node).getOperator().asString());
-                total.incrementAndGet();
-            } else if (node instanceof com.github.javaparser.ast.expr.AssignExpr) {
-                operators.add("=");
-                total.incrementAndGet();
-            } else if (node instanceof com.github.javaparser.ast.stmt.IfStmt) {
-                operators.add("if");
-                total.incrementAndGet();
-            } else if (node instanceof com.github.javaparser.ast.stmt.ForStmt) {
-                operators.add("for");
-                total.incrementAndGet();
-            } else if (node instanceof com.github.javaparser.ast.stmt.WhileStmt) {
-                operators.add("while");
-                total.incrementAndGet();
-            } else if (node instanceof com.github.javaparser.ast.stmt.DoStmt) {
-                operators.add("do");
-                total.incrementAndGet();
-            } else if (node instanceof com.github.javaparser.ast.stmt.SwitchStmt) {
-                operators.add("switch");
-                total.incrementAndGet();
-            } else if (node instanceof com.github.javaparser.ast.stmt.SwitchEntry) {
-                operators.add("case");
-                total.incrementAndGet();
-            } else if (node instanceof com.github.javaparser.ast.stmt.CatchClause) {
-                operators.add("catch");
-                total.incrementAndGet();
-            } else if (node instanceof com.github.javaparser.ast.stmt.BreakStmt) {
-                operators.add("break");
-                total.incrementAndGet();
-            } else if (node instanceof com.github.javaparser.ast.stmt.ContinueStmt) {
-                operators.add("continue");
-                total.incrementAndGet();
-            } else if (node instanceof com.github.javaparser.ast.stmt.ReturnStmt) {
-                operators.add("return");
-                total.incrementAndGet();
-            } else if (node instanceof com.github.javaparser.ast.stmt.ThrowStmt) {
-                operators.add("throw");
-                total.incrementAndGet();
-            } else if (node instanceof com.github.javaparser.ast.stmt.TryStmt) {
-                operators.add("try");
-                total.incrementAndGet();
-            } else if (node instanceof com.github.javaparser.ast.expr.MethodCallExpr) {
-                operators.add("call");
-                total.incrementAndGet();
-            }
-            if (node instanceof com.github.javaparser.ast.expr.NameExpr) {
-                operands.add(((com.github.javaparser.ast.expr.NameExpr) node).getNameAsString());
-                total.incrementAndGet();
-            } else if (node instanceof com.github.javaparser.ast.expr.SimpleName) {
-                operands.add(((com.github.javaparser.ast.expr.SimpleName) node).asString());
-                total.incrementAndGet();
-            } else if (node instanceof com.github.javaparser.ast.expr.LiteralExpr) {
-                operands.add(node.toString());
-                total.incrementAndGet();
-            } else if (node instanceof com.github.javaparser.ast.body.VariableDeclarator) {
-                operands.add(((com.github.javaparser.ast.body.VariableDeclarator) node).getNameAsString());
-                total.incrementAndGet();
-            }
-        });
-        int n = operators.size() + operands.size();
-        if (total.get() == 0 || n == 0) return 1.0;
-        return total.get() * (Math.log(n) / Math.log(2));
+        MethodMetricsVisitor visitor = new MethodMetricsVisitor();
+        method.accept(visitor, null);
+        return visitor.toMetrics(0).halsteadVolume();
     }
-} 
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,135 @@
+package com.mindex.model;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * One level of the project → package → class aggregate tree: count, sum, min and max of the MI of all
+ * methods below the node, and a mergeable sketch for its quantiles. Values are added once while
+ * results arrive, so reading an aggregate never rescans methods. Methods without a defined MI (NaN)
+ * are counted but left out of the statistics.
+ */
+public class AggregateNode {
+    private final String name;
+    private final Map<String, AggregateNode> children = new LinkedHashMap<>();
+    private final QuantileSketch sketch = new QuantileSketch();
+    private long count;
+    private long invalid;
+    private double sum;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    /**
+     * @param name Fully qualified name of the package or class ("" for the project)
+     */
+    public AggregateNode(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Return the child with the given key, creating it on first use. Children keep their creation order.
+     * @param key Name of the child within this node: the package name, or the class name within the package
+     * @param qualifiedName Fully qualified name for a new child
+     * @return Child node
+     */
+    public AggregateNode child(String key, String qualifiedName) {
+        AggregateNode child = children.get(key);
+        if (child == null) {
+            child = new AggregateNode(qualifiedName);
+            children.put(key, child);
+        }
+        return child;
+    }
+
+    /**
+     * Count the MI of one method at this level.
+     * @param mi Maintainability Index
+     */
+    public void add(double mi) {
+        count++;
+        if (Double.isNaN(mi)) {
+            invalid++;
+            return;
+        }
+        sum += mi;
+        min = Math.min(min, mi);
+        max = Math.max(max, mi);
+        sketch.add(mi);
+    }
+
+    /**
+     * Merge another tree (e.g. of a different shard) into this one, level by level.
+     * @param other Node with the same name
+     */
+    public void merge(AggregateNode other) {
+        count += other.count;
+        invalid += other.invalid;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        sketch.merge(other.sketch);
+        for (Map.Entry<String, AggregateNode> entry : other.children.entrySet()) {
+            child(entry.getKey(), entry.getValue().name).merge(entry.getValue());
+        }
+    }
+
+    /** @return Fully qualified name */
+    public String getName() {
+        return name;
+    }
+
+    /** @return Child nodes in order of first appearance */
+    public Collection<AggregateNode> getChildren() {
+        return children.values();
+    }
+
+    /** @return Child with the given key, or null */
+    public AggregateNode getChild(String key) {
+        return children.get(key);
+    }
+
+    /** @return Number of methods */
+    public long getCount() {
+        return count;
+    }
+
+    /** @return Sum of the defined MI values */
+    public double getSum() {
+        return sum;
+    }
+
+    /** @return Number of methods without a defined MI */
+    public long getInvalidCount() {
+        return invalid;
+    }
+
+    /** @return Average MI, 0 without methods, or NaN if no method has a defined MI */
+    public double getAverage() {
+        return count == 0 ? 0 : count == invalid ? Double.NaN : sum / (count - invalid);
+    }
+
+    /** @return Lowest MI, 0 without methods, or NaN if no method has a defined MI */
+    public double getMin() {
+        return count == 0 ? 0 : count == invalid ? Double.NaN : min;
+    }
+
+    /** @return Highest MI, 0 without methods, or NaN if no method has a defined MI */
+    public double getMax() {
+        return count == 0 ? 0 : count == invalid ? Double.NaN : max;
+    }
+
+    /**
+     * @param q Quantile between 0 and 1
+     * @return Estimated MI at the quantile, accurate to half a sketch bucket and kept within min/max;
+     *         0 without methods, or NaN if no method has a defined MI
+     */
+    public double getQuantile(double q) {
+        return count == 0 ? 0 : count == invalid ? Double.NaN : Math.max(min, Math.min(max, sketch.quantile(q)));
+    }
+
+    /** @return Quantile sketch of the MI values */
+    public QuantileSketch getSketch() {
+        return sketch;
+    }
+}
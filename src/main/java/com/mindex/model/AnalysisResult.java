@@ -8,7 +8,7 @@ import java.util.Map;
  * Contains method-level, class-level, package-level, and project-level metrics.
  */
 public class AnalysisResult {
-    /** Map of class name to list of method metrics */
+    /** Map of package-qualified class name (e.g. "p.Outer.Inner") to list of method metrics */
     public final Map<String, ArrayList<MethodInfo>> classMethods;
     /** Map of package name to list of method metrics */
     public final Map<String, ArrayList<MethodInfo>> packageMethods;
@@ -17,7 +17,7 @@ public class AnalysisResult {
 
     /**
      * Constructor for AnalysisResult.
-     * @param classMethods Map of class name to list of method metrics
+     * @param classMethods Map of package-qualified class name to list of method metrics
      * @param packageMethods Map of package name to list of method metrics
      * @param allMethods List of all method metrics in the project
      */
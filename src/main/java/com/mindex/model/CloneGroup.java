@@ -0,0 +1,40 @@
+package com.mindex.model;
+
+import java.util.List;
+
+/**
+ * A set of methods that are copies of each other, with the numbers used to prioritize refactoring them.
+ */
+public class CloneGroup {
+    /** True if all members have the same normalized token sequence, i.e. differ only in names and literals */
+    public final boolean exact;
+    /** Lowest estimated similarity of any two members (1 for exact clones) */
+    public final double similarity;
+    /** Members in file and line order */
+    public final List<MethodFingerprint> members;
+    /** Lines that would go away if the members were merged into one: all LOC except the longest member's */
+    public final int duplicatedLoc;
+    /** Average Maintainability Index of the members */
+    public final double averageMI;
+
+    /**
+     * @param exact True if all members have the same normalized token sequence
+     * @param similarity Lowest estimated similarity of any two members
+     * @param members Members in file and line order, at least two
+     */
+    public CloneGroup(boolean exact, double similarity, List<MethodFingerprint> members) {
+        this.exact = exact;
+        this.similarity = similarity;
+        this.members = members;
+        int loc = 0;
+        int longest = 0;
+        RunningAverage mi = new RunningAverage();
+        for (MethodFingerprint member : members) {
+            loc += member.method.loc;
+            longest = Math.max(longest, member.method.loc);
+            mi.add(member.method.maintainabilityIndex);
+        }
+        this.duplicatedLoc = loc - longest;
+        this.averageMI = mi.average();
+    }
+}
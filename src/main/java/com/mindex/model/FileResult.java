@@ -0,0 +1,41 @@
+package com.mindex.model;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Data class for holding the analysis results of a single Java source file.
+ * Produced independently per file so files can be analyzed on any thread and merged later.
+ */
+public class FileResult {
+    /** Path of the analyzed source file */
+    public final String path;
+    /** Package declared in the file (empty for the default package) */
+    public final String packageName;
+    /** Map of class name within the package ("Outer.Inner" for member classes) to list of method metrics, in declaration order */
+    public final Map<String, ArrayList<MethodInfo>> classMethods;
+    /** Token fingerprints of the file's methods, one per method; empty unless clone detection is enabled */
+    public final List<MethodFingerprint> fingerprints;
+
+    /**
+     * Constructor for FileResult.
+     * @param path Path of the analyzed source file
+     * @param packageName Package declared in the file
+     */
+    public FileResult(String path, String packageName) {
+        this.path = path;
+        this.packageName = packageName;
+        this.classMethods = new LinkedHashMap<>();
+        this.fingerprints = new ArrayList<>();
+    }
+
+    /**
+     * @param className Key of {@link #classMethods}
+     * @return Class name prefixed with the file's package, e.g. "p.Outer.Inner"
+     */
+    public String qualifiedClassName(String className) {
+        return packageName.isEmpty() ? className : packageName + "." + className;
+    }
+}
@@ -0,0 +1,56 @@
+package com.mindex.model;
+
+/**
+ * Fingerprint of a method's normalized token sequence (identifiers and literals abstracted), used to find
+ * copy-pasted methods without comparing their source.
+ */
+public class MethodFingerprint {
+    /** Path of the source file */
+    public final String path;
+    /** Fully qualified name of the innermost class declaring the method */
+    public final String className;
+    /** Metrics of the method */
+    public final MethodInfo method;
+    /** Line the declaration starts on */
+    public final int line;
+    /** Number of tokens of the declaration, without comments */
+    public final int tokens;
+    /** Hash of the whole normalized token sequence; equal for methods that differ only in names and literals */
+    public final long hash;
+    /** MinHash signature of the token shingles; the share of equal entries estimates the shingles' Jaccard similarity */
+    public final int[] signature;
+
+    /**
+     * @param path Path of the source file
+     * @param className Fully qualified name of the innermost class declaring the method
+     * @param method Metrics of the method
+     * @param line Line the declaration starts on
+     * @param tokens Number of tokens of the declaration
+     * @param hash Hash of the whole normalized token sequence
+     * @param signature MinHash signature of the token shingles
+     */
+    public MethodFingerprint(String path, String className, MethodInfo method, int line, int tokens, long hash, int[] signature) {
+        this.path = path;
+        this.className = className;
+        this.method = method;
+        this.line = line;
+        this.tokens = tokens;
+        this.hash = hash;
+        this.signature = signature;
+    }
+
+    /**
+     * Estimate the Jaccard similarity of this method's token shingles and another's from their signatures.
+     * @param other Fingerprint with a signature of the same length
+     * @return Share of equal signature entries (0–1)
+     */
+    public double similarity(MethodFingerprint other) {
+        int equal = 0;
+        for (int i = 0; i < signature.length; i++) {
+            if (signature[i] == other.signature[i]) {
+                equal++;
+            }
+        }
+        return (double) equal / signature.length;
+    }
+}
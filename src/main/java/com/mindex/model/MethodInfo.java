@@ -13,8 +13,10 @@ public class MethodInfo {
     public int cyclomaticComplexity;
     /** Lines of Code */
     public int loc;
-    /** Maintainability Index */
+    /** Maintainability Index, or NaN (MaintainabilityIndexCalculator.INVALID) if it is not defined, e.g. for an empty body */
     public double maintainabilityIndex;
+    /** Share of the method's lines that contain comments (0–1), used by comment-weighted MI */
+    public double commentRatio;
 
     /**
      * Constructor for MethodInfo.
@@ -31,4 +33,18 @@ public class MethodInfo {
         this.loc = loc;
         this.maintainabilityIndex = maintainabilityIndex;
     }
-} 
\ No newline at end of file
+
+    /**
+     * Constructor for MethodInfo with the comment ratio.
+     * @param name Method name
+     * @param halsteadVolume Halstead Volume
+     * @param cyclomaticComplexity Cyclomatic Complexity
+     * @param loc Lines of Code
+     * @param maintainabilityIndex Maintainability Index
+     * @param commentRatio Share of the method's lines that contain comments (0–1)
+     */
+    public MethodInfo(String name, double halsteadVolume, int cyclomaticComplexity, int loc, double maintainabilityIndex, double commentRatio) {
+        this(name, halsteadVolume, cyclomaticComplexity, loc, maintainabilityIndex);
+        this.commentRatio = commentRatio;
+    }
+}
@@ -0,0 +1,85 @@
+package com.mindex.model;
+
+import java.util.Arrays;
+
+/**
+ * Mergeable quantile sketch for Maintainability Index values (0–100).
+ * Values are counted in fixed buckets of {@link #BUCKET_WIDTH} MI points stored sparsely, so a sketch
+ * costs a few bytes per distinct bucket, merging is exact, and quantiles are accurate to half a bucket.
+ */
+public class QuantileSketch {
+    /** Width of one bucket in MI points */
+    public static final double BUCKET_WIDTH = 0.5;
+    private static final int MAX_BUCKET = (int) Math.round(100 / BUCKET_WIDTH);
+
+    /** Sorted bucket numbers that hold at least one value */
+    private short[] buckets = new short[4];
+    private long[] counts = new long[4];
+    private int size;
+    private long total;
+
+    /**
+     * Count one value; values outside 0–100 are clamped.
+     * @param value MI value
+     */
+    public void add(double value) {
+        add(bucket(value), 1);
+    }
+
+    /**
+     * Add all values counted by another sketch.
+     * @param other Sketch to merge into this one
+     */
+    public void merge(QuantileSketch other) {
+        for (int i = 0; i < other.size; i++) {
+            add(other.buckets[i], other.counts[i]);
+        }
+    }
+
+    private static int bucket(double value) {
+        double clamped = Math.max(0, Math.min(100, value));
+        return Math.min(MAX_BUCKET, (int) Math.round(clamped / BUCKET_WIDTH));
+    }
+
+    private void add(int bucket, long count) {
+        int i = Arrays.binarySearch(buckets, 0, size, (short) bucket);
+        if (i < 0) {
+            i = -i - 1;
+            if (size == buckets.length) {
+                buckets = Arrays.copyOf(buckets, size * 2);
+                counts = Arrays.copyOf(counts, size * 2);
+            }
+            System.arraycopy(buckets, i, buckets, i + 1, size - i);
+            System.arraycopy(counts, i, counts, i + 1, size - i);
+            buckets[i] = (short) bucket;
+            counts[i] = 0;
+            size++;
+        }
+        counts[i] += count;
+        total += count;
+    }
+
+    /** @return Number of values counted */
+    public long getCount() {
+        return total;
+    }
+
+    /**
+     * @param q Quantile between 0 and 1 (e.g. 0.9 for p90)
+     * @return Estimated value at the quantile (nearest-rank), or 0 if the sketch is empty
+     */
+    public double quantile(double q) {
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(q * total));
+        long seen = 0;
+        for (int i = 0; i < size; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return buckets[i] * BUCKET_WIDTH;
+            }
+        }
+        return buckets[size - 1] * BUCKET_WIDTH;
+    }
+}
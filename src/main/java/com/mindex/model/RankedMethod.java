@@ -0,0 +1,32 @@
+package com.mindex.model;
+
+import java.util.Comparator;
+
+/**
+ * A method together with the fully qualified name of its class, as ranked by top-K queries.
+ */
+public class RankedMethod {
+    /** Lowest MI first; ties broken by name so rankings are deterministic */
+    public static final Comparator<RankedMethod> LOWEST_MI = Comparator
+            .comparingDouble((RankedMethod r) -> r.method.maintainabilityIndex)
+            .thenComparing(r -> r.className)
+            .thenComparing(r -> r.method.name);
+    /** Highest Cyclomatic Complexity first; ties broken by lower MI, then by name */
+    public static final Comparator<RankedMethod> HIGHEST_CC = Comparator
+            .comparingInt((RankedMethod r) -> -r.method.cyclomaticComplexity)
+            .thenComparing(LOWEST_MI);
+
+    /** Fully qualified class name */
+    public final String className;
+    /** Metrics of the method */
+    public final MethodInfo method;
+
+    /**
+     * @param className Fully qualified class name
+     * @param method Metrics of the method
+     */
+    public RankedMethod(String className, MethodInfo method) {
+        this.className = className;
+        this.method = method;
+    }
+}
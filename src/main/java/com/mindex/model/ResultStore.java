@@ -0,0 +1,328 @@
+package com.mindex.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Columnar, primitive-backed store of all method results of a project.
+ * <p>
+ * Metrics are kept in parallel primitive arrays indexed by method number (project order), names are
+ * interned into one table and referenced by ID, classes are offset ranges into the method columns and
+ * packages are lists of such ranges. This holds the same information as {@link AnalysisResult} without
+ * an object per method, and aggregates are sequential scans over a double array.
+ * <p>
+ * Classes follow {@link AnalysisResult#classMethods}: they are named by their package-qualified name and
+ * listed in order of first appearance; a name seen in several files (the same class analyzed twice) refers to
+ * the methods of its last occurrence.
+ * All accessors take indexes, so iterating the store allocates nothing.
+ */
+public class ResultStore {
+    private final String[] names;
+    private final int methodCount;
+    private final int[] methodNameIds;
+    private final double[] halsteadVolumes;
+    private final int[] cyclomaticComplexities;
+    private final int[] locs;
+    private final double[] maintainabilityIndexes;
+    private final int[] classNameIds;
+    private final int[] classStarts;
+    private final int[] classEnds;
+    private final int[] packageNameIds;
+    /** Ranges of package p are rangeStarts/rangeEnds[packageRangeOffsets[p] .. packageRangeOffsets[p + 1]) */
+    private final int[] packageRangeOffsets;
+    private final int[] rangeStarts;
+    private final int[] rangeEnds;
+
+    private ResultStore(Builder b) {
+        names = b.names.toArray(new String[0]);
+        methodCount = b.methodCount;
+        methodNameIds = Arrays.copyOf(b.methodNameIds, methodCount);
+        halsteadVolumes = Arrays.copyOf(b.halsteadVolumes, methodCount);
+        cyclomaticComplexities = Arrays.copyOf(b.cyclomaticComplexities, methodCount);
+        locs = Arrays.copyOf(b.locs, methodCount);
+        maintainabilityIndexes = Arrays.copyOf(b.maintainabilityIndexes, methodCount);
+        classNameIds = Arrays.copyOf(b.classNameIds, b.classCount);
+        classStarts = Arrays.copyOf(b.classStarts, b.classCount);
+        classEnds = Arrays.copyOf(b.classEnds, b.classCount);
+        packageNameIds = Arrays.copyOf(b.packageNameIds, b.packageCount);
+        // Group the ranges by package; ranges were appended in method order, so each group stays sorted
+        packageRangeOffsets = new int[b.packageCount + 1];
+        for (int r = 0; r < b.rangeCount; r++) {
+            packageRangeOffsets[b.rangePackages[r] + 1]++;
+        }
+        for (int p = 0; p < b.packageCount; p++) {
+            packageRangeOffsets[p + 1] += packageRangeOffsets[p];
+        }
+        rangeStarts = new int[b.rangeCount];
+        rangeEnds = new int[b.rangeCount];
+        int[] next = Arrays.copyOf(packageRangeOffsets, b.packageCount);
+        for (int r = 0; r < b.rangeCount; r++) {
+            int slot = next[b.rangePackages[r]]++;
+            rangeStarts[slot] = b.rangeStarts[r];
+            rangeEnds[slot] = b.rangeEnds[r];
+        }
+    }
+
+    /** @return Number of methods in the project */
+    public int getMethodCount() {
+        return methodCount;
+    }
+
+    /** @return Name of method m */
+    public String getMethodName(int m) {
+        return names[methodNameIds[m]];
+    }
+
+    /** @return Halstead Volume of method m */
+    public double getHalsteadVolume(int m) {
+        return halsteadVolumes[m];
+    }
+
+    /** @return Cyclomatic Complexity of method m */
+    public int getCyclomaticComplexity(int m) {
+        return cyclomaticComplexities[m];
+    }
+
+    /** @return Lines of Code of method m */
+    public int getLoc(int m) {
+        return locs[m];
+    }
+
+    /** @return Maintainability Index of method m */
+    public double getMaintainabilityIndex(int m) {
+        return maintainabilityIndexes[m];
+    }
+
+    /** @return Number of distinct class names */
+    public int getClassCount() {
+        return classNameIds.length;
+    }
+
+    /** @return Name of class c */
+    public String getClassName(int c) {
+        return names[classNameIds[c]];
+    }
+
+    /** @return Index of the first method of class c */
+    public int getClassStart(int c) {
+        return classStarts[c];
+    }
+
+    /** @return Index after the last method of class c */
+    public int getClassEnd(int c) {
+        return classEnds[c];
+    }
+
+    /** @return Number of packages that contain methods */
+    public int getPackageCount() {
+        return packageNameIds.length;
+    }
+
+    /** @return Name of package p */
+    public String getPackageName(int p) {
+        return names[packageNameIds[p]];
+    }
+
+    /** @return Number of method ranges of package p */
+    public int getPackageRangeCount(int p) {
+        return packageRangeOffsets[p + 1] - packageRangeOffsets[p];
+    }
+
+    /** @return Index of the first method of range r of package p */
+    public int getPackageRangeStart(int p, int r) {
+        return rangeStarts[packageRangeOffsets[p] + r];
+    }
+
+    /** @return Index after the last method of range r of package p */
+    public int getPackageRangeEnd(int p, int r) {
+        return rangeEnds[packageRangeOffsets[p] + r];
+    }
+
+    /** @return Number of methods of package p */
+    public int getPackageMethodCount(int p) {
+        int count = 0;
+        for (int r = packageRangeOffsets[p]; r < packageRangeOffsets[p + 1]; r++) {
+            count += rangeEnds[r] - rangeStarts[r];
+        }
+        return count;
+    }
+
+    /** @return Average MI of class c, 0 if it has no methods, or NaN if no method has a defined MI */
+    public double getClassAverageMI(int c) {
+        CompensatedSum sum = new CompensatedSum();
+        sum.addAll(maintainabilityIndexes, classStarts[c], classEnds[c]);
+        return sum.average();
+    }
+
+    /** @return Average MI of package p, 0 if it has no methods, or NaN if no method has a defined MI */
+    public double getPackageAverageMI(int p) {
+        CompensatedSum sum = new CompensatedSum();
+        for (int r = packageRangeOffsets[p]; r < packageRangeOffsets[p + 1]; r++) {
+            sum.addAll(maintainabilityIndexes, rangeStarts[r], rangeEnds[r]);
+        }
+        return sum.average();
+    }
+
+    /** @return Average MI of all methods, 0 if there are none, or NaN if no method has a defined MI */
+    public double getProjectAverageMI() {
+        CompensatedSum sum = new CompensatedSum();
+        sum.addAll(maintainabilityIndexes, 0, methodCount);
+        return sum.average();
+    }
+
+    /**
+     * Kahan summation, as used by DoubleStream.average() and {@link RunningAverage}, so averages match the
+     * list-based and streamed results. Undefined (NaN) values are left out, like in RunningAverage.
+     */
+    private static class CompensatedSum {
+        private double sum;
+        private double compensation;
+        private int count;
+        private int valid;
+
+        void addAll(double[] values, int start, int end) {
+            count += end - start;
+            for (int i = start; i < end; i++) {
+                if (Double.isNaN(values[i])) {
+                    continue;
+                }
+                valid++;
+                double y = values[i] - compensation;
+                double t = sum + y;
+                compensation = (t - sum) - y;
+                sum = t;
+            }
+        }
+
+        double average() {
+            if (count == 0) {
+                return 0;
+            }
+            return valid == 0 ? Double.NaN : (sum - compensation) / valid;
+        }
+    }
+
+    /**
+     * Accumulates file results into growable columns; {@link #build()} trims them into a ResultStore.
+     * Method objects are not retained.
+     */
+    public static class Builder {
+        private final List<String> names = new ArrayList<>();
+        private final Map<String, Integer> nameIds = new HashMap<>();
+        private final Map<String, Integer> classIndex = new HashMap<>();
+        private final Map<String, Integer> packageIndex = new HashMap<>();
+
+        private int methodCount;
+        private int[] methodNameIds = new int[1024];
+        private double[] halsteadVolumes = new double[1024];
+        private int[] cyclomaticComplexities = new int[1024];
+        private int[] locs = new int[1024];
+        private double[] maintainabilityIndexes = new double[1024];
+
+        private int classCount;
+        private int[] classNameIds = new int[256];
+        private int[] classStarts = new int[256];
+        private int[] classEnds = new int[256];
+
+        private int packageCount;
+        private int[] packageNameIds = new int[64];
+        /** Last range of each package, extended when the next methods of the package follow directly */
+        private int[] packageLastRanges = new int[64];
+
+        private int rangeCount;
+        private int[] rangePackages = new int[256];
+        private int[] rangeStarts = new int[256];
+        private int[] rangeEnds = new int[256];
+
+        /**
+         * Append the results of one file.
+         * @param fileResult Results of a single file
+         */
+        public void add(FileResult fileResult) {
+            for (Map.Entry<String, ArrayList<MethodInfo>> entry : fileResult.classMethods.entrySet()) {
+                int start = methodCount;
+                for (MethodInfo m : entry.getValue()) {
+                    addMethod(m);
+                }
+                int end = methodCount;
+                String className = fileResult.qualifiedClassName(entry.getKey());
+                Integer c = classIndex.get(className);
+                if (c == null) {
+                    c = classCount++;
+                    classIndex.put(className, c);
+                    if (c == classNameIds.length) {
+                        classNameIds = Arrays.copyOf(classNameIds, c * 2);
+                        classStarts = Arrays.copyOf(classStarts, c * 2);
+                        classEnds = Arrays.copyOf(classEnds, c * 2);
+                    }
+                    classNameIds[c] = intern(className);
+                }
+                classStarts[c] = start;
+                classEnds[c] = end;
+                if (end > start) {
+                    addPackageRange(fileResult.packageName, start, end);
+                }
+            }
+        }
+
+        private void addMethod(MethodInfo m) {
+            if (methodCount == locs.length) {
+                int capacity = methodCount * 2;
+                methodNameIds = Arrays.copyOf(methodNameIds, capacity);
+                halsteadVolumes = Arrays.copyOf(halsteadVolumes, capacity);
+                cyclomaticComplexities = Arrays.copyOf(cyclomaticComplexities, capacity);
+                locs = Arrays.copyOf(locs, capacity);
+                maintainabilityIndexes = Arrays.copyOf(maintainabilityIndexes, capacity);
+            }
+            methodNameIds[methodCount] = intern(m.name);
+            halsteadVolumes[methodCount] = m.halsteadVolume;
+            cyclomaticComplexities[methodCount] = m.cyclomaticComplexity;
+            locs[methodCount] = m.loc;
+            maintainabilityIndexes[methodCount] = m.maintainabilityIndex;
+            methodCount++;
+        }
+
+        private void addPackageRange(String packageName, int start, int end) {
+            Integer p = packageIndex.get(packageName);
+            if (p == null) {
+                p = packageCount++;
+                packageIndex.put(packageName, p);
+                if (p == packageNameIds.length) {
+                    packageNameIds = Arrays.copyOf(packageNameIds, p * 2);
+                    packageLastRanges = Arrays.copyOf(packageLastRanges, p * 2);
+                }
+                packageNameIds[p] = intern(packageName);
+            } else if (rangeEnds[packageLastRanges[p]] == start) {
+                rangeEnds[packageLastRanges[p]] = end;
+                return;
+            }
+            if (rangeCount == rangeStarts.length) {
+                rangePackages = Arrays.copyOf(rangePackages, rangeCount * 2);
+                rangeStarts = Arrays.copyOf(rangeStarts, rangeCount * 2);
+                rangeEnds = Arrays.copyOf(rangeEnds, rangeCount * 2);
+            }
+            rangePackages[rangeCount] = p;
+            rangeStarts[rangeCount] = start;
+            rangeEnds[rangeCount] = end;
+            packageLastRanges[p] = rangeCount++;
+        }
+
+        private int intern(String name) {
+            Integer id = nameIds.get(name);
+            if (id == null) {
+                id = names.size();
+                names.add(name);
+                nameIds.put(name, id);
+            }
+            return id;
+        }
+
+        /** @return Store holding all results added so far */
+        public ResultStore build() {
+            return new ResultStore(this);
+        }
+    }
+}
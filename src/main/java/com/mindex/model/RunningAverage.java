@@ -0,0 +1,56 @@
+package com.mindex.model;
+
+/**
+ * Running sum and count of a metric, so averages can be reported without keeping every value.
+ * Values are added with Kahan summation, like {@link ResultStore} and DoubleStream.average(), so streamed
+ * averages do not drift from the batch results on large projects. Undefined values (NaN, such as the MI of
+ * an empty method) are counted but left out of the average.
+ */
+public class RunningAverage {
+    /** Number of values added, including undefined ones */
+    public long count;
+    /** Number of undefined (NaN) values added */
+    public long invalid;
+    /** Sum of all values added, without the compensation */
+    public double sum;
+    /** Low-order bits lost from sum, to be subtracted */
+    private double compensation;
+
+    /**
+     * Add a value to the running average.
+     * @param value Value to add
+     */
+    public void add(double value) {
+        count++;
+        if (Double.isNaN(value)) {
+            invalid++;
+            return;
+        }
+        double y = value - compensation;
+        double t = sum + y;
+        compensation = (t - sum) - y;
+        sum = t;
+    }
+
+    /**
+     * @return Average of the defined values added, 0 if none were added, or NaN if all of them were undefined
+     */
+    public double average() {
+        if (count == 0) {
+            return 0;
+        }
+        return count == invalid ? Double.NaN : (sum - compensation) / (count - invalid);
+    }
+
+    /**
+     * @param methods Methods to average
+     * @return Running average of the MI of the methods
+     */
+    public static RunningAverage of(Iterable<MethodInfo> methods) {
+        RunningAverage average = new RunningAverage();
+        for (MethodInfo m : methods) {
+            average.add(m.maintainabilityIndex);
+        }
+        return average;
+    }
+}
@@ -0,0 +1,58 @@
+package com.mindex.model;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Keeps the first k items of a stream in a given order with a bounded heap, in O(n log k)
+ * time and O(k) memory instead of sorting everything.
+ * @param <T> Item type
+ */
+public class TopK<T> {
+    private final int k;
+    private final Comparator<? super T> order;
+    /** Head is the last-ranked item kept, the first to be evicted */
+    private final PriorityQueue<T> heap;
+
+    /**
+     * @param k Number of items to keep
+     * @param order Ranking order; items that compare lower are kept
+     */
+    public TopK(int k, Comparator<? super T> order) {
+        this.k = k;
+        this.order = order;
+        this.heap = new PriorityQueue<>(Math.max(1, k + 1), order.reversed());
+    }
+
+    /**
+     * Offer an item; it is kept if it ranks among the first k seen so far.
+     * @param item Candidate item
+     */
+    public void offer(T item) {
+        if (heap.size() < k) {
+            heap.add(item);
+        } else if (k > 0 && order.compare(item, heap.peek()) < 0) {
+            heap.poll();
+            heap.add(item);
+        }
+    }
+
+    /**
+     * Offer all items kept by another TopK.
+     * @param other TopK to merge into this one
+     */
+    public void merge(TopK<? extends T> other) {
+        for (T item : other.heap) {
+            offer(item);
+        }
+    }
+
+    /** @return Kept items, first-ranked first */
+    public List<T> toList() {
+        List<T> items = new ArrayList<>(heap);
+        items.sort(order);
+        return items;
+    }
+}
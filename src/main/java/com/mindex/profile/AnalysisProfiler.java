@@ -0,0 +1,241 @@
+package com.mindex.profile;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects per-phase timing, allocation and throughput of an analysis run, the slowest files to parse,
+ * and emits a JDK Flight Recorder event per phase and file.
+ * <p>
+ * Phases are measured with spans: {@code Span span = profiler.begin(Phase.PARSE, file); ...; span.end(size);}.
+ * Time and allocation are summed over all threads. {@link #DISABLED} hands out a shared no-op span,
+ * so an analyzer without profiling pays only for a virtual call per phase.
+ */
+public class AnalysisProfiler {
+    /** Profiler that records nothing */
+    public static final AnalysisProfiler DISABLED = new AnalysisProfiler(0, false);
+
+    /** Analysis phases, in pipeline order */
+    public enum Phase { DISCOVER, READ, PARSE, MEASURE, EXPORT }
+
+    private static final Span NO_OP = new Span(null, null, null) {
+        @Override
+        public void end(long size) {
+        }
+    };
+    private static final com.sun.management.ThreadMXBean THREADS = allocationCounter();
+
+    private final boolean enabled;
+    private final int slowFileCount;
+    private final long startNanos = System.nanoTime();
+    private final LongAdder[] calls = newAdders();
+    private final LongAdder[] nanos = newAdders();
+    private final LongAdder[] allocated = newAdders();
+    private final LongAdder files = new LongAdder();
+    private final LongAdder methods = new LongAdder();
+    /** Min-heap of the slowest parsed files; the fastest of them is evicted first */
+    private final PriorityQueue<SlowFile> slowFiles = new PriorityQueue<>(Comparator.comparingLong((SlowFile f) -> f.nanos));
+
+    /**
+     * Create an enabled profiler.
+     * @param slowFileCount Number of slowest files to parse to report
+     */
+    public AnalysisProfiler(int slowFileCount) {
+        this(slowFileCount, true);
+    }
+
+    private AnalysisProfiler(int slowFileCount, boolean enabled) {
+        this.slowFileCount = slowFileCount;
+        this.enabled = enabled;
+    }
+
+    private static LongAdder[] newAdders() {
+        LongAdder[] adders = new LongAdder[Phase.values().length];
+        for (int i = 0; i < adders.length; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+            if (threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+                return threads;
+            }
+        }
+        return null;
+    }
+
+    private static long allocatedBytes() {
+        return THREADS == null ? 0 : THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /** @return true if this profiler records anything */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Start measuring a phase on the calling thread; the returned span must be ended on the same thread.
+     * @param phase Phase being measured
+     * @param file File being processed, or null for phases not tied to a file
+     * @return Span to end when the phase is done
+     */
+    public Span begin(Phase phase, Path file) {
+        return enabled ? new Span(this, phase, file) : NO_OP;
+    }
+
+    /**
+     * Count a file result delivered to the sink, for files/s and methods/s.
+     * @param methodCount Number of methods in the file
+     */
+    public void recordFile(int methodCount) {
+        if (enabled) {
+            files.increment();
+            methods.add(methodCount);
+        }
+    }
+
+    private void record(Span span, long size) {
+        long elapsed = System.nanoTime() - span.startNanos;
+        long bytes = allocatedBytes() - span.startAllocated;
+        int i = span.phase.ordinal();
+        calls[i].increment();
+        nanos[i].add(elapsed);
+        allocated[i].add(bytes);
+        if (span.phase == Phase.PARSE && span.file != null && slowFileCount > 0) {
+            synchronized (slowFiles) {
+                if (slowFiles.size() < slowFileCount || slowFiles.peek().nanos < elapsed) {
+                    slowFiles.add(new SlowFile(span.file, size, elapsed));
+                    if (slowFiles.size() > slowFileCount) {
+                        slowFiles.poll();
+                    }
+                }
+            }
+        }
+        PhaseEvent event = span.event;
+        event.end();
+        if (event.shouldCommit()) {
+            event.phase = span.phase.name().toLowerCase();
+            event.file = span.file == null ? null : span.file.toString();
+            event.size = size;
+            event.allocated = bytes;
+            event.commit();
+        }
+    }
+
+    /** @return Number of spans ended for a phase */
+    public long getCalls(Phase phase) {
+        return calls[phase.ordinal()].sum();
+    }
+
+    /** @return Time spent in a phase, summed over all threads */
+    public double getMillis(Phase phase) {
+        return nanos[phase.ordinal()].sum() / 1e6;
+    }
+
+    /** @return Bytes allocated in a phase, summed over all threads (0 if the JVM cannot measure it) */
+    public long getAllocatedBytes(Phase phase) {
+        return allocated[phase.ordinal()].sum();
+    }
+
+    /** @return Number of file results delivered */
+    public long getFiles() {
+        return files.sum();
+    }
+
+    /** @return Number of methods in the delivered file results */
+    public long getMethods() {
+        return methods.sum();
+    }
+
+    /** @return Slowest files to parse, slowest first */
+    public List<SlowFile> getSlowFiles() {
+        List<SlowFile> result;
+        synchronized (slowFiles) {
+            result = new ArrayList<>(slowFiles);
+        }
+        result.sort(Comparator.comparingLong((SlowFile f) -> f.nanos).reversed());
+        return result;
+    }
+
+    /**
+     * Print the profile summary to stderr: throughput, per-phase time and allocation, and the slowest files.
+     */
+    public void printSummary() {
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        System.err.println("\n[Profile]");
+        System.err.printf("  wall: %.1f s | files: %d (%.1f files/s) | methods: %d (%.1f methods/s)\n",
+                seconds, getFiles(), getFiles() / seconds, getMethods(), getMethods() / seconds);
+        for (Phase phase : Phase.values()) {
+            System.err.printf("  %-8s | calls: %7d | time: %10.1f ms | alloc: %9.1f MB\n",
+                    phase.name().toLowerCase(), getCalls(phase), getMillis(phase), getAllocatedBytes(phase) / 1048576.0);
+        }
+        List<SlowFile> slowest = getSlowFiles();
+        if (!slowest.isEmpty()) {
+            System.err.println("  Slowest files to parse:");
+            for (SlowFile file : slowest) {
+                System.err.printf("    %8.1f ms | %8.1f KB | %s\n", file.nanos / 1e6, file.size / 1024.0, file.file);
+            }
+        }
+    }
+
+    /**
+     * A running phase measurement.
+     */
+    public static class Span {
+        private final AnalysisProfiler profiler;
+        private final Phase phase;
+        private final Path file;
+        private final long startNanos;
+        private final long startAllocated;
+        private final PhaseEvent event;
+
+        private Span(AnalysisProfiler profiler, Phase phase, Path file) {
+            this.profiler = profiler;
+            this.phase = phase;
+            this.file = file;
+            if (profiler == null) {
+                this.startNanos = 0;
+                this.startAllocated = 0;
+                this.event = null;
+                return;
+            }
+            this.event = new PhaseEvent();
+            this.event.begin();
+            this.startAllocated = allocatedBytes();
+            this.startNanos = System.nanoTime();
+        }
+
+        /**
+         * End the phase.
+         * @param size Size of the processed input (bytes of the file, or number of files for discovery)
+         */
+        public void end(long size) {
+            profiler.record(this, size);
+        }
+    }
+
+    /** A file that was slow to parse */
+    public static class SlowFile {
+        /** Path of the file */
+        public final Path file;
+        /** File size in bytes */
+        public final long size;
+        /** Parse time in nanoseconds */
+        public final long nanos;
+
+        SlowFile(Path file, long size, long nanos) {
+            this.file = file;
+            this.size = size;
+            this.nanos = nanos;
+        }
+    }
+}
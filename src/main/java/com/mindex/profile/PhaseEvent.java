@@ -0,0 +1,34 @@
+package com.mindex.profile;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JDK Flight Recorder event emitted for every profiled analysis phase of a file, so analyzer time
+ * and allocation can be correlated with GC and other JVM events in a recording.
+ */
+@Name("com.mindex.AnalysisPhase")
+@Label("Analysis Phase")
+@Description("Time and allocation of one analysis phase")
+@Category("J-MIndex")
+@StackTrace(false)
+class PhaseEvent extends Event {
+    @Label("Phase")
+    String phase;
+
+    @Label("File")
+    String file;
+
+    @Label("Size")
+    @Description("File size in bytes, or number of files for discovery")
+    long size;
+
+    @Label("Allocated")
+    @DataAmount
+    long allocated;
+}
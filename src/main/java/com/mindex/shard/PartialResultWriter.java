@@ -0,0 +1,96 @@
+package com.mindex.shard;
+
+import com.mindex.analyzer.ResultSink;
+import com.mindex.model.FileResult;
+import com.mindex.model.MethodInfo;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Sink that writes the results of one shard to a compact binary partial-result file.
+ * <p>
+ * Format: header (magic, format version, shard index, shard count), then one record per file in the
+ * order received (root-relative path, package, classes with their methods), an end marker and a
+ * CRC32 of everything before it. Files arrive in sorted path order, which lets
+ * {@link PartialResults#merge} combine partials with a streaming k-way merge.
+ */
+public class PartialResultWriter implements ResultSink {
+    static final int MAGIC = 0x4A4D4950; // "JMIP"
+    static final int FORMAT_VERSION = 1;
+
+    private final Path root;
+    private final Path outFile;
+    private final CRC32 crc = new CRC32();
+    private final OutputStream raw;
+    private final DataOutputStream out;
+    private int files;
+
+    /**
+     * Create the partial-result file and write its header.
+     * @param root Root directory of the analyzed project, used to store root-relative paths
+     * @param shard Shard being analyzed
+     * @param outFile Partial-result file to write
+     * @throws IOException if the file cannot be created
+     */
+    public PartialResultWriter(Path root, Shard shard, Path outFile) throws IOException {
+        this.root = root.toAbsolutePath().normalize();
+        this.outFile = outFile;
+        this.raw = new BufferedOutputStream(Files.newOutputStream(outFile), 1 << 16);
+        this.out = new DataOutputStream(new CheckedOutputStream(raw, crc));
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.writeInt(shard.getIndex());
+        out.writeInt(shard.getCount());
+    }
+
+    @Override
+    public void accept(FileResult fileResult) {
+        try {
+            Path file = Paths.get(fileResult.path).toAbsolutePath().normalize();
+            out.writeBoolean(true);
+            out.writeUTF(root.relativize(file).toString().replace('\\', '/'));
+            out.writeUTF(fileResult.packageName);
+            out.writeInt(fileResult.classMethods.size());
+            for (Map.Entry<String, ArrayList<MethodInfo>> c : fileResult.classMethods.entrySet()) {
+                out.writeUTF(c.getKey());
+                out.writeInt(c.getValue().size());
+                for (MethodInfo m : c.getValue()) {
+                    out.writeUTF(m.name);
+                    out.writeDouble(m.halsteadVolume);
+                    out.writeInt(m.cyclomaticComplexity);
+                    out.writeInt(m.loc);
+                    out.writeDouble(m.maintainabilityIndex);
+                }
+            }
+            files++;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Write the end marker and checksum and close the file.
+     */
+    @Override
+    public void close() {
+        try {
+            out.writeBoolean(false);
+            out.flush();
+            new DataOutputStream(raw).writeLong(crc.getValue());
+            raw.close();
+            System.out.println("Partial results of " + files + " files written to: " + outFile);
+        } catch (IOException e) {
+            System.err.println("Failed to write partial results: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.mindex.shard;
+
+import com.mindex.analyzer.AnalysisResultCollector;
+import com.mindex.analyzer.ResultSink;
+import com.mindex.model.AnalysisResult;
+import com.mindex.model.FileResult;
+import com.mindex.model.MethodInfo;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+
+/**
+ * Merges the partial-result files of all shards of a run.
+ * Files are delivered in the same global path order as a single-process run, so every sink
+ * (collectors, exporters, aggregates) produces identical output. Only one file per partial is
+ * held in memory at a time.
+ */
+public class PartialResults {
+    /**
+     * Merge partial results into one AnalysisResult.
+     * @param partials Partial-result files, one per shard
+     * @return Combined AnalysisResult
+     * @throws IOException if a partial cannot be read, is corrupt, or shards are missing or duplicated
+     */
+    public static AnalysisResult merge(List<Path> partials) throws IOException {
+        AnalysisResultCollector collector = new AnalysisResultCollector();
+        merge(partials, collector);
+        return collector.getResult();
+    }
+
+    /**
+     * Merge partial results and stream the files to a sink in global path order.
+     * @param partials Partial-result files, one per shard
+     * @param sink Receiver of the per-file results; closed when all files are delivered, or when merging fails
+     * @throws IOException if a partial cannot be read, is corrupt, or shards are missing or duplicated
+     */
+    public static void merge(List<Path> partials, ResultSink sink) throws IOException {
+        List<Reader> readers = new ArrayList<>();
+        try {
+            BitSet seen = new BitSet();
+            int shardCount = -1;
+            for (Path partial : partials) {
+                Reader reader = new Reader(partial);
+                readers.add(reader);
+                if (shardCount >= 0 && reader.shardCount != shardCount) {
+                    throw new IOException(partial + " belongs to a run with " + reader.shardCount + " shards, expected " + shardCount);
+                }
+                if (seen.get(reader.shardIndex)) {
+                    throw new IOException("Shard " + reader.shardIndex + " given twice (" + partial + ")");
+                }
+                shardCount = reader.shardCount;
+                seen.set(reader.shardIndex);
+            }
+            if (shardCount < 0 || seen.cardinality() != shardCount) {
+                throw new IOException("Missing partial results: got " + seen.cardinality() + " of " + Math.max(shardCount, 0) + " shards");
+            }
+            PriorityQueue<Reader> queue = new PriorityQueue<>((a, b) -> a.key.compareTo(b.key));
+            for (Reader reader : readers) {
+                if (reader.next()) {
+                    queue.add(reader);
+                }
+            }
+            while (!queue.isEmpty()) {
+                Reader reader = queue.poll();
+                sink.accept(reader.current);
+                if (reader.next()) {
+                    queue.add(reader);
+                }
+            }
+        } finally {
+            try {
+                for (Reader reader : readers) {
+                    reader.in.close();
+                }
+            } finally {
+                sink.close();
+            }
+        }
+    }
+
+    /**
+     * Sequential reader of one partial-result file.
+     */
+    private static class Reader {
+        private final Path file;
+        private final CRC32 crc = new CRC32();
+        private final InputStream raw;
+        private final DataInputStream in;
+        final int shardIndex;
+        final int shardCount;
+        /** Current file and its path as a sort key */
+        FileResult current;
+        Path key;
+
+        Reader(Path file) throws IOException {
+            this.file = file;
+            this.raw = new BufferedInputStream(Files.newInputStream(file), 1 << 16);
+            this.in = new DataInputStream(new CheckedInputStream(raw, crc));
+            if (in.readInt() != PartialResultWriter.MAGIC || in.readInt() != PartialResultWriter.FORMAT_VERSION) {
+                in.close();
+                throw new IOException(file + " is not a partial-result file of this version");
+            }
+            shardIndex = in.readInt();
+            shardCount = in.readInt();
+        }
+
+        /**
+         * Read the next file record.
+         * @return false at the end of the file, after verifying its checksum
+         */
+        boolean next() throws IOException {
+            if (!in.readBoolean()) {
+                long expected = crc.getValue();
+                if (new DataInputStream(raw).readLong() != expected) {
+                    throw new IOException(file + ": checksum mismatch");
+                }
+                current = null;
+                return false;
+            }
+            String path = in.readUTF();
+            FileResult result = new FileResult(path, in.readUTF());
+            int classCount = in.readInt();
+            for (int c = 0; c < classCount; c++) {
+                String className = in.readUTF();
+                int methodCount = in.readInt();
+                ArrayList<MethodInfo> methods = new ArrayList<>(methodCount);
+                for (int m = 0; m < methodCount; m++) {
+                    methods.add(new MethodInfo(in.readUTF(), in.readDouble(), in.readInt(), in.readInt(), in.readDouble()));
+                }
+                result.classMethods.put(className, methods);
+            }
+            current = result;
+            key = Paths.get(path);
+            return true;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.mindex.shard;
+
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+/**
+ * Selects shard i of N of a project's files by a stable hash of each file's root-relative path,
+ * so every process or CI executor picks the same disjoint subset without coordination.
+ */
+public class Shard {
+    private final int index;
+    private final int count;
+
+    /**
+     * @param index Shard number, from 0 to count - 1
+     * @param count Total number of shards
+     * @throws IllegalArgumentException if the index is out of range
+     */
+    public Shard(int index, int count) {
+        if (count < 1 || index < 0 || index >= count) {
+            throw new IllegalArgumentException("Invalid shard " + index + "/" + count);
+        }
+        this.index = index;
+        this.count = count;
+    }
+
+    /**
+     * Parse a shard specification of the form "i/N".
+     * @param spec Shard specification
+     * @return Parsed shard
+     * @throws IllegalArgumentException if the specification is malformed or out of range
+     */
+    public static Shard parse(String spec) {
+        int slash = spec.indexOf('/');
+        if (slash < 0) {
+            throw new IllegalArgumentException("Expected <index>/<count>: " + spec);
+        }
+        try {
+            return new Shard(Integer.parseInt(spec.substring(0, slash).trim()), Integer.parseInt(spec.substring(slash + 1).trim()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Expected <index>/<count>: " + spec);
+        }
+    }
+
+    /**
+     * @param relativePath File path relative to the project root, with '/' separators
+     * @return true if the file belongs to this shard
+     */
+    public boolean contains(String relativePath) {
+        CRC32 crc = new CRC32();
+        crc.update(relativePath.getBytes(StandardCharsets.UTF_8));
+        return Math.floorMod(crc.getValue(), (long) count) == index;
+    }
+
+    /** @return Shard number */
+    public int getIndex() {
+        return index;
+    }
+
+    /** @return Total number of shards */
+    public int getCount() {
+        return count;
+    }
+
+    @Override
+    public String toString() {
+        return index + "/" + count;
+    }
+}
@@ -0,0 +1,101 @@
+package com.mindex.analyzer;
+
+import com.mindex.model.AggregateNode;
+import com.mindex.model.FileResult;
+import com.mindex.model.MethodInfo;
+import com.mindex.model.RankedMethod;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AggregateCollectorTest {
+    @TempDir
+    Path tempDir;
+
+    private static FileResult file(String packageName, String className, int firstMI, int methods) {
+        FileResult result = new FileResult(className + ".java", packageName);
+        ArrayList<MethodInfo> list = new ArrayList<>();
+        for (int i = 0; i < methods; i++) {
+            list.add(new MethodInfo("m" + i, 10, 1 + i, 5, firstMI + i));
+        }
+        result.classMethods.put(className, list);
+        return result;
+    }
+
+    @Test
+    void testTreeKeepsSameNamedClassesApart() {
+        AggregateCollector collector = new AggregateCollector(3);
+        collector.accept(file("a", "Util", 1, 100));
+        collector.accept(file("b", "Util", 50, 10));
+        AggregateNode project = collector.getProject();
+        assertEquals(110, project.getCount());
+        assertEquals(2, project.getChildren().size());
+        AggregateNode a = project.getChild("a").getChild("Util");
+        assertEquals("a.Util", a.getName());
+        assertEquals(100, a.getCount());
+        assertEquals(50.5, a.getAverage(), 1e-9);
+        assertEquals(1, a.getMin());
+        assertEquals(100, a.getMax());
+        assertEquals(50, a.getQuantile(0.5), 0.25);
+        assertEquals(90, a.getQuantile(0.9), 0.25);
+        assertEquals(99, a.getQuantile(0.99), 0.25);
+        assertEquals("b.Util", project.getChild("b").getChild("Util").getName());
+
+        List<RankedMethod> lowest = collector.getLowestMI().toList();
+        assertEquals(3, lowest.size());
+        assertEquals(List.of(1.0, 2.0, 3.0), List.of(lowest.get(0).method.maintainabilityIndex, lowest.get(1).method.maintainabilityIndex, lowest.get(2).method.maintainabilityIndex));
+        assertEquals(100, collector.getHighestCC().toList().get(0).method.cyclomaticComplexity);
+    }
+
+    @Test
+    void testNestedClassesAreKeyedByQualifiedName() throws IOException {
+        Files.writeString(tempDir.resolve("A.java"), "package p; class A { void a() {} static class Inner { int f() { return 1; } } }");
+        Files.writeString(tempDir.resolve("B.java"), "package p; class B { class Inner { int g() { return 2; } void h() {} } }");
+        AggregateCollector collector = new AggregateCollector(10);
+        new JavaAnalyzer().analyzeProject(tempDir.toString(), collector);
+        AggregateNode p = collector.getProject().getChild("p");
+        assertEquals(List.of("p.A", "p.A.Inner", "p.B", "p.B.Inner"), p.getChildren().stream().map(AggregateNode::getName).collect(Collectors.toList()));
+        assertEquals(1, p.getChild("A.Inner").getCount());
+        assertEquals(2, p.getChild("B.Inner").getCount());
+        // Empty methods have no MI: counted, but left out of the statistics and the lowest-MI ranking
+        assertEquals(1, p.getChild("B.Inner").getInvalidCount());
+        assertEquals(p.getChild("B.Inner").getMin(), p.getChild("B.Inner").getAverage());
+        assertEquals(p.getChild("A.Inner").getAverage(), p.getChild("A").getAverage());
+        assertTrue(collector.getLowestMI().toList().stream().noneMatch(r -> Double.isNaN(r.method.maintainabilityIndex)));
+        // Methods of nested classes also count for the enclosing class
+        assertEquals(Set.of("p.B", "p.B.Inner"), collector.getLowestMI().toList().stream()
+                .filter(r -> r.method.name.equals("g")).map(r -> r.className).collect(Collectors.toSet()));
+    }
+
+    @Test
+    void testMergeEqualsSingleCollector() {
+        AggregateCollector all = new AggregateCollector(5);
+        AggregateCollector first = new AggregateCollector(5);
+        AggregateCollector second = new AggregateCollector(5);
+        FileResult[] files = {file("a", "A", 20, 30), file("b", "B", 5, 40), file("a", "C", 60, 20)};
+        for (int i = 0; i < files.length; i++) {
+            all.accept(files[i]);
+            (i == 1 ? second : first).accept(files[i]);
+        }
+        first.merge(second);
+        AggregateNode merged = first.getProject();
+        assertEquals(all.getProject().getCount(), merged.getCount());
+        assertEquals(all.getProject().getSum(), merged.getSum(), 1e-9);
+        for (double q : new double[] {0.5, 0.9, 0.99}) {
+            assertEquals(all.getProject().getQuantile(q), merged.getQuantile(q));
+        }
+        assertEquals(all.getProject().getChild("a").getCount(), merged.getChild("a").getCount());
+        List<RankedMethod> expected = all.getLowestMI().toList();
+        List<RankedMethod> actual = first.getLowestMI().toList();
+        for (int i = 0; i < expected.size(); i++) {
+            assertSame(expected.get(i).method, actual.get(i).method);
+        }
+    }
+}
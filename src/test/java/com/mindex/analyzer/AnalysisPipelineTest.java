@@ -0,0 +1,38 @@
+package com.mindex.analyzer;
+
+import com.mindex.model.FileResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AnalysisPipelineTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testPipelineDeliversSameResultsInOrder() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            Path dir = Files.createDirectories(tempDir.resolve("p" + (i % 3)));
+            Files.writeString(dir.resolve("C" + i + ".java"),
+                    "package p" + (i % 3) + ";\nclass C" + i + " {\n  int f(int x) {\n    if (x > " + i + ") {\n      return x;\n    }\n    return -x;\n  }\n}\n");
+        }
+        Files.writeString(tempDir.resolve("Broken.java"), "class Broken { void f( }");
+
+        List<FileResult> expected = new ArrayList<>();
+        new JavaAnalyzer().analyzeProject(tempDir.toString(), expected::add);
+        List<FileResult> actual = new ArrayList<>();
+        new AnalysisPipeline(new JavaAnalyzer(), 2, 3, 2, 1).run(tempDir.toString(), actual::add);
+
+        assertEquals(20, expected.size());
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).path, actual.get(i).path);
+            assertEquals(expected.get(i).packageName, actual.get(i).packageName);
+            assertEquals(expected.get(i).classMethods.keySet(), actual.get(i).classMethods.keySet());
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.mindex.analyzer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FileDiscoveryTest {
+    @TempDir
+    Path tempDir;
+
+    private void touch(String relative) throws IOException {
+        Path file = tempDir.resolve(relative);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, "class X {}");
+    }
+
+    private List<String> discover(FileDiscovery discovery) throws IOException {
+        return discovery.discover(tempDir).stream()
+                .map(p -> tempDir.relativize(p).toString().replace('\\', '/'))
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    void testDefaultExcludes() throws Exception {
+        touch("src/main/java/b/B.java");
+        touch("src/main/java/a/A.java");
+        touch("src/main/java/a/notes.txt");
+        touch("src/test/java/a/ATest.java");
+        touch("target/generated/G.java");
+        touch("test/T.java");
+        assertEquals(List.of("src/main/java/a/A.java", "src/main/java/b/B.java"), discover(new FileDiscovery()));
+    }
+
+    @Test
+    void testBuildOutputOnlyAtRootOrNextToBuildFile() throws Exception {
+        touch("build/generated/G.java");
+        touch("module/target/classes/M.java");
+        Files.writeString(tempDir.resolve("module/pom.xml"), "<project/>");
+        touch("module/src/main/java/com/x/build/Foo.java");
+        touch("module/src/main/java/com/x/target/Bar.java");
+        touch("app/build/Out.java");
+        Files.writeString(tempDir.resolve("app/build.gradle.kts"), "");
+        List<String> expected = List.of("module/src/main/java/com/x/build/Foo.java", "module/src/main/java/com/x/target/Bar.java");
+        FileDiscovery discovery = new FileDiscovery();
+        assertEquals(expected, discover(discovery));
+        assertTrue(discovery.selects("module/src/main/java/com/x/build/Foo.java"));
+        assertFalse(discovery.selects("build/generated/G.java"));
+    }
+
+    @Test
+    void testIncludeAndExcludeGlobs() throws Exception {
+        touch("core/src/Core.java");
+        touch("core/src/internal/Impl.java");
+        touch("web/src/Web.java");
+        FileDiscovery discovery = new FileDiscovery(List.of("core/**"), List.of("**/internal/**"), false);
+        assertEquals(List.of("core/src/Core.java"), discover(discovery));
+    }
+
+    @Test
+    void testGitignore() throws Exception {
+        touch("src/A.java");
+        touch("src/Generated.java");
+        touch("gen/B.java");
+        touch("lib/sub/C.java");
+        touch("lib/sub/Keep.java");
+        Files.writeString(tempDir.resolve(".gitignore"), "# generated code\ngen/\nGenerated.java\n");
+        Files.writeString(tempDir.resolve("lib/.gitignore"), "sub/*.java\n!sub/Keep.java\n");
+        assertEquals(List.of("lib/sub/Keep.java", "src/A.java"), discover(new FileDiscovery(List.of(), List.of(), true)));
+        assertEquals(5, discover(new FileDiscovery(List.of(), List.of(), false)).size());
+    }
+}
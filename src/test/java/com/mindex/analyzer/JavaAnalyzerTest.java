@@ -0,0 +1,208 @@
+package com.mindex.analyzer;
+
+import com.mindex.cache.AnalysisCache;
+import com.mindex.export.ResultExporter;
+import com.mindex.metrics.MaintainabilityIndexCalculator;
+import com.mindex.model.AnalysisResult;
+import com.mindex.model.FileResult;
+import com.mindex.model.MethodInfo;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JavaAnalyzerTest {
+    @TempDir
+    Path tempDir;
+
+    private Path zip(String name, String... entries) throws IOException {
+        Path archive = tempDir.resolve(name);
+        try (OutputStream out = Files.newOutputStream(archive); ZipOutputStream zip = new ZipOutputStream(out)) {
+            for (int i = 0; i < entries.length; i += 2) {
+                zip.putNextEntry(new ZipEntry(entries[i]));
+                zip.write(entries[i + 1].getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+        }
+        return archive;
+    }
+
+    @Test
+    void testAnalyzeArchives() throws IOException {
+        String a = "package p; class A { int f(int x) { if (x > 1) { return x; } return 0; } }";
+        Path first = zip("lib-sources.jar",
+                "p/B.java", "package p; class B { void g() {} void h() { int y = 1; } }",
+                "p/A.java", a,
+                "META-INF/MANIFEST.MF", "Manifest-Version: 1.0\n",
+                "src/test/java/p/ATest.java", "package p; class ATest { void t() {} }");
+        Path second = zip("drop.zip", "q/C.java", "package q; class C { void k() {} }");
+
+        for (int threads : new int[] {1, 4}) {
+            List<FileResult> results = new ArrayList<>();
+            new JavaAnalyzer.Builder().threads(threads).build().analyzeArchives(Arrays.asList(first, second), results::add);
+            List<String> paths = new ArrayList<>();
+            for (FileResult result : results) {
+                paths.add(result.path);
+            }
+            assertEquals(Arrays.asList(first + "!/p/A.java", first + "!/p/B.java", second + "!/q/C.java"), paths);
+            assertEquals(2, results.get(1).classMethods.get("B").size());
+            assertEquals("q", results.get(2).packageName);
+        }
+
+        // Entries give the same metrics as the file on disk
+        Path onDisk = tempDir.resolve("A.java");
+        Files.writeString(onDisk, a);
+        MethodInfo expected = new JavaAnalyzer().analyzeFile(onDisk).classMethods.get("A").get(0);
+        List<FileResult> results = new ArrayList<>();
+        new JavaAnalyzer().analyzeArchives(Arrays.asList(first), results::add);
+        MethodInfo actual = results.get(0).classMethods.get("A").get(0);
+        assertEquals(expected.maintainabilityIndex, actual.maintainabilityIndex);
+        assertEquals(expected.loc, actual.loc);
+    }
+
+    private static List<String> describe(AnalysisResult result) {
+        List<String> lines = new ArrayList<>();
+        for (MethodInfo m : result.allMethods) {
+            lines.add(m.name + " " + m.loc + " " + m.cyclomaticComplexity + " " + m.halsteadVolume + " " + m.maintainabilityIndex);
+        }
+        result.classMethods.forEach((name, methods) -> lines.add("class " + name + " " + methods.size()));
+        result.packageMethods.forEach((name, methods) -> lines.add("package " + name + " " + methods.size()));
+        return lines;
+    }
+
+    @Test
+    void testThreadCountDoesNotChangeResults() throws IOException {
+        // Files of very different sizes, so parallel workers finish out of order
+        for (int i = 0; i < 24; i++) {
+            Path dir = Files.createDirectories(tempDir.resolve("p" + i % 3).resolve("sub" + i % 2));
+            StringBuilder source = new StringBuilder("package p" + i % 3 + ".sub" + i % 2 + "; class C" + i + " {\n");
+            for (int m = 0; m <= (i * 7) % 11; m++) {
+                source.append("    int m").append(m).append("(int x) {\n");
+                for (int s = 0; s < (i + m) % 9; s++) {
+                    source.append("        if (x > ").append(s).append(") { x = x * ").append(s + 2).append(" - ").append(i).append("; }\n");
+                }
+                source.append("        return x;\n    }\n");
+            }
+            Files.writeString(dir.resolve("C" + i + ".java"), source.append("}\n"));
+        }
+
+        List<String> sequential = describe(new JavaAnalyzer().analyzeProject(tempDir.toString()));
+        List<String> parallel = describe(new JavaAnalyzer.Builder().threads(4).build().analyzeProject(tempDir.toString()));
+        assertEquals(24 + 6, sequential.stream().filter(line -> line.startsWith("class ") || line.startsWith("package ")).count());
+        assertEquals(sequential, parallel);
+    }
+
+    @Test
+    void testSameNamedClassesInDifferentPackages() throws IOException {
+        Files.writeString(Files.createDirectories(tempDir.resolve("p1")).resolve("A.java"), "package p1; class A { int f(int x) { return x + 1; } }");
+        Files.writeString(Files.createDirectories(tempDir.resolve("p2")).resolve("A.java"), "package p2; class A { int g(int x) { return x * 2; } }");
+        AnalysisResult result = new JavaAnalyzer().analyzeProject(tempDir.toString());
+        assertEquals(List.of("p1.A", "p2.A"), new ArrayList<>(result.classMethods.keySet()));
+        assertEquals("f", result.classMethods.get("p1.A").get(0).name);
+
+        ResultStoreCollector collector = new ResultStoreCollector();
+        new JavaAnalyzer().analyzeProject(tempDir.toString(), collector);
+        Path csv = tempDir.resolve("out.csv");
+        ResultExporter.exportResultsToCSV(collector.getStore(), csv.toString());
+        List<String> lines = Files.readAllLines(csv);
+        assertTrue(lines.get(1).startsWith("p1.A,f,"), lines.get(1));
+        assertTrue(lines.get(2).startsWith("p2.A,g,"), lines.get(2));
+    }
+
+    @Test
+    void testUndefinedMIIsKeptOutOfAverages() throws IOException {
+        Files.writeString(tempDir.resolve("A.java"), "package p; class A { void empty() {} int f(int x) { return x + 1; } }");
+        for (boolean fast : new boolean[] {false, true}) {
+            AnalysisResult result = new JavaAnalyzer.Builder().fast(fast).build().analyzeProject(tempDir.toString());
+            List<MethodInfo> methods = result.classMethods.get("p.A");
+            assertTrue(Double.isNaN(methods.get(0).maintainabilityIndex));
+            assertTrue(methods.get(1).maintainabilityIndex > 0);
+
+            ResultStoreCollector collector = new ResultStoreCollector();
+            new JavaAnalyzer.Builder().fast(fast).build().analyzeProject(tempDir.toString(), collector);
+            assertEquals(methods.get(1).maintainabilityIndex, collector.getStore().getProjectAverageMI());
+            Path csv = tempDir.resolve("out.csv");
+            ResultExporter.exportResultsToCSV(collector.getStore(), csv.toString());
+            List<String> lines = Files.readAllLines(csv);
+            assertEquals("p.A,empty,,1,0.00,1", lines.get(1));
+            assertEquals(String.format(Locale.ROOT, "p,%.2f", methods.get(1).maintainabilityIndex), lines.get(5));
+            Files.delete(csv);
+        }
+    }
+
+    @Test
+    void testSinkIsClosedWhenDeliveryFails() throws IOException {
+        Files.writeString(tempDir.resolve("A.java"), "class A { int f(int x) { return x + 1; } }");
+        Path archive = zip("src.zip", "A.java", "class A { int f(int x) { return x + 1; } }");
+        boolean[] closed = new boolean[2];
+        ResultSink failing = new ResultSink() {
+            @Override
+            public void accept(FileResult fileResult) {
+                throw new UncheckedIOException(new IOException("No space left on device"));
+            }
+
+            @Override
+            public void close() {
+                closed[0] = true;
+            }
+        };
+        ResultSink other = new ResultSink() {
+            @Override
+            public void accept(FileResult fileResult) {
+            }
+
+            @Override
+            public void close() {
+                closed[1] = true;
+            }
+        };
+        assertThrows(UncheckedIOException.class, () -> new JavaAnalyzer().analyzeProject(tempDir.toString(), ResultSink.tee(failing, other)));
+        assertArrayEquals(new boolean[] {true, true}, closed);
+        closed[0] = false;
+        assertThrows(UncheckedIOException.class, () -> new JavaAnalyzer().analyzeArchives(Arrays.asList(archive), failing));
+        assertTrue(closed[0]);
+    }
+
+    @Test
+    void testUnreadableArchiveIsSkipped() throws IOException {
+        Path broken = Files.writeString(tempDir.resolve("broken.zip"), "not a zip");
+        Path good = zip("good.zip", "r/D.java", "package r; class D { void m() {} }");
+        List<FileResult> results = new ArrayList<>();
+        new JavaAnalyzer().analyzeArchives(Arrays.asList(broken, good), results::add);
+        assertEquals(1, results.size());
+    }
+
+    @Test
+    void testCachedResultsAreRescored() throws IOException {
+        Path project = Files.createDirectories(tempDir.resolve("project"));
+        Files.writeString(project.resolve("A.java"),
+                "class A {\n    /** Doubles x. */\n    int f(int x) {\n        // twice\n        return x * 2;\n    }\n}\n");
+        Path cacheFile = tempDir.resolve("mindex.cache");
+        MaintainabilityIndexCalculator commented = MaintainabilityIndexCalculator.parse("171,5.2,0.23,16.2,50,2.4");
+
+        AnalysisCache cache = AnalysisCache.load(cacheFile);
+        MethodInfo plain = new JavaAnalyzer.Builder().cache(cache).build().analyzeProject(project.toString()).allMethods.get(0);
+        cache.save();
+        assertEquals(0.4, plain.commentRatio); // Javadoc and line comment, of 1 + 4 lines
+
+        AnalysisCache reloaded = AnalysisCache.load(cacheFile);
+        MethodInfo rescored = new JavaAnalyzer.Builder().cache(reloaded).calculator(commented).build()
+                .analyzeProject(project.toString()).allMethods.get(0);
+        assertEquals(1, reloaded.getHits());
+        MethodInfo parsed = new JavaAnalyzer.Builder().calculator(commented).build()
+                .analyzeProject(project.toString()).allMethods.get(0);
+        assertEquals(parsed.maintainabilityIndex, rescored.maintainabilityIndex);
+        assertTrue(rescored.maintainabilityIndex > plain.maintainabilityIndex);
+    }
+}
@@ -0,0 +1,153 @@
+package com.mindex.analyzer;
+
+import com.mindex.metrics.MaintainabilityIndexCalculator;
+import com.mindex.model.FileResult;
+import com.mindex.model.MethodInfo;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TokenAnalyzerTest {
+    @TempDir
+    Path tempDir;
+
+    private static final String SAMPLE = String.join("\n",
+            "package p.q;",
+            "",
+            "import java.io.Serializable;",
+            "import java.util.*;",
+            "import java.util.function.Function;",
+            "",
+            "/** Sample */",
+            "@SuppressWarnings(value = {\"unchecked\", \"rawtypes\"})",
+            "public class Sample<T extends Comparable<? super T>> {",
+            "    private final Map<String, List<T>> byName = new HashMap<>(), other = new TreeMap<>();",
+            "",
+            "    // leading comment",
+            "    @Deprecated(since = \"1\")",
+            "    public <R> List<R> map(Function<? super T, ? extends R> f, T... values) throws Exception {",
+            "        List<R> out = new ArrayList<>(values.length);",
+            "        for (T v : values) {",
+            "            if (v != null && f != null) { out.add(f.apply(v)); } // trailing",
+            "        }",
+            "        for (int i = 0, n = values.length; i < n; i++) { out.add(null); }",
+            "        do { out.remove(0); } while (!out.isEmpty() && out.size() > 3);",
+            "        return out;",
+            "    }",
+            "",
+            "    int kind(Object o, int x) {",
+            "        int r = x < 0 ? 10 : x << 2;",
+            "        switch (x) {",
+            "            case 3: r += (int) (long) x; break;",
+            "            default: r >>>= 1;",
+            "        }",
+            "        try {",
+            "            r = o instanceof String ? ((String) o).length() : -r;",
+            "        } catch (IllegalStateException | IllegalArgumentException e) {",
+            "            throw e;",
+            "        } finally {",
+            "            r++;",
+            "        }",
+            "        String text = \"a { b\" + /* } */ \"\\\"}\";",
+            "        Comparator<String> c = (Comparator<String> & Serializable) (a, b) -> a.compareTo(b);",
+            "        Runnable run = new Runnable() {",
+            "            @Override public void run() { System.out.println(text + c); }",
+            "        };",
+            "        return (x & 1) != 0 ? r : Sample.this.hashCode() + text.chars().map(Character::toUpperCase).sum();",
+            "    }",
+            "",
+            "    enum Mode {",
+            "        A { int weight() { return 2; } },",
+            "        B;",
+            "        int weight() { return 1; }",
+            "    }",
+            "",
+            "    interface Shape { double area(); default boolean empty() { return area() == 0; } }",
+            "",
+            "    static class Inner implements Shape {",
+            "        Inner() { this(1); }",
+            "        Inner(int i) { super(); }",
+            "        public double area() { char ch = '}'; return ch * 0x1Fp-2 + 1e3; }",
+            "    }",
+            "}",
+            "");
+
+    /**
+     * Assert that both results report the same classes and methods with the same LOC, CC and comment ratio,
+     * and Halstead Volumes at most maxDeviation apart. hvStats counts the methods compared and those within 1%.
+     */
+    private static void assertSameMetrics(FileResult expected, FileResult actual, double maxDeviation, int[] hvStats) {
+        assertEquals(expected.packageName, actual.packageName, actual.path);
+        assertEquals(expected.classMethods.keySet(), actual.classMethods.keySet(), actual.path);
+        for (Map.Entry<String, ArrayList<MethodInfo>> entry : expected.classMethods.entrySet()) {
+            List<MethodInfo> methods = actual.classMethods.get(entry.getKey());
+            assertEquals(entry.getValue().size(), methods.size(), actual.path + " " + entry.getKey());
+            for (int i = 0; i < methods.size(); i++) {
+                MethodInfo e = entry.getValue().get(i);
+                MethodInfo a = methods.get(i);
+                String where = actual.path + " " + entry.getKey() + "." + e.name;
+                assertEquals(e.name, a.name, where);
+                assertEquals(e.loc, a.loc, where);
+                assertEquals(e.cyclomaticComplexity, a.cyclomaticComplexity, where);
+                assertEquals(e.commentRatio, a.commentRatio, 1e-9, where);
+                double deviation = Math.abs(e.halsteadVolume - a.halsteadVolume) / Math.max(1, e.halsteadVolume);
+                assertTrue(deviation <= maxDeviation, where + " HV " + a.halsteadVolume + " vs " + e.halsteadVolume);
+                hvStats[0]++;
+                if (deviation <= 0.01) {
+                    hvStats[1]++;
+                }
+            }
+        }
+    }
+
+    @Test
+    void testMatchesAstOnSample() throws IOException {
+        Path file = tempDir.resolve("Sample.java");
+        Files.write(file, SAMPLE.getBytes(StandardCharsets.UTF_8));
+        FileResult expected = new JavaAnalyzer().analyzeFile(file);
+        FileResult actual = new TokenAnalyzer(MaintainabilityIndexCalculator.DEFAULT).analyze(file.toString(), Files.readAllBytes(file));
+
+        int[] hvStats = new int[2];
+        assertSameMetrics(expected, actual, 1e-9, hvStats);
+        assertEquals(11, hvStats[0]);
+        // Methods of nested, local and anonymous classes also count for the enclosing classes, constructors do not
+        assertEquals(8, actual.classMethods.get("Sample").size());
+        assertEquals(1, actual.classMethods.get("Sample.Inner").size());
+    }
+
+    @Test
+    void testValidatesAgainstAstOnProjectSources() throws IOException {
+        // The analyzer's own sources are the corpus: real code with generics, lambdas, records and nested types
+        JavaAnalyzer ast = new JavaAnalyzer();
+        TokenAnalyzer fast = new TokenAnalyzer(MaintainabilityIndexCalculator.DEFAULT);
+        List<Path> files = new FileDiscovery().discover(Paths.get("src", "main", "java"));
+        assertFalse(files.isEmpty());
+        int[] hvStats = new int[2];
+        for (Path file : files) {
+            assertSameMetrics(ast.analyzeFile(file), fast.analyze(file.toString(), Files.readAllBytes(file)), 0.05, hvStats);
+        }
+        assertTrue(hvStats[1] >= 0.99 * hvStats[0], hvStats[1] + " of " + hvStats[0] + " methods within 1% HV");
+    }
+
+    @Test
+    void testFastAnalyzerEstimatesUnparseableFiles() throws IOException {
+        Path file = tempDir.resolve("Broken.java");
+        Files.write(file, "class Broken { int f(int x) { if (x > 0) { return x +; } return 0; } }".getBytes(StandardCharsets.UTF_8));
+        assertNull(new JavaAnalyzer().analyzeFile(file));
+
+        JavaAnalyzer analyzer = new JavaAnalyzer.Builder().fast(true).build();
+        FileResult result = analyzer.analyzeFile(file);
+        MethodInfo method = result.classMethods.get("Broken").get(0);
+        assertEquals("f", method.name);
+        assertEquals(2, method.cyclomaticComplexity);
+        assertEquals(1, method.loc);
+    }
+}
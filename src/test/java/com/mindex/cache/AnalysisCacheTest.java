@@ -0,0 +1,69 @@
+package com.mindex.cache;
+
+import com.mindex.model.FileResult;
+import com.mindex.model.MethodInfo;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AnalysisCacheTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testRoundTrip() throws Exception {
+        Path cacheFile = tempDir.resolve("mindex.cache");
+        byte[] hash = AnalysisCache.hash("class A {}".getBytes(StandardCharsets.UTF_8));
+        FileResult result = new FileResult("A.java", "com.example");
+        result.classMethods.put("A", new ArrayList<>(List.of(new MethodInfo("foo", 23.5, 2, 10, 71.25, 0.3))));
+
+        AnalysisCache cache = AnalysisCache.load(cacheFile);
+        assertNull(cache.get("A.java", hash));
+        cache.put("A.java", hash, result);
+        cache.save();
+
+        AnalysisCache reloaded = AnalysisCache.load(cacheFile);
+        FileResult cached = reloaded.get("A.java", hash);
+        assertNotNull(cached);
+        assertEquals("com.example", cached.packageName);
+        MethodInfo m = cached.classMethods.get("A").get(0);
+        assertEquals("foo", m.name);
+        assertEquals(23.5, m.halsteadVolume);
+        assertEquals(2, m.cyclomaticComplexity);
+        assertEquals(10, m.loc);
+        assertEquals(71.25, m.maintainabilityIndex);
+        assertEquals(0.3, m.commentRatio);
+        assertNull(reloaded.get("A.java", AnalysisCache.hash(new byte[0]))); // content changed
+    }
+
+    @Test
+    void testUnusedEntriesAreEvicted() throws Exception {
+        Path cacheFile = tempDir.resolve("mindex.cache");
+        byte[] hash = AnalysisCache.hash(new byte[0]);
+        AnalysisCache cache = AnalysisCache.load(cacheFile);
+        cache.put("A.java", hash, new FileResult("A.java", ""));
+        cache.put("B.java", hash, new FileResult("B.java", ""));
+        cache.save();
+
+        AnalysisCache second = AnalysisCache.load(cacheFile);
+        assertNotNull(second.get("A.java", hash));
+        second.save();
+
+        AnalysisCache third = AnalysisCache.load(cacheFile);
+        assertNotNull(third.get("A.java", hash));
+        assertNull(third.get("B.java", hash));
+    }
+
+    @Test
+    void testCorruptCacheIsIgnored() throws Exception {
+        Path cacheFile = tempDir.resolve("mindex.cache");
+        Files.write(cacheFile, new byte[] {1, 2, 3});
+        AnalysisCache cache = AnalysisCache.load(cacheFile);
+        assertNull(cache.get("A.java", AnalysisCache.hash(new byte[0])));
+    }
+}
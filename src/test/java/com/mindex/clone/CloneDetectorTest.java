@@ -0,0 +1,163 @@
+package com.mindex.clone;
+
+import com.mindex.analyzer.JavaAnalyzer;
+import com.mindex.model.CloneGroup;
+import com.mindex.model.FileResult;
+import com.mindex.model.MethodFingerprint;
+import com.mindex.model.MethodInfo;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CloneDetectorTest {
+    @TempDir
+    Path tempDir;
+
+    private static final String SUM = String.join("\n",
+            "    int sum(int[] values, int limit) {",
+            "        int total = 0;",
+            "        for (int i = 0; i < values.length; i++) {",
+            "            if (values[i] > limit) {",
+            "                total += values[i] * 2;",
+            "            } else {",
+            "                total -= values[i];",
+            "            }",
+            "        }",
+            "        int count = 0;",
+            "        while (count < limit && count < values.length) {",
+            "            total = total + values[count] / 2;",
+            "            count++;",
+            "        }",
+            "        switch (limit) {",
+            "            case 0: total = -total; break;",
+            "            case 1: total = total * total; break;",
+            "            default: total = Math.max(total, limit);",
+            "        }",
+            "        return total;",
+            "    }");
+
+    private void write(String name, String source) throws IOException {
+        Files.write(tempDir.resolve(name), source.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private List<CloneGroup> detect(int minTokens) {
+        JavaAnalyzer analyzer = new JavaAnalyzer.Builder().fingerprints(true).build();
+        CloneDetector detector = new CloneDetector(CloneDetector.DEFAULT_SIMILARITY, minTokens);
+        analyzer.analyzeProject(tempDir.toString(), detector);
+        return detector.findClones();
+    }
+
+    private static List<String> names(CloneGroup group) {
+        List<String> names = new ArrayList<>();
+        for (MethodFingerprint member : group.members) {
+            names.add(member.className + "." + member.method.name);
+        }
+        return names;
+    }
+
+    @Test
+    void testFindsExactAndNearClones() throws IOException {
+        // Renamed identifiers and changed literals: exact clone
+        String renamed = SUM.replace("sum", "add").replace("total", "acc").replace("values", "xs").replace("2", "3");
+        // One more statement: near clone
+        String extended = SUM.replace("sum", "sumLogged").replace("        return total;", "        log(total);\n        return total;");
+        write("A.java", "package p; class A {\n" + SUM + "\n}\n");
+        write("B.java", "package p; class B {\n" + renamed + "\n    int other(String s) { return s.isEmpty() ? 0 : s.length(); }\n}\n");
+        write("C.java", "package q; class C {\n    class Inner {\n" + extended + "\n    }\n}\n");
+
+        List<CloneGroup> groups = detect(20);
+        assertEquals(1, groups.size());
+        CloneGroup group = groups.get(0);
+        assertFalse(group.exact);
+        // Inner's method is listed for C and Inner, but reported once, for its own class
+        assertEquals(List.of("p.A.sum", "p.B.add", "q.C.Inner.sumLogged"), names(group));
+        assertTrue(group.similarity >= CloneDetector.DEFAULT_SIMILARITY && group.similarity < 1);
+        assertEquals(group.members.get(0).hash, group.members.get(1).hash);
+        // 21 + 21 + 22 lines, of which the longest member stays
+        assertEquals(42, group.duplicatedLoc);
+        assertEquals(3, group.members.get(2).line);
+    }
+
+    @Test
+    void testExactGroupsAndMinimumSize() throws IOException {
+        write("A.java", "class A {\n" + SUM + "\n    int one() { return 1; }\n}\n");
+        write("B.java", "class B {\n" + SUM.replace("limit", "max") + "\n    int two() { return 2; }\n}\n");
+
+        List<CloneGroup> groups = detect(20);
+        assertEquals(1, groups.size());
+        assertTrue(groups.get(0).exact);
+        assertEquals(1.0, groups.get(0).similarity);
+        assertEquals(List.of("A.sum", "B.sum"), names(groups.get(0)));
+
+        // one() and two() are exact clones too, but below the minimum size unless it is lowered
+        assertEquals(2, detect(5).size());
+        assertTrue(detect(1000).isEmpty());
+    }
+
+    /** Signature base, base + 1, base + 2, ... with the given entries replaced by offset + index */
+    private static MethodFingerprint fingerprint(String name, long hash, int base, int offset, int... changed) {
+        int[] signature = new int[Fingerprinter.SIGNATURE_SIZE];
+        for (int i = 0; i < signature.length; i++) {
+            signature[i] = base + i;
+        }
+        for (int i : changed) {
+            signature[i] = offset + i;
+        }
+        return new MethodFingerprint("F.java", "F", new MethodInfo(name, 100, 1, 10, 50), 1, 100, hash, signature);
+    }
+
+    @Test
+    void testCandidatesAreComparedWithSeveralBucketMembers() {
+        FileResult file = new FileResult("F.java", "");
+        // y shares the first half of x's signature but is not similar to it; z is y with one entry per later band changed
+        int[] secondHalf = new int[16];
+        for (int i = 0; i < 16; i++) {
+            secondHalf[i] = 16 + i;
+        }
+        file.fingerprints.add(fingerprint("x", 1, 0, 0));
+        file.fingerprints.add(fingerprint("y", 2, 0, 100, secondHalf));
+        MethodFingerprint z = fingerprint("z", 3, 0, 100, secondHalf);
+        for (int i : new int[] {16, 20, 24, 28}) {
+            z.signature[i] = 200 + i;
+        }
+        file.fingerprints.add(z);
+        // p is similar to q and r, which differ from p in other entries and are less similar to each other
+        file.fingerprints.add(fingerprint("p", 4, 500, 500));
+        file.fingerprints.add(fingerprint("q", 5, 500, 1000, 16, 20));
+        file.fingerprints.add(fingerprint("r", 6, 500, 2000, 24, 28));
+        CloneDetector detector = new CloneDetector(CloneDetector.DEFAULT_SIMILARITY, 1);
+        detector.accept(file);
+
+        List<CloneGroup> groups = detector.findClones();
+        assertEquals(2, groups.size());
+        // The lowest similarity is that of q and r, not of a member to p
+        assertEquals(List.of("F.p", "F.q", "F.r"), names(groups.get(0)));
+        assertEquals(0.875, groups.get(0).similarity);
+        // z only shares buckets with x and y, and x comes first in all of them
+        assertEquals(List.of("F.y", "F.z"), names(groups.get(1)));
+        assertEquals(0.875, groups.get(1).similarity);
+    }
+
+    @Test
+    void testUnrelatedMethodsAreNotGrouped() throws IOException {
+        write("A.java", "class A {\n" + SUM + "\n}\n");
+        write("B.java", String.join("\n",
+                "class B {",
+                "    String join(List<String> parts, String separator) {",
+                "        StringBuilder sb = new StringBuilder();",
+                "        for (String part : parts) {",
+                "            if (sb.length() > 0) { sb.append(separator); }",
+                "            sb.append(part.trim());",
+                "        }",
+                "        return sb.toString();",
+                "    }",
+                "}", ""));
+        assertTrue(detect(20).isEmpty());
+    }
+}
@@ -0,0 +1,47 @@
+package com.mindex.daemon;
+
+import com.mindex.analyzer.FileDiscovery;
+import com.mindex.analyzer.JavaAnalyzer;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AnalysisDaemonTest {
+    @TempDir
+    Path tempDir;
+
+    private static int status(int port, String method, String path) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://127.0.0.1:" + port + path).openConnection();
+        try {
+            connection.setRequestMethod(method);
+            return connection.getResponseCode();
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    @Test
+    void testShutdownRequiresPost() throws Exception {
+        Files.writeString(tempDir.resolve("A.java"), "class A { void f() { int x = 1; } }");
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        AnalysisDaemon daemon = new AnalysisDaemon(new FileDiscovery(), List.of(new ProjectIndex(tempDir, new JavaAnalyzer())), port);
+        daemon.start();
+        try {
+            assertEquals(405, status(port, "GET", "/shutdown"));
+            assertEquals(200, status(port, "GET", "/project"));
+            assertEquals(200, status(port, "POST", "/shutdown"));
+        } finally {
+            daemon.stop();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.mindex.daemon;
+
+import com.mindex.analyzer.JavaAnalyzer;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProjectIndexTest {
+    @TempDir
+    Path tempDir;
+
+    private Path write(String relative, String content, long lastModified) throws IOException {
+        Path file = tempDir.resolve(relative);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(lastModified));
+        return file;
+    }
+
+    @Test
+    void testIncrementalUpdates() throws Exception {
+        write("a/A.java", "package a; class A { void f() { int x = 1; } }", 1000);
+        Path b = write("b/B.java", "package b; class B { void g() { int y = 2; } }", 1000);
+        ProjectIndex index = new ProjectIndex(tempDir, new JavaAnalyzer());
+        assertEquals(2, index.rescan());
+        assertEquals(2, index.getFileCount());
+        assertEquals(1, index.getPackageMI("a").count);
+        assertEquals(1, index.getClassMethods("B").size());
+        assertNotNull(index.getFile("a/A.java"));
+
+        // Nothing changed on disk
+        assertEquals(0, index.rescan());
+
+        write("b/B.java", "package b; class B { void g() {} void h() {} }", 2000);
+        assertTrue(index.refreshIfKnown(b));
+        assertEquals(2, index.getClassMethods("B").size());
+        assertFalse(index.refreshIfKnown(tempDir.resolve("c/C.java")));
+
+        write("c/C.java", "package c; class C { void k() {} }", 1000);
+        Files.delete(b);
+        assertEquals(1, index.rescan());
+        assertEquals(2, index.getFileCount());
+        assertTrue(index.getClassMethods("B").isEmpty());
+        assertEquals(2, index.getProjectMI().count);
+    }
+}
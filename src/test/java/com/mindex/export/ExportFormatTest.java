@@ -0,0 +1,118 @@
+package com.mindex.export;
+
+import com.mindex.analyzer.ResultSink;
+import com.mindex.model.FileResult;
+import com.mindex.model.MethodInfo;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExportFormatTest {
+    @TempDir
+    Path tempDir;
+
+    private static FileResult file(String packageName, String className, MethodInfo... methods) {
+        FileResult result = new FileResult(className + ".java", packageName);
+        result.classMethods.put(className, new ArrayList<>(Arrays.asList(methods)));
+        return result;
+    }
+
+    @Test
+    void testFixed2MatchesFormat() throws IOException {
+        Random random = new Random(42);
+        List<Double> values = new ArrayList<>(Arrays.asList(0.0, 0.005, 0.015, 0.145, 1.005, 2.675, 99.995, 171.0, -1.5, 1e15, Double.NaN,
+                9999999.995, 1e7, 4.631765818565E9));
+        for (int i = 0; i < 20000; i++) {
+            values.add(random.nextDouble() * 200);
+            values.add(random.nextInt(100000) / 1000.0 + 0.005);
+            // Every magnitude up to 1e12, on both sides of the fast path's limit
+            values.add(random.nextDouble() * Math.pow(10, random.nextInt(13)));
+            values.add(random.nextDouble() * 1e10);
+        }
+        Path file = tempDir.resolve("fixed.txt");
+        StringBuilder expected = new StringBuilder();
+        try (ChannelWriter writer = new ChannelWriter(file)) {
+            for (double value : values) {
+                writer.writeFixed2(value).write('\n');
+                expected.append(String.format(Locale.ROOT, "%.2f", value)).append('\n');
+            }
+        }
+        assertEquals(expected.toString(), Files.readString(file));
+    }
+
+    @Test
+    void testFixed2IgnoresDefaultLocale() throws IOException {
+        Locale previous = Locale.getDefault();
+        Locale.setDefault(Locale.GERMANY);
+        try {
+            Path file = tempDir.resolve("locale.txt");
+            try (ChannelWriter writer = new ChannelWriter(file)) {
+                writer.writeFixed2(1.5).write(',').writeFixed2(-1.5).write(',').writeFixed2(1e15);
+            }
+            assertEquals("1.50,-1.50,1000000000000000.00", Files.readString(file));
+        } finally {
+            Locale.setDefault(previous);
+        }
+    }
+
+    @Test
+    void testTextEscaping() throws IOException {
+        Path file = tempDir.resolve("text.txt");
+        try (ChannelWriter writer = new ChannelWriter(file)) {
+            writer.writeCsvField("plain").write(',').writeCsvField("a,\"b\"").write(',').writeJsonString("q\"\\\né😀").write(',').write(-1234567890123L);
+        }
+        assertEquals("plain,\"a,\"\"b\"\"\",\"q\\\"\\\\\\u000aé😀\",-1234567890123", Files.readString(file, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testJsonLines() throws IOException {
+        Path file = tempDir.resolve("out.jsonl");
+        ResultSink sink = ExportFormat.forName("jsonl").open(file.toString());
+        sink.accept(file("p", "A", new MethodInfo("f", 12.5, 2, 3, 98.765), new MethodInfo("g", 0, 1, 1, Double.NaN)));
+        sink.close();
+        assertEquals(Arrays.asList(
+                "{\"file\":\"A.java\",\"package\":\"p\",\"class\":\"A\",\"method\":\"f\",\"mi\":98.765,\"cc\":2,\"hv\":12.5,\"loc\":3}",
+                "{\"file\":\"A.java\",\"package\":\"p\",\"class\":\"A\",\"method\":\"g\",\"mi\":null,\"cc\":1,\"hv\":0.0,\"loc\":1}"),
+                Files.readAllLines(file));
+    }
+
+    @Test
+    void testBinaryRoundTrip() throws IOException {
+        Path file = tempDir.resolve("out.bin");
+        int rows = BinaryExporter.ROW_GROUP_SIZE + 100;
+        ResultSink sink = ExportFormat.forName("bin").open(file.toString());
+        for (int i = 0; i < rows; i++) {
+            sink.accept(file("p" + i % 7, "C" + i % 1000, new MethodInfo("m" + i % 13, i * 0.5, i % 9, i % 40, 100 - i * 1e-4)));
+        }
+        sink.close();
+        try (BinaryResultReader reader = new BinaryResultReader(file)) {
+            int i = 0;
+            while (reader.next()) {
+                assertEquals("p" + i % 7, reader.getPackageName());
+                assertEquals("C" + i % 1000, reader.getClassName());
+                assertEquals("m" + i % 13, reader.getMethodName());
+                assertEquals(i * 0.5, reader.getHalsteadVolume());
+                assertEquals(i % 9, reader.getCyclomaticComplexity());
+                assertEquals(i % 40, reader.getLoc());
+                assertEquals(100 - i * 1e-4, reader.getMaintainabilityIndex());
+                i++;
+            }
+            assertEquals(rows, i);
+            assertEquals(rows, reader.getTotalRows());
+        }
+    }
+
+    @Test
+    void testUnknownFormat() {
+        assertThrows(IllegalArgumentException.class, () -> ExportFormat.forName("xml"));
+    }
+}
@@ -0,0 +1,88 @@
+package com.mindex.export;
+
+import com.mindex.analyzer.JavaAnalyzer;
+import com.mindex.analyzer.ResultStoreCollector;
+import com.mindex.model.ResultStore;
+import com.mindex.model.RunningAverage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StreamingExportTest {
+    @TempDir
+    Path tempDir;
+
+    private Path project() throws IOException {
+        Path root = tempDir.resolve("project");
+        for (int i = 0; i < 12; i++) {
+            Path file = root.resolve("p" + (i % 3)).resolve("C" + i + ".java");
+            Files.createDirectories(file.getParent());
+            StringBuilder source = new StringBuilder("package p" + (i % 3) + "; class C" + i + " {\n");
+            for (int m = 0; m <= i % 4; m++) {
+                source.append("    int m").append(m).append("(int x) {\n");
+                for (int s = 0; s < i + m; s++) {
+                    source.append("        if (x > ").append(s).append(") { x = x * ").append(s + 2).append(" - 1; }\n");
+                }
+                source.append("        return x;\n    }\n");
+            }
+            Files.writeString(file, source.append("}\n"));
+        }
+        return root;
+    }
+
+    private static String captureOut(Runnable action) {
+        PrintStream previous = System.out;
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(bytes, true, StandardCharsets.UTF_8));
+        try {
+            action.run();
+        } finally {
+            System.setOut(previous);
+        }
+        return bytes.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testStreamingOutputMatchesBatch() throws IOException {
+        Path root = project();
+        JavaAnalyzer analyzer = new JavaAnalyzer();
+        ResultStoreCollector collector = new ResultStoreCollector();
+        analyzer.analyzeProject(root.toString(), collector);
+        ResultStore store = collector.getStore();
+
+        Path batchCsv = tempDir.resolve("batch.csv");
+        Path streamCsv = tempDir.resolve("stream.csv");
+        ResultExporter.exportResultsToCSV(store, batchCsv.toString());
+        // analyzeProject closes the sink, which writes the averages
+        analyzer.analyzeProject(root.toString(), new StreamingCsvExporter(streamCsv.toString()));
+        String csv = Files.readString(batchCsv);
+        assertTrue(csv.contains("\nPackage,AvgMI\np0,") && csv.contains("\nProjectAvgMI,AvgMI\nProjectAvgMI,"));
+        assertEquals(csv, Files.readString(streamCsv));
+
+        String batchConsole = captureOut(() -> analyzer.printResults(store));
+        String streamConsole = captureOut(() -> analyzer.analyzeProject(root.toString(), new StreamingResultPrinter()));
+        assertEquals(batchConsole, streamConsole);
+    }
+
+    @Test
+    void testRunningAverageMatchesDoubleStream() {
+        Random random = new Random(7);
+        double[] values = new double[100000];
+        RunningAverage average = new RunningAverage();
+        for (int i = 0; i < values.length; i++) {
+            // Large and small magnitudes mixed, where naive summation loses the low-order bits
+            values[i] = i % 2 == 0 ? 1e8 + random.nextDouble() : random.nextDouble() * 1e-3;
+            average.add(values[i]);
+        }
+        assertEquals(Arrays.stream(values).average().getAsDouble(), average.average());
+        assertEquals(0, new RunningAverage().average());
+    }
+}
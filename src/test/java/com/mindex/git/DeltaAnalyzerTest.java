@@ -0,0 +1,103 @@
+package com.mindex.git;
+
+import com.mindex.analyzer.FileDiscovery;
+import com.mindex.analyzer.JavaAnalyzer;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class DeltaAnalyzerTest {
+    @TempDir
+    Path tempDir;
+
+    private void git(String... args) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>(Arrays.asList("git", "-c", "user.name=test", "-c", "user.email=test@example.com"));
+        command.addAll(Arrays.asList(args));
+        Process process = new ProcessBuilder(command).directory(tempDir.toFile()).redirectErrorStream(true).start();
+        process.getInputStream().readAllBytes();
+        assertEquals(0, process.waitFor(), "git " + String.join(" ", args));
+    }
+
+    private void write(String relative, String content) throws IOException {
+        Path file = tempDir.resolve(relative);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+    }
+
+    @BeforeEach
+    void checkGit() {
+        try {
+            assumeTrue(new ProcessBuilder("git", "--version").start().waitFor() == 0);
+        } catch (IOException | InterruptedException e) {
+            assumeTrue(false, "git is not available");
+        }
+    }
+
+    @Test
+    void testDeltaBetweenRevisions() throws Exception {
+        git("init", "-q");
+        write("src/a/A.java", "package a; class A { int f(int x) { return x; } int g(int x) { return x + 1; } }");
+        write("src/a/Same.java", "package a; class Same { void s() {} }");
+        write("src/b/Gone.java", "package b; class Gone { void r() {} }");
+        write("src/b/Old.java", "package b; class Old { void keep() { int y = 2; } }");
+        git("add", "-A");
+        git("commit", "-q", "-m", "v1");
+        write("src/a/A.java", "package a; class A { int f(int x) { if (x > 0) { for (int i = 0; i < x; i++) { x += i; } } return x; } int g(int x) { return x + 1; } void h() {} }");
+        Files.delete(tempDir.resolve("src/b/Gone.java"));
+        git("mv", "src/b/Old.java", "src/b/Moved.java");
+        write("src/test/ATest.java", "package a; class ATest { void t() {} }");
+        git("add", "-A");
+        git("commit", "-q", "-m", "v2");
+        // The working tree is not read: uncommitted edits must not show up
+        write("src/a/A.java", "package a; class A { }");
+
+        DeltaReport report = new DeltaAnalyzer(new JavaAnalyzer(), new FileDiscovery()).analyze(tempDir, "HEAD~1", "HEAD");
+        // A.java, Gone.java and the renamed Old.java; Same.java is unchanged and the test file is excluded
+        assertEquals(3, report.files);
+        try (GitRepository repository = new GitRepository(tempDir)) {
+            List<GitRepository.ChangedFile> changes = repository.diff("HEAD~1", "HEAD");
+            assertEquals(4, changes.size());
+            GitRepository.ChangedFile rename = changes.stream().filter(c -> "src/b/Old.java".equals(c.oldPath)).findFirst().get();
+            assertEquals("src/b/Moved.java", rename.newPath);
+            assertEquals(new String(repository.readBlob(rename.oldId)), new String(repository.readBlob(rename.newId)));
+        }
+
+        MIDelta f = report.methods.get("a.A.f");
+        assertTrue(f.getDelta() < 0);
+        assertFalse(report.methods.containsKey("a.A.g"), "unchanged methods are not listed");
+        assertTrue(report.methods.get("a.A.h").isAdded());
+        assertTrue(report.methods.get("b.Gone.r").isRemoved());
+        assertFalse(report.methods.containsKey("b.Old.keep"), "a pure rename does not change the method");
+        assertFalse(report.classes.containsKey("a.Same"));
+        assertEquals(2, report.classes.get("a.A").before.count);
+        assertEquals(3, report.classes.get("a.A").after.count);
+        assertEquals(2, report.packages.get("b").before.count);
+        assertEquals(1, report.packages.get("b").after.count);
+    }
+
+    @Test
+    void testSubdirectoryAndOverloads() throws Exception {
+        git("init", "-q");
+        write("one/p/C.java", "package p; class C { void m() {} void m(int a) {} }");
+        write("two/q/D.java", "package q; class D { void n() {} }");
+        git("add", "-A");
+        git("commit", "-q", "-m", "v1");
+        write("one/p/C.java", "package p; class C { void m() {} void m(int a) { if (a > 1) { a--; } } }");
+        write("two/q/D.java", "package q; class D { void n() { int z = 0; } }");
+        git("add", "-A");
+        git("commit", "-q", "-m", "v2");
+
+        DeltaReport report = new DeltaAnalyzer(new JavaAnalyzer(), new FileDiscovery()).analyze(tempDir.resolve("one"), "HEAD~1", "HEAD");
+        assertEquals(1, report.files);
+        assertEquals(Arrays.asList("p.C.m#2"), new ArrayList<>(report.methods.keySet()));
+        assertFalse(report.packages.containsKey("q"));
+    }
+}
@@ -22,4 +22,49 @@ public class MaintainabilityIndexCalculatorTest {
             MaintainabilityIndexCalculator.calculate(20, 2, 0);
         });
     }
-} 
\ No newline at end of file
+
+    @Test
+    void testScoreAllMatchesCalculate() {
+        double[] volumes = {20.0, 0, 350.5, 20, 1e6, Double.NaN, 8};
+        int[] complexities = {2, 2, 7, -1, 90, 1, 1};
+        int[] locs = {10, 10, 42, 10, 5000, 3, 0};
+        double[] mis = new double[volumes.length];
+        MaintainabilityIndexCalculator.DEFAULT.scoreAll(volumes, complexities, locs, null, mis, 0, volumes.length);
+        for (int i = 0; i < volumes.length; i++) {
+            double expected;
+            try {
+                expected = MaintainabilityIndexCalculator.calculate(volumes[i], complexities[i], locs[i]);
+            } catch (IllegalArgumentException e) {
+                expected = MaintainabilityIndexCalculator.INVALID;
+            }
+            assertEquals(expected, mis[i], "index " + i);
+            assertEquals(expected, MaintainabilityIndexCalculator.DEFAULT.score(volumes[i], complexities[i], locs[i], 0.5));
+        }
+        assertTrue(Double.isNaN(mis[1]) && Double.isNaN(mis[3]) && Double.isNaN(mis[5]) && Double.isNaN(mis[6]));
+        assertEquals(0, mis[4]);
+    }
+
+    @Test
+    void testCustomCoefficients() {
+        MaintainabilityIndexCalculator plain = MaintainabilityIndexCalculator.parse("171, 5.2, 0.23, 16.2");
+        assertEquals(MaintainabilityIndexCalculator.calculate(20.0, 2, 10), plain.score(20.0, 2, 10, 0.4));
+        assertFalse(plain.usesComments());
+
+        MaintainabilityIndexCalculator commented = MaintainabilityIndexCalculator.parse("171,5.2,0.23,16.2,50,2.4");
+        assertTrue(commented.usesComments());
+        double bare = commented.score(200, 3, 20, 0);
+        double documented = commented.score(200, 3, 20, 0.25);
+        assertEquals(MaintainabilityIndexCalculator.calculate(200, 3, 20), bare);
+        assertEquals(Math.min(100, bare + 50 * Math.sin(Math.sqrt(2.4 * 0.25)) * 100 / 171), documented, 1e-9);
+        double[] mis = new double[1];
+        commented.scoreAll(new double[] {200}, new int[] {3}, new int[] {20}, new double[] {0.25}, mis, 0, 1);
+        assertEquals(documented, mis[0]);
+
+        MaintainabilityIndexCalculator lenient = new MaintainabilityIndexCalculator(171, 2.6, 0.23, 8.1, 0, 0);
+        assertTrue(lenient.score(200, 3, 20, 0) > bare);
+
+        assertThrows(IllegalArgumentException.class, () -> MaintainabilityIndexCalculator.parse("171,5.2,0.23"));
+        assertThrows(IllegalArgumentException.class, () -> MaintainabilityIndexCalculator.parse("171,x,0.23,16.2"));
+        assertThrows(IllegalArgumentException.class, () -> MaintainabilityIndexCalculator.parse("0,5.2,0.23,16.2"));
+    }
+}
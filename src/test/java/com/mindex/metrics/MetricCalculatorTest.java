@@ -12,11 +12,19 @@ public class MetricCalculatorTest {
 
     @Test
     void testCalculateLOC() {
-        MethodDeclaration method = parseMethod("void foo() { int a = 1; if(a > 0) { a++; } }");
+        MethodDeclaration method = parseMethod("void foo() {\n  int a = 1;\n  if(a > 0) {\n    a++;\n  }\n}");
         int loc = MetricCalculator.calculateLOC(method);
         assertTrue(loc >= 3); // at least 3 lines (method, if, statement)
     }
 
+    @Test
+    void testCalculateLOCVariants() {
+        MethodDeclaration method = parseMethod("void foo() {\n  // comment\n\n  int a = 1;\n  for (int i = 0; i < a; i++) { a--; }\n  /* block\n     comment */\n}");
+        assertEquals(8, MetricCalculator.calculateLOC(method, LocType.PHYSICAL));
+        assertEquals(4, MetricCalculator.calculateLOC(method, LocType.SOURCE));
+        assertEquals(4, MetricCalculator.calculateLOC(method, LocType.LOGICAL)); // 2 blocks + 2 statements
+    }
+
     @Test
     void testCalculateCyclomaticComplexity() {
         MethodDeclaration method = parseMethod("void foo() { if(true) {} else {} for(int i=0;i<1;i++){} }");
@@ -30,4 +38,21 @@ public class MetricCalculatorTest {
         double hv = MetricCalculator.calculateHalsteadVolume(method);
         assertTrue(hv > 0);
     }
-} 
\ No newline at end of file
+
+    @Test
+    void testCalculateMetricsMatchesIndividualCalculators() {
+        MethodDeclaration method = parseMethod("int foo(int x) { int y = -x; while (y < 10) { y += x + 1; } switch (y) { case 1: return 1; default: break; } return y; }");
+        MethodMetrics metrics = MetricCalculator.calculateMetrics(method);
+        assertEquals(MetricCalculator.calculateLOC(method), metrics.loc);
+        assertEquals(MetricCalculator.calculateCyclomaticComplexity(method), metrics.cyclomaticComplexity);
+        assertEquals(MetricCalculator.calculateHalsteadVolume(method), metrics.halsteadVolume(), 1e-9);
+        assertEquals(4, metrics.cyclomaticComplexity); // 1 (base) + 1 (while) + 2 (switch entries)
+        // Operators: - < while = + switch case case return break return
+        assertEquals(9, metrics.distinctOperators);
+        assertEquals(11, metrics.totalOperators);
+        // Operands foo, x, y, 10, 1; a name expression or declarator also visits its SimpleName, so x and y count twice per use
+        assertEquals(5, metrics.distinctOperands);
+        assertEquals(20, metrics.totalOperands);
+        assertEquals(31 * Math.log(14) / Math.log(2), metrics.halsteadVolume(), 1e-9);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,53 @@
+package com.mindex.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResultStoreTest {
+    private static FileResult file(String packageName, String className, double... mis) {
+        FileResult result = new FileResult(className + ".java", packageName);
+        ArrayList<MethodInfo> methods = new ArrayList<>();
+        for (int i = 0; i < mis.length; i++) {
+            methods.add(new MethodInfo("m" + i, 10 + i, 1 + i, 2 + i, mis[i]));
+        }
+        result.classMethods.put(className, methods);
+        return result;
+    }
+
+    @Test
+    void testMatchesMapBasedResult() {
+        ResultStore.Builder builder = new ResultStore.Builder();
+        for (FileResult file : List.of(file("a", "A", 50, 70), file("b", "B", 90), file("a", "C", 30), file("b", "A", 10, 20, 30), file("c", "Empty"), file("b", "D", 60))) {
+            builder.add(file);
+        }
+        ResultStore store = builder.build();
+
+        assertEquals(8, store.getMethodCount());
+        assertEquals(6, store.getClassCount());
+        // Classes are package-qualified, so a.A and b.A stay apart
+        assertEquals("a.A", store.getClassName(0));
+        assertEquals(2, store.getClassEnd(0) - store.getClassStart(0));
+        assertEquals(60, store.getClassAverageMI(0), 1e-9);
+        assertEquals("b.A", store.getClassName(3));
+        assertEquals(3, store.getClassEnd(3) - store.getClassStart(3));
+        assertEquals(20, store.getClassAverageMI(3), 1e-9);
+        assertEquals("m2", store.getMethodName(store.getClassStart(3) + 2));
+        assertEquals(3, store.getCyclomaticComplexity(store.getClassStart(3) + 2));
+        assertEquals("c.Empty", store.getClassName(4));
+        assertEquals(0, store.getClassAverageMI(4));
+
+        // Packages without methods are not listed; adjacent methods of a package share a range
+        assertEquals(2, store.getPackageCount());
+        assertEquals("a", store.getPackageName(0));
+        assertEquals(2, store.getPackageRangeCount(0));
+        assertEquals(3, store.getPackageMethodCount(0));
+        assertEquals(50, store.getPackageAverageMI(0), 1e-9);
+        assertEquals("b", store.getPackageName(1));
+        assertEquals(2, store.getPackageRangeCount(1));
+        assertEquals(5, store.getPackageMethodCount(1));
+        assertEquals(42, store.getPackageAverageMI(1), 1e-9);
+        assertEquals(45, store.getProjectAverageMI(), 1e-9);
+    }
+}
@@ -0,0 +1,43 @@
+package com.mindex.profile;
+
+import com.mindex.analyzer.JavaAnalyzer;
+import com.mindex.model.AnalysisResult;
+import com.mindex.profile.AnalysisProfiler.Phase;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AnalysisProfilerTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testPhasesAndSlowFiles() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            Files.writeString(tempDir.resolve("C" + i + ".java"), "class C" + i + " { void a() { int x = 1; } void b() {} }");
+        }
+        AnalysisProfiler profiler = new AnalysisProfiler(2);
+        AnalysisResult result = new JavaAnalyzer.Builder().profiler(profiler).build().analyzeProject(tempDir.toString());
+        assertEquals(6, result.allMethods.size());
+        assertEquals(1, profiler.getCalls(Phase.DISCOVER));
+        assertEquals(3, profiler.getCalls(Phase.READ));
+        assertEquals(3, profiler.getCalls(Phase.PARSE));
+        assertEquals(3, profiler.getCalls(Phase.MEASURE));
+        assertEquals(3, profiler.getFiles());
+        assertEquals(6, profiler.getMethods());
+        assertEquals(2, profiler.getSlowFiles().size());
+        assertTrue(profiler.getSlowFiles().get(0).nanos >= profiler.getSlowFiles().get(1).nanos);
+    }
+
+    @Test
+    void testDisabledRecordsNothing() throws Exception {
+        Files.writeString(tempDir.resolve("A.java"), "class A { void a() {} }");
+        AnalysisProfiler profiler = AnalysisProfiler.DISABLED;
+        new JavaAnalyzer.Builder().profiler(profiler).build().analyzeProject(tempDir.toString());
+        assertFalse(profiler.isEnabled());
+        assertEquals(0, profiler.getCalls(Phase.PARSE));
+        assertEquals(0, profiler.getFiles());
+    }
+}
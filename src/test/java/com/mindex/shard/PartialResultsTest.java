@@ -0,0 +1,87 @@
+package com.mindex.shard;
+
+import com.mindex.analyzer.FileDiscovery;
+import com.mindex.analyzer.JavaAnalyzer;
+import com.mindex.analyzer.ResultSink;
+import com.mindex.model.AnalysisResult;
+import com.mindex.model.FileResult;
+import com.mindex.model.MethodInfo;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PartialResultsTest {
+    @TempDir
+    Path tempDir;
+
+    private static FileDiscovery discovery(Shard shard) {
+        return new FileDiscovery(Collections.emptyList(), FileDiscovery.DEFAULT_EXCLUDES, false, shard);
+    }
+
+    private static List<String> rows(AnalysisResult result) {
+        List<String> rows = new ArrayList<>();
+        for (MethodInfo m : result.allMethods) {
+            rows.add(m.name + ":" + m.maintainabilityIndex + ":" + m.cyclomaticComplexity);
+        }
+        return rows;
+    }
+
+    @Test
+    void testMergedShardsEqualSingleRun() throws IOException {
+        Path project = Files.createDirectories(tempDir.resolve("project"));
+        for (int i = 0; i < 12; i++) {
+            Path dir = Files.createDirectories(project.resolve("p" + i % 3));
+            Files.writeString(dir.resolve("C" + i + ".java"),
+                    "package p" + i % 3 + "; class C" + i + " { int f(int a) { if (a > " + i + ") { return a; } return " + i + "; } }");
+        }
+        AnalysisResult single = new JavaAnalyzer().analyzeProject(project.toString());
+
+        List<Path> partials = new ArrayList<>();
+        int files = 0;
+        for (int i = 0; i < 3; i++) {
+            Shard shard = new Shard(i, 3);
+            files += discovery(shard).discover(project).size();
+            Path partial = tempDir.resolve("part" + i + ".bin");
+            new JavaAnalyzer.Builder().discovery(discovery(shard)).build().analyzeProject(project.toString(), new PartialResultWriter(project, shard, partial));
+            partials.add(partial);
+        }
+        assertEquals(12, files);
+        Collections.reverse(partials);
+        AnalysisResult merged = PartialResults.merge(partials);
+        assertEquals(rows(single), rows(merged));
+        assertEquals(single.packageMethods.keySet(), merged.packageMethods.keySet());
+        assertEquals(new ArrayList<>(single.classMethods.keySet()), new ArrayList<>(merged.classMethods.keySet()));
+
+        assertThrows(IOException.class, () -> PartialResults.merge(partials.subList(0, 2)));
+        // A sink that fails while files are delivered is still closed
+        boolean[] closed = new boolean[1];
+        assertThrows(UncheckedIOException.class, () -> PartialResults.merge(partials, new ResultSink() {
+            @Override
+            public void accept(FileResult fileResult) {
+                throw new UncheckedIOException(new IOException("No space left on device"));
+            }
+
+            @Override
+            public void close() {
+                closed[0] = true;
+            }
+        }));
+        assertTrue(closed[0]);
+    }
+
+    @Test
+    void testParse() {
+        Shard shard = Shard.parse("2/5");
+        assertEquals(2, shard.getIndex());
+        assertEquals(5, shard.getCount());
+        assertThrows(IllegalArgumentException.class, () -> Shard.parse("5/5"));
+        assertThrows(IllegalArgumentException.class, () -> Shard.parse("1"));
+    }
+}